@@ -0,0 +1,49 @@
+package io.storj;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing an access grant and deriving a restricted grant from it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AccessBenchmark {
+
+    private String serializedAccess;
+    private Access access;
+    private Permission permission;
+    private SharePrefix prefix;
+
+    @Setup
+    public void setUp() {
+        serializedAccess = BenchmarkSupport.accessGrant();
+        access = Access.parse(serializedAccess);
+        permission = new Permission.Builder().allowList().allowDownload().build();
+        prefix = new SharePrefix("bucket", "users/42/");
+    }
+
+    @TearDown
+    public void tearDown() {
+        access.close();
+    }
+
+    @Benchmark
+    public String parse() throws StorjException {
+        try (Access parsed = Access.parse(serializedAccess)) {
+            return parsed.serialize();
+        }
+    }
+
+    @Benchmark
+    public String share() throws StorjException {
+        try (Access shared = access.share(permission, prefix)) {
+            return shared.serialize();
+        }
+    }
+}
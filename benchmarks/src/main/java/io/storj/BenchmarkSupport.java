@@ -0,0 +1,58 @@
+package io.storj;
+
+/**
+ * Setup shared by the benchmarks.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Returns the access grant from the <code>GATEWAY_0_ACCESS</code> or
+     * <code>UPLINK_ACCESS</code> environment variable, like the tests.
+     *
+     * <p>Without either, the benchmarks run offline: the in-memory backend is selected, unless a
+     * backend was chosen explicitly, and a grant for it is returned. This must be called before
+     * anything else touches the native binding, which is bound on first use.</p>
+     *
+     * @return the serialized access grant
+     */
+    static String accessGrant() {
+        String accessGrant = environmentAccessGrant();
+        if (accessGrant == null) {
+            if (System.getProperty(UplinkBackend.BACKEND_PROPERTY) == null) {
+                System.setProperty(UplinkBackend.BACKEND_PROPERTY, UplinkBackend.MEMORY);
+            }
+            accessGrant = MemoryUplink.access("benchmarks");
+        }
+        return accessGrant;
+    }
+
+    /**
+     * Selects a binding of uplink-c and returns the access grant from the environment, for
+     * benchmarks which compare the bindings and cannot run offline.
+     *
+     * @param backend the value for the <code>storj.uplink.backend</code> property
+     * @return the serialized access grant
+     */
+    static String networkAccessGrant(String backend) {
+        String accessGrant = environmentAccessGrant();
+        if (accessGrant == null) {
+            throw new IllegalStateException("UPLINK_ACCESS is required to benchmark the " + backend + " backend");
+        }
+        System.setProperty(UplinkBackend.BACKEND_PROPERTY, backend);
+        return accessGrant;
+    }
+
+    private static String environmentAccessGrant() {
+        String accessGrant = System.getenv("GATEWAY_0_ACCESS");
+        if (accessGrant == null || accessGrant.length() == 0) {
+            accessGrant = System.getenv("UPLINK_ACCESS");
+        }
+        if (accessGrant == null || accessGrant.length() == 0) {
+            return null;
+        }
+        return accessGrant;
+    }
+}
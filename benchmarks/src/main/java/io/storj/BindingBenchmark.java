@@ -0,0 +1,127 @@
+package io.storj;
+
+import com.sun.jna.Memory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-call overhead of the bindings of uplink-c for <code>uplink_download_read</code>,
+ * <code>uplink_upload_write</code>, <code>uplink_stat_object</code> and the object iterator: JNA
+ * with and without direct mapping of the hot calls, and Panama.
+ *
+ * <p>Needs <code>UPLINK_ACCESS</code> and libuplink. The <code>panama</code> backend needs JDK 22
+ * or newer and falls back to JNA otherwise, so both rows then measure JNA. Each backend runs in
+ * its own fork because the binding is chosen once per JVM.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BindingBenchmark {
+
+    private static final String BUCKET = "jmh-binding";
+    private static final String KEY = "object";
+    private static final int OBJECT_SIZE = 64 * 1024 * 1024;
+    private static final int OBJECTS = 100;
+
+    @Param({"native", "panama"})
+    public String backend;
+
+    @Param({"true", "false"})
+    public String directMapping;
+
+    @Param({"4096"})
+    public int bufferSize;
+
+    private Project project;
+    private ObjectInputStream download;
+    private ObjectOutputStream upload;
+    private byte[] buffer;
+    private Memory nativeBuffer;
+
+    @Setup
+    public void setUp() throws IOException {
+        System.setProperty(UplinkBackend.DIRECT_PROPERTY, directMapping);
+        String accessGrant = BenchmarkSupport.networkAccessGrant(backend);
+        project = new Uplink().openProject(Access.parse(accessGrant));
+        project.ensureBucket(BUCKET);
+
+        byte[] data = new byte[OBJECT_SIZE];
+        new Random(0).nextBytes(data);
+        try (ObjectOutputStream os = project.uploadObject(BUCKET, KEY)) {
+            os.write(data);
+            os.commit();
+        }
+        for (int i = 0; i < OBJECTS; i++) {
+            try (ObjectOutputStream os = project.uploadObject(BUCKET, "list/" + i)) {
+                os.commit();
+            }
+        }
+
+        buffer = new byte[bufferSize];
+        nativeBuffer = new Memory(bufferSize);
+        download = project.downloadObject(BUCKET, KEY);
+        upload = project.uploadObject(BUCKET, "upload");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        download.close();
+        // never committed, closing aborts it
+        upload.close();
+        for (int i = 0; i < OBJECTS; i++) {
+            project.deleteObject(BUCKET, "list/" + i);
+        }
+        project.deleteObject(BUCKET, KEY);
+        project.close();
+    }
+
+    /**
+     * One <code>uplink_download_read</code> per invocation, restarting the download at its end.
+     */
+    @Benchmark
+    public int downloadRead() throws IOException {
+        int read = download.read(buffer, 0, buffer.length);
+        if (read == -1) {
+            download.close();
+        // never committed, closing aborts it
+        upload.close();
+            download = project.downloadObject(BUCKET, KEY);
+        }
+        return read;
+    }
+
+    /**
+     * One <code>uplink_upload_write</code> per invocation, to an upload which is never committed.
+     */
+    @Benchmark
+    public void uploadWrite() throws IOException {
+        // bypasses the write buffer of the stream
+        upload.write(nativeBuffer, bufferSize);
+    }
+
+    @Benchmark
+    public ObjectInfo statObject() {
+        return project.statObject(BUCKET, KEY);
+    }
+
+    /**
+     * One <code>uplink_object_iterator_next</code> and <code>uplink_object_iterator_item</code>
+     * per object.
+     */
+    @Benchmark
+    @OperationsPerInvocation(OBJECTS)
+    public void iterate(Blackhole blackhole) {
+        try (ObjectIterator objects = project.listObjects(BUCKET, ObjectListOption.prefix("list/"))) {
+            for (ObjectInfo object : objects) {
+                blackhole.consume(object);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.storj;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ObjectInputStream#read(byte[], int, int)} for different caller buffer sizes.
+ *
+ * <p>Each invocation downloads one 1 MiB object, so with the GC profiler
+ * (<code>-prof gc</code>) the <code>gc.alloc.rate.norm</code> metric is the number of bytes
+ * allocated per MB downloaded.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DownloadBenchmark {
+
+    private static final String BUCKET = "jmh-download";
+    private static final String KEY = "object-1mb";
+    private static final int OBJECT_SIZE = 1024 * 1024;
+
+    @Param({"4096", "65536", "1048576"})
+    public int bufferSize;
+
+    private Project project;
+    private byte[] buffer;
+
+    @Setup
+    public void setUp() throws IOException {
+        String accessGrant = BenchmarkSupport.accessGrant();
+
+        project = new Uplink().openProject(Access.parse(accessGrant));
+        project.ensureBucket(BUCKET);
+
+        byte[] data = new byte[OBJECT_SIZE];
+        new Random(0).nextBytes(data);
+        try (ObjectOutputStream os = project.uploadObject(BUCKET, KEY)) {
+            os.write(data);
+            os.commit();
+        }
+        buffer = new byte[bufferSize];
+    }
+
+    @TearDown
+    public void tearDown() throws StorjException {
+        project.deleteObject(BUCKET, KEY);
+        project.close();
+    }
+
+    @Benchmark
+    public long read(Blackhole blackhole) throws IOException {
+        long total = 0;
+        try (ObjectInputStream is = project.downloadObject(BUCKET, KEY)) {
+            int n;
+            while ((n = is.read(buffer, 0, buffer.length)) != -1) {
+                blackhole.consume(buffer);
+                total += n;
+            }
+        }
+        return total;
+    }
+}
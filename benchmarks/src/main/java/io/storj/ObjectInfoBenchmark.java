@@ -0,0 +1,57 @@
+package io.storj;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the construction of {@link ObjectInfo} from a native object struct, as done for every
+ * listed, downloaded or stat-ed object, with and without decoding the custom metadata.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ObjectInfoBenchmark {
+
+    @Param({"0", "4", "16"})
+    public int metadataEntries;
+
+    private JNAUplink.Object.ByReference object;
+
+    @Setup
+    public void setUp() {
+        // binds the backend before the first struct is created
+        BenchmarkSupport.accessGrant();
+
+        Map<String, String> metadata = new HashMap<>();
+        for (int i = 0; i < metadataEntries; i++) {
+            metadata.put("content-type-" + i, "application/octet-stream; variant=" + i);
+        }
+
+        object = new JNAUplink.Object.ByReference();
+        object.key = "renders/frame-000001.exr";
+        object.system = new JNAUplink.SystemMetadata.ByValue();
+        object.system.created = System.currentTimeMillis() / 1000;
+        object.system.content_length = 1024 * 1024;
+        object.custom = ObjectOutputStream.internalMetadata(metadata);
+        if (object.custom.entries != null) {
+            // ObjectInfo reads the entries from native memory, like uplink-c returns them
+            object.custom.entries.autoWrite();
+        }
+    }
+
+    @Benchmark
+    public ObjectInfo construct() {
+        return new ObjectInfo(object);
+    }
+
+    @Benchmark
+    public Map<String, String> constructAndDecode() {
+        return new ObjectInfo(object).getCustomMetadata();
+    }
+}
@@ -0,0 +1,78 @@
+package io.storj;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the listing throughput in objects per second: the plain {@link ObjectIterator}, the
+ * iterator with a prefetching background thread, and the columnar listing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ObjectIteratorBenchmark {
+
+    private static final String BUCKET = "jmh-listing";
+    private static final int OBJECTS = 1000;
+
+    private Project project;
+
+    @Setup
+    public void setUp() throws IOException {
+        project = new Uplink().openProject(Access.parse(BenchmarkSupport.accessGrant()));
+        project.ensureBucket(BUCKET);
+        for (int i = 0; i < OBJECTS; i++) {
+            try (ObjectOutputStream os = project.uploadObject(BUCKET, String.format("dir-%02d/object-%04d", i % 10, i))) {
+                os.setCustomMetadata(Collections.singletonMap("index", Integer.toString(i)));
+                os.write(new byte[]{(byte) i});
+                os.commit();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws StorjException {
+        try (DeleteResultIterator results = project.deleteObjectsWithPrefix(BUCKET, "")) {
+            for (DeleteResult result : results) {
+                // drain to delete everything
+            }
+        }
+        project.deleteBucket(BUCKET);
+        project.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OBJECTS)
+    public void iterate(Blackhole blackhole) {
+        try (ObjectIterator objects = project.listObjects(BUCKET, ObjectListOption.recursive(),
+                ObjectListOption.system(), ObjectListOption.custom())) {
+            for (ObjectInfo object : objects) {
+                blackhole.consume(object);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OBJECTS)
+    public void iteratePrefetch(Blackhole blackhole) {
+        try (ObjectIterator objects = project.listObjects(BUCKET, ObjectListOption.recursive(),
+                ObjectListOption.system(), ObjectListOption.custom(), ObjectListOption.prefetch(256))) {
+            for (ObjectInfo object : objects) {
+                blackhole.consume(object);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OBJECTS)
+    public ObjectColumns columns() {
+        return project.listObjectColumns(BUCKET, ObjectListOption.recursive());
+    }
+}
@@ -0,0 +1,50 @@
+package io.storj;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the setup cost of {@link Uplink#openProject(Access)} with an {@link Access} whose
+ * native handle is reused, against parsing the serialized grant for every project.
+ *
+ * <p>Opening a project does not dial the satellite, so both benchmarks measure only the local
+ * setup.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OpenProjectBenchmark {
+
+    private Uplink uplink;
+    private String serializedAccess;
+    private Access access;
+
+    @Setup
+    public void setUp() {
+        serializedAccess = BenchmarkSupport.accessGrant();
+
+        uplink = new Uplink();
+        access = Access.parse(serializedAccess);
+    }
+
+    @TearDown
+    public void tearDown() {
+        access.close();
+    }
+
+    @Benchmark
+    public void cachedAccess() throws StorjException {
+        uplink.openProject(access).close();
+    }
+
+    @Benchmark
+    public void parseEveryTime() throws StorjException {
+        try (Access parsed = Access.parse(serializedAccess)) {
+            uplink.openProject(parsed).close();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.storj;
+
+import com.sun.jna.Structure;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures turning option arrays into native structs, including writing them to native memory
+ * as JNA does for every call taking them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OptionMarshallingBenchmark {
+
+    private ObjectListOption[] listOptions;
+    private ObjectDownloadOption[] downloadOptions;
+    private ObjectUploadOption[] uploadOptions;
+    private BucketListOption[] bucketListOptions;
+    private UplinkOption[] uplinkOptions;
+
+    @Setup
+    public void setUp() {
+        // binds the backend before the first struct is created
+        BenchmarkSupport.accessGrant();
+
+        listOptions = new ObjectListOption[]{ObjectListOption.prefix("renders/"), ObjectListOption.cursor("renders/frame-0001"),
+                ObjectListOption.recursive(), ObjectListOption.system(), ObjectListOption.custom()};
+        downloadOptions = new ObjectDownloadOption[]{ObjectDownloadOption.offset(4096), ObjectDownloadOption.length(65536)};
+        uploadOptions = new ObjectUploadOption[]{ObjectUploadOption.expires(new Date(System.currentTimeMillis() + 86400000L))};
+        bucketListOptions = new BucketListOption[]{BucketListOption.cursor("bucket-1")};
+        uplinkOptions = new UplinkOption[]{UplinkOption.userAgent("benchmarks"), UplinkOption.tempDir(System.getProperty("java.io.tmpdir"))};
+    }
+
+    private static Structure written(Structure structure) {
+        structure.write();
+        return structure;
+    }
+
+    @Benchmark
+    public Structure listObjects() {
+        return written(ObjectListOption.internal(listOptions));
+    }
+
+    @Benchmark
+    public Structure download() {
+        return written(ObjectDownloadOption.internal(downloadOptions));
+    }
+
+    @Benchmark
+    public Structure upload() {
+        return written(ObjectUploadOption.internal(uploadOptions));
+    }
+
+    @Benchmark
+    public Structure listBuckets() {
+        return written(BucketListOption.internal(bucketListOptions));
+    }
+
+    @Benchmark
+    public Structure uplinkConfig() {
+        return written(UplinkOption.internal(uplinkOptions));
+    }
+}
@@ -0,0 +1,76 @@
+package io.storj;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of minting restricted access grants: one
+ * {@link Access#share(Permission, SharePrefix...)} call per grant, a bulk
+ * {@link Access#shareAll(List)} and a bulk share answered from a warm {@link ShareCache}.
+ *
+ * <p>Each invocation creates {@value #GRANTS} grants for distinct per-user prefixes.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ShareBenchmark {
+
+    private static final int GRANTS = 100;
+
+    private Access access;
+    private List<ShareRequest> requests;
+    private ShareCache cache;
+
+    @Setup
+    public void setUp() {
+        String serializedAccess = BenchmarkSupport.accessGrant();
+        access = Access.parse(serializedAccess);
+
+        Permission permission = new Permission.Builder().allowList().allowDownload().allowUpload().build();
+        requests = new ArrayList<>(GRANTS);
+        for (int i = 0; i < GRANTS; i++) {
+            requests.add(new ShareRequest(permission, new SharePrefix("bucket", "users/" + i + "/")));
+        }
+
+        cache = new ShareCache(GRANTS);
+        close(access.shareAll(requests, cache));
+    }
+
+    @TearDown
+    public void tearDown() {
+        access.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GRANTS)
+    public void shareEach() throws StorjException {
+        for (ShareRequest request : requests) {
+            access.share(request.getPermission(), request.getPrefixes()).close();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GRANTS)
+    public List<Access> shareAll() throws StorjException {
+        return close(access.shareAll(requests));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GRANTS)
+    public List<Access> shareAllCached() throws StorjException {
+        return close(access.shareAll(requests, cache));
+    }
+
+    private static List<Access> close(List<Access> shared) {
+        for (Access access : shared) {
+            access.close();
+        }
+        return shared;
+    }
+}
@@ -0,0 +1,57 @@
+package io.storj;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ObjectOutputStream#write(byte[], int, int)} for different caller buffer sizes.
+ *
+ * <p>Each invocation uploads and commits one 1 MiB object, written in chunks of the buffer
+ * size.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UploadBenchmark {
+
+    private static final String BUCKET = "jmh-upload";
+    private static final String KEY = "object-1mb";
+    private static final int OBJECT_SIZE = 1024 * 1024;
+
+    @Param({"4096", "65536", "1048576"})
+    public int bufferSize;
+
+    private Project project;
+    private byte[] data;
+
+    @Setup
+    public void setUp() {
+        project = new Uplink().openProject(Access.parse(BenchmarkSupport.accessGrant()));
+        project.ensureBucket(BUCKET);
+
+        data = new byte[OBJECT_SIZE];
+        new Random(0).nextBytes(data);
+    }
+
+    @TearDown
+    public void tearDown() throws StorjException {
+        project.deleteObject(BUCKET, KEY);
+        project.close();
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        try (ObjectOutputStream os = project.uploadObject(BUCKET, KEY)) {
+            for (int offset = 0; offset < data.length; offset += bufferSize) {
+                os.write(data, offset, Math.min(bufferSize, data.length - offset));
+            }
+            os.commit();
+        }
+    }
+}
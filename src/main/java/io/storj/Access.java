@@ -1,8 +1,10 @@
 package io.storj;
 
-import com.sun.jna.Memory;
-import com.sun.jna.NativeLong;
-import com.sun.jna.Pointer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Represents all credentials you need to access data on the Storj network:
@@ -11,18 +13,122 @@ import com.sun.jna.Pointer;
  *     <li>ApiKey to access the satellite</li>
  *     <li>Encryption access for accessing the encrypted content</li>
  * </ul>
+ *
+ * <p>The access grant is parsed into a native handle once, on first use, and the handle is
+ * reused by all operations on this Access. The handle is released by {@link #close()}, or when
+ * the Access becomes unreachable. A closed Access can still be used; it parses the grant again
+ * when needed.</p>
  */
-public class Access {
+public class Access implements AutoCloseable {
 
-    protected String serializedAccess;
+    protected volatile String serializedAccess;
+
+    private NativeAccess nativeAccess;
+    private NativeCleaner.Cleanable cleanable;
 
     Access(String serializedAccess) {
         this.serializedAccess = serializedAccess;
     }
 
+    /**
+     * Creates an Access adopting an already parsed native handle.
+     */
+    Access(String serializedAccess, JNAUplink.AccessResult.ByValue result) {
+        this.serializedAccess = serializedAccess;
+        adopt(result);
+    }
+
+    private void adopt(JNAUplink.AccessResult.ByValue result) {
+        this.nativeAccess = new NativeAccess(result);
+        this.cleanable = NativeCleaner.register(this, NativeResources.ACCESS, releaser(this.nativeAccess));
+    }
+
+    // static, so the action does not capture this Access and keep it reachable
+    private static Runnable releaser(final NativeAccess nativeAccess) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                // the reference held by the Access
+                nativeAccess.release();
+            }
+        };
+    }
+
+    /**
+     * Returns the native handle with an additional reference, which the caller must give back
+     * with {@link NativeAccess#release()}. Operations in flight keep the handle alive even if
+     * this Access is closed meanwhile.
+     */
+    synchronized NativeAccess acquire() throws StorjException {
+        if (this.nativeAccess == null || !this.nativeAccess.retain()) {
+            JNAUplink.AccessResult.ByValue result = JNAUplink.INSTANCE.uplink_parse_access(this.serializedAccess);
+            try {
+                ExceptionUtil.handleError(result.error);
+            } catch (StorjException e) {
+                JNAUplink.INSTANCE.uplink_free_access_result(result);
+                throw e;
+            }
+            adopt(result);
+            this.nativeAccess.retain();
+        }
+        return this.nativeAccess;
+    }
+
+    /**
+     * Releases the native handle of this access grant. Operations already running on it finish
+     * first.
+     */
+    @Override
+    public synchronized void close() {
+        if (this.cleanable != null) {
+            this.cleanable.clean();
+            this.cleanable = null;
+            this.nativeAccess = null;
+        }
+    }
+
+    /**
+     * A reference-counted parsed access grant. It is freed when the last reference is released.
+     */
+    static class NativeAccess {
+
+        private final JNAUplink.AccessResult.ByValue result;
+        private int references = 1;
+
+        NativeAccess(JNAUplink.AccessResult.ByValue result) {
+            this.result = result;
+        }
+
+        JNAUplink.Access.ByReference handle() {
+            return this.result.access;
+        }
+
+        synchronized boolean retain() {
+            if (this.references == 0) {
+                return false;
+            }
+            this.references++;
+            return true;
+        }
+
+        void release() {
+            boolean free;
+            synchronized (this) {
+                free = --this.references == 0;
+            }
+            if (free) {
+                JNAUplink.INSTANCE.uplink_free_access_result(this.result);
+            }
+        }
+    }
+
     /**
      * Serializes this {@link Access} to base58-encoded {@link String}.
      *
+     * <p>The result includes the encryption keys set with
+     * {@link #overrideEncryptionKey(String, String, EncryptionKey)}, so it differs from the
+     * grant this Access was parsed from once a key has been overridden.</p>
+     *
      * @return a {@link String} with serialized Access Grant
      * @throws StorjException in case of error
      */
@@ -42,9 +148,14 @@ public class Access {
             throw new StorjException("Empty access grant");
         }
         JNAUplink.AccessResult.ByValue result = JNAUplink.INSTANCE.uplink_parse_access(serialized);
-        ExceptionUtil.handleError(result.error);
-        JNAUplink.INSTANCE.uplink_free_access_result(result);
-        return new Access(serialized);
+        try {
+            ExceptionUtil.handleError(result.error);
+        } catch (StorjException e) {
+            JNAUplink.INSTANCE.uplink_free_access_result(result);
+            throw e;
+        }
+        // keep the parsed handle instead of parsing again on first use
+        return new Access(serialized, result);
     }
 
     /**
@@ -63,11 +174,83 @@ public class Access {
      * @throws StorjException if an error occurs during the sharing
      */
     public Access share(Permission permission, SharePrefix... prefixes) throws StorjException {
-        JNAUplink.Permission.ByValue cPermission = permission.internal();
-        JNAUplink.AccessResult.ByValue accessResult = null;
-        JNAUplink.AccessResult.ByValue shareResult = null;
-        JNAUplink.StringResult.ByValue stringResult = null;
+        NativeAccess access = acquire();
+        try {
+            return share(access, permission.internal(), internal(prefixes), prefixes.length);
+        } finally {
+            access.release();
+        }
+    }
+
+    /**
+     * Creates new access grants with specific permissions, like
+     * {@link #share(Permission, SharePrefix...)} for each request.
+     * <p>
+     * The access grant is parsed at most once for all requests, and requests with equal
+     * prefixes reuse the same native prefix array.
+     *
+     * @param requests the permissions and prefixes of the grants to create
+     * @return the shared access grants, in the order of the requests
+     * @throws StorjException if an error occurs during the sharing
+     */
+    public List<Access> shareAll(List<ShareRequest> requests) throws StorjException {
+        return shareAll(requests, null);
+    }
+
+    /**
+     * Creates new access grants with specific permissions, like
+     * {@link #shareAll(List)}, returning grants from the cache for requests shared before.
+     * Grants returned from the cache are parsed when first used.
+     *
+     * @param requests the permissions and prefixes of the grants to create
+     * @param cache    the cache of shared grants, or <code>null</code> for no caching
+     * @return the shared access grants, in the order of the requests
+     * @throws StorjException if an error occurs during the sharing
+     */
+    public List<Access> shareAll(List<ShareRequest> requests, ShareCache cache) throws StorjException {
+        List<Access> shared = new ArrayList<>(requests.size());
+        Map<List<SharePrefix>, JNAUplink.SharePrefix.ByReference> cPrefixes = new HashMap<>();
+        NativeAccess access = null;
+        try {
+            for (ShareRequest request : requests) {
+                String parent = this.serializedAccess;
+                String grant = cache != null ? cache.get(parent, request) : null;
+                if (grant != null) {
+                    shared.add(new Access(grant));
+                    continue;
+                }
+
+                if (access == null) {
+                    access = acquire();
+                }
+                SharePrefix[] prefixes = request.getPrefixes();
+                List<SharePrefix> prefixList = Arrays.asList(prefixes);
+                JNAUplink.SharePrefix.ByReference firstPrefix = cPrefixes.get(prefixList);
+                if (firstPrefix == null) {
+                    firstPrefix = internal(prefixes);
+                    cPrefixes.put(prefixList, firstPrefix);
+                }
+
+                Access sharedAccess = share(access, request.getPermission().internal(), firstPrefix, prefixes.length);
+                shared.add(sharedAccess);
+                if (cache != null) {
+                    cache.put(parent, request, sharedAccess.serializedAccess);
+                }
+            }
+            return shared;
+        } catch (RuntimeException e) {
+            for (Access sharedAccess : shared) {
+                sharedAccess.close();
+            }
+            throw e;
+        } finally {
+            if (access != null) {
+                access.release();
+            }
+        }
+    }
 
+    private static JNAUplink.SharePrefix.ByReference internal(SharePrefix[] prefixes) {
         JNAUplink.SharePrefix.ByReference firstPrefix = new JNAUplink.SharePrefix.ByReference();
         if (prefixes.length > 0) {
             JNAUplink.SharePrefix.ByReference[] cPrefixes = (JNAUplink.SharePrefix.ByReference[]) firstPrefix.toArray(prefixes.length);
@@ -77,22 +260,25 @@ public class Access {
             }
             firstPrefix = cPrefixes[0];
         }
+        return firstPrefix;
+    }
 
+    private static Access share(NativeAccess access, JNAUplink.Permission.ByValue cPermission,
+                                JNAUplink.SharePrefix.ByReference firstPrefix, int prefixCount) throws StorjException {
+        JNAUplink.AccessResult.ByValue shareResult = null;
+        JNAUplink.StringResult.ByValue stringResult = null;
         try {
-            accessResult = JNAUplink.INSTANCE.uplink_parse_access(this.serializedAccess);
-            ExceptionUtil.handleError(accessResult.error);
-
-            shareResult = JNAUplink.INSTANCE.uplink_access_share(accessResult.access, cPermission, firstPrefix, prefixes.length);
+            shareResult = JNAUplink.INSTANCE.uplink_access_share(access.handle(), cPermission, firstPrefix, prefixCount);
             ExceptionUtil.handleError(shareResult.error);
 
             stringResult = JNAUplink.INSTANCE.uplink_access_serialize(shareResult.access);
             ExceptionUtil.handleError(stringResult.error);
 
-            return new Access(stringResult.string);
+            // the shared access keeps the native handle of the share result
+            Access shared = new Access(stringResult.string, shareResult);
+            shareResult = null;
+            return shared;
         } finally {
-            if (accessResult != null) {
-                JNAUplink.INSTANCE.uplink_free_access_result(accessResult);
-            }
             if (shareResult != null) {
                 JNAUplink.INSTANCE.uplink_free_access_result(shareResult);
             }
@@ -108,6 +294,14 @@ public class Access {
      * <p>
      * This function is useful for overriding the encryption key in user-specific
      * access grants when implementing multitenancy in a single app bucket.
+     * <p>
+     * The override applies to operations started afterwards, operations already running on
+     * this Access keep the previous keys. It is also included in {@link #serialize()}.
+     * <p>
+     * The key is derived on every call and not kept afterwards. The derivation is CPU-heavy,
+     * applications overriding the same keys repeatedly can keep them in an
+     * {@link EncryptionKeyCache} with
+     * {@link #overrideEncryptionKey(String, String, EncryptionKey, EncryptionKeyCache)}.
      *
      * @param bucket        the bucket name
      * @param prefix        the prefix
@@ -115,25 +309,71 @@ public class Access {
      * @throws StorjException in case of error
      */
     public void overrideEncryptionKey(String bucket, String prefix, EncryptionKey encryptionKey) throws StorjException {
-        JNAUplink.AccessResult.ByValue accessResult = null;
-        JNAUplink.EncryptionKeyResult.ByValue encKeyResult = null;
+        EncryptionKeyCache.DerivedKey derivedKey = EncryptionKeyCache.deriveNative(encryptionKey);
         try {
-            accessResult = JNAUplink.INSTANCE.uplink_parse_access(this.serializedAccess);
-            ExceptionUtil.handleError(accessResult.error);
+            override(bucket, prefix, derivedKey);
+        } finally {
+            derivedKey.release();
+        }
+    }
 
-            Pointer salt = new Memory(encryptionKey.getSalt().length);
-            salt.write(0, encryptionKey.getSalt(), 0, encryptionKey.getSalt().length);
-            encKeyResult = JNAUplink.INSTANCE.uplink_derive_encryption_key(encryptionKey.getPassphrase(), salt, new NativeLong(encryptionKey.getSalt().length));
-            ExceptionUtil.handleError(encKeyResult.error);
+    /**
+     * Overrides the root encryption key for the prefix in
+     * bucket with encryptionKey, taking the derived key from the given cache.
+     * <p>
+     * The derived key stays in memory for as long as the cache keeps it. A key which is not
+     * cached yet is still derived before this method returns; concurrent calls for the same
+     * key share one derivation. Use {@link EncryptionKeyCache#derive(EncryptionKey)} to derive
+     * keys ahead of time without blocking.
+     *
+     * @param bucket        the bucket name
+     * @param prefix        the prefix
+     * @param encryptionKey new encryption key
+     * @param cache         the cache of derived keys
+     * @throws StorjException in case of error
+     */
+    public void overrideEncryptionKey(String bucket, String prefix, EncryptionKey encryptionKey,
+                                      EncryptionKeyCache cache) throws StorjException {
+        // derived outside of the lock, the derivation is slow
+        EncryptionKeyCache.DerivedKey derivedKey = cache.acquire(encryptionKey);
+        try {
+            override(bucket, prefix, derivedKey);
+        } finally {
+            derivedKey.release();
+        }
+    }
+
+    /**
+     * Applies the override to a new native handle and then replaces the current one, so
+     * operations in flight on the current handle do not see the change. The lock of
+     * {@link #acquire()} orders the replacement with concurrent overrides and lookups.
+     */
+    private synchronized void override(String bucket, String prefix, EncryptionKeyCache.DerivedKey derivedKey) throws StorjException {
+        JNAUplink.AccessResult.ByValue result = JNAUplink.INSTANCE.uplink_parse_access(this.serializedAccess);
+        JNAUplink.StringResult.ByValue stringResult = null;
+        try {
+            ExceptionUtil.handleError(result.error);
 
-            JNAUplink.Error.ByReference error = JNAUplink.INSTANCE.uplink_access_override_encryption_key(accessResult.access, bucket, prefix, encKeyResult.encryption_key);
+            JNAUplink.Error.ByReference error = JNAUplink.INSTANCE.uplink_access_override_encryption_key(result.access, bucket, prefix, derivedKey.handle());
             ExceptionUtil.handleError(error);
+
+            // keep the serialized form in sync, so the override survives a close() and re-parse
+            stringResult = JNAUplink.INSTANCE.uplink_access_serialize(result.access);
+            ExceptionUtil.handleError(stringResult.error);
+
+            if (this.cleanable != null) {
+                // operations in flight keep their reference to the previous handle
+                this.cleanable.clean();
+            }
+            adopt(result);
+            result = null;
+            this.serializedAccess = stringResult.string;
         } finally {
-            if (accessResult != null) {
-                JNAUplink.INSTANCE.uplink_free_access_result(accessResult);
+            if (result != null) {
+                JNAUplink.INSTANCE.uplink_free_access_result(result);
             }
-            if (encKeyResult != null) {
-                JNAUplink.INSTANCE.uplink_free_encryption_key_result(encKeyResult);
+            if (stringResult != null) {
+                JNAUplink.INSTANCE.uplink_free_string_result(stringResult);
             }
         }
     }
@@ -0,0 +1,263 @@
+package io.storj;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs the metadata operations of a {@link Project} asynchronously, returning
+ * {@link CompletableFuture}s instead of blocking the calling thread on the native call.
+ *
+ * <p>The number of native calls running at the same time is capped by
+ * {@link AsyncProjectOption#maxInFlight(int)}, so many operations can be started at once
+ * without starting as many native calls. Operations beyond the cap are queued and handed to the
+ * executor only when a running call completes, so no executor thread is blocked waiting for its
+ * turn. Failed operations complete the future exceptionally with the {@link StorjException} of
+ * the underlying call.</p>
+ *
+ * <p>Unless an executor is set, all AsyncProjects share one pool of daemon threads, which grows
+ * with the calls in flight and shrinks when they are idle.</p>
+ *
+ * <p>Closing an AsyncProject makes new operations fail, but does not close the {@link Project}
+ * it was created from:</p>
+ *
+ * <pre>
+ * {@code try (Project project = uplink.openProject(access);
+ *      AsyncProject async = project.async()) {
+ *     CompletableFuture<ObjectInfo> info = async.statObject("my-bucket", "my-key");
+ *     ...
+ * }
+ * }
+ * </pre>
+ *
+ * @see Project#async(AsyncProjectOption...)
+ */
+public class AsyncProject implements AutoCloseable {
+
+    private final Project project;
+    private final Executor executor;
+    private final Semaphore inFlight;
+    private final Queue<Task<?>> queued = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    AsyncProject(Project project, AsyncProjectOption... options) {
+        AsyncProjectOption.Settings settings = AsyncProjectOption.internal(options);
+        this.project = project;
+        this.inFlight = new Semaphore(settings.maxInFlight);
+        this.executor = settings.executor != null ? settings.executor : DefaultExecutor.INSTANCE;
+    }
+
+    /**
+     * Holds the pool shared by all AsyncProjects without an executor, created on first use.
+     */
+    private static class DefaultExecutor {
+        // platform threads: a virtual thread stays pinned to its carrier during a native call,
+        // so the calls in flight could starve the application's virtual threads
+        static final ExecutorService INSTANCE = Executors.newCachedThreadPool(new NamedThreadFactory("async"));
+    }
+
+    /**
+     * Returns the project this AsyncProject runs its operations on.
+     *
+     * @return the underlying {@link Project}
+     */
+    public Project getProject() {
+        return this.project;
+    }
+
+    /**
+     * Returns bucket metadata.
+     *
+     * @param bucket the bucket name
+     * @return a future completed with the bucket info
+     * @see Project#statBucket(String)
+     */
+    public CompletableFuture<BucketInfo> statBucket(final String bucket) {
+        return submit(new Call<BucketInfo>() {
+            @Override
+            public BucketInfo call() {
+                return project.statBucket(bucket);
+            }
+        });
+    }
+
+    /**
+     * Creates a bucket in this project.
+     *
+     * @param bucket the bucket name
+     * @return a future completed with the bucket info
+     * @see Project#createBucket(String)
+     */
+    public CompletableFuture<BucketInfo> createBucket(final String bucket) {
+        return submit(new Call<BucketInfo>() {
+            @Override
+            public BucketInfo call() {
+                return project.createBucket(bucket);
+            }
+        });
+    }
+
+    /**
+     * Ensures that a bucket exists in this project.
+     *
+     * @param bucket the bucket name
+     * @return a future completed with the bucket info
+     * @see Project#ensureBucket(String)
+     */
+    public CompletableFuture<BucketInfo> ensureBucket(final String bucket) {
+        return submit(new Call<BucketInfo>() {
+            @Override
+            public BucketInfo call() {
+                return project.ensureBucket(bucket);
+            }
+        });
+    }
+
+    /**
+     * Deletes a bucket from this project.
+     *
+     * @param bucket the bucket name
+     * @return a future completed with the bucket info
+     * @see Project#deleteBucket(String)
+     */
+    public CompletableFuture<BucketInfo> deleteBucket(final String bucket) {
+        return submit(new Call<BucketInfo>() {
+            @Override
+            public BucketInfo call() {
+                return project.deleteBucket(bucket);
+            }
+        });
+    }
+
+    /**
+     * Returns object metadata.
+     *
+     * @param bucket the bucket name
+     * @param key    the object key
+     * @return a future completed with the object info
+     * @see Project#statObject(String, String)
+     */
+    public CompletableFuture<ObjectInfo> statObject(final String bucket, final String key) {
+        return submit(new Call<ObjectInfo>() {
+            @Override
+            public ObjectInfo call() {
+                return project.statObject(bucket, key);
+            }
+        });
+    }
+
+    /**
+     * Moves an object to a new bucket or key.
+     *
+     * @param oldBucket the current bucket name
+     * @param oldKey    the current object key
+     * @param newBucket the new bucket name
+     * @param newKey    the new object key
+     * @return a future completed when the object has been moved
+     * @see Project#moveObject(String, String, String, String)
+     */
+    public CompletableFuture<Void> moveObject(final String oldBucket, final String oldKey,
+                                              final String newBucket, final String newKey) {
+        return submit(new Call<Void>() {
+            @Override
+            public Void call() {
+                project.moveObject(oldBucket, oldKey, newBucket, newKey);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Deletes an object.
+     *
+     * @param bucket the bucket name
+     * @param key    the key of the object to delete
+     * @return a future completed with the info of the deleted object, or <code>null</code> if
+     * it did not exist
+     * @see Project#deleteObject(String, String)
+     */
+    public CompletableFuture<ObjectInfo> deleteObject(final String bucket, final String key) {
+        return submit(new Call<ObjectInfo>() {
+            @Override
+            public ObjectInfo call() {
+                return project.deleteObject(bucket, key);
+            }
+        });
+    }
+
+    private interface Call<T> {
+        T call() throws StorjException;
+    }
+
+    private <T> CompletableFuture<T> submit(Call<T> call) {
+        Task<T> task = new Task<>(call);
+        if (this.closed) {
+            task.future.completeExceptionally(new RejectedExecutionException("async project closed"));
+            return task.future;
+        }
+        this.queued.add(task);
+        dispatch();
+        return task.future;
+    }
+
+    /**
+     * Hands queued tasks to the executor while there are free slots. Called on submission and
+     * whenever a task completes, so the caller never waits for a slot.
+     */
+    private void dispatch() {
+        while (this.inFlight.tryAcquire()) {
+            Task<?> task = this.queued.poll();
+            if (task == null) {
+                this.inFlight.release();
+                // a task queued while the slot was held found no free slot, so it is ours to run
+                if (this.queued.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                this.executor.execute(task);
+            } catch (RuntimeException e) {
+                // rejected by the executor, e.g. after it was shut down
+                this.inFlight.release();
+                task.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private class Task<T> implements Runnable {
+
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        private final Call<T> call;
+
+        Task(Call<T> call) {
+            this.call = call;
+        }
+
+        @Override
+        public void run() {
+            try {
+                this.future.complete(this.call.call());
+            } catch (Throwable e) {
+                this.future.completeExceptionally(e);
+            } finally {
+                inFlight.release();
+                dispatch();
+            }
+        }
+    }
+
+    /**
+     * Makes new operations fail. Operations already started still complete, also those still
+     * waiting for a free slot. The underlying {@link Project} stays open.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+    }
+}
@@ -0,0 +1,78 @@
+package io.storj;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Options for configuring an {@link AsyncProject}.
+ *
+ * @see Project#async(AsyncProjectOption...)
+ */
+public class AsyncProjectOption {
+
+    static final int DEFAULT_MAX_IN_FLIGHT = 64;
+
+    private enum Key {
+        EXECUTOR,
+        MAX_IN_FLIGHT,
+    }
+
+    private Key key;
+
+    private Object value;
+
+    AsyncProjectOption(Key key, Object value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * Option for the executor running the native calls. The executor is not shut down when the
+     * {@link AsyncProject} is closed. If not set, a pool of daemon threads shared by all
+     * AsyncProjects is used.
+     *
+     * <p>Virtual threads are not a good fit: a native call pins the virtual thread to its
+     * carrier thread for the whole call, so concurrent calls can occupy every carrier of the
+     * shared scheduler.</p>
+     *
+     * @param executor the executor
+     * @return an {@link AsyncProjectOption}
+     */
+    public static AsyncProjectOption executor(Executor executor) {
+        if (executor == null) {
+            throw new NullPointerException("executor");
+        }
+        return new AsyncProjectOption(Key.EXECUTOR, executor);
+    }
+
+    /**
+     * Option for the maximum number of native calls running at the same time. Further operations
+     * are queued and handed to the executor when a call completes. Defaults to 64.
+     *
+     * @param maxInFlight the maximum number of concurrent native calls
+     * @return an {@link AsyncProjectOption}
+     */
+    public static AsyncProjectOption maxInFlight(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("max in flight must be positive: " + maxInFlight);
+        }
+        return new AsyncProjectOption(Key.MAX_IN_FLIGHT, maxInFlight);
+    }
+
+    static Settings internal(AsyncProjectOption... options) {
+        Settings settings = new Settings();
+        settings.maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+        for (AsyncProjectOption option : options) {
+            if (option.key == Key.EXECUTOR) {
+                settings.executor = (Executor) option.value;
+            } else if (option.key == Key.MAX_IN_FLIGHT) {
+                settings.maxInFlight = (int) option.value;
+            }
+        }
+        return settings;
+    }
+
+    static class Settings {
+        Executor executor;
+        int maxInFlight;
+    }
+}
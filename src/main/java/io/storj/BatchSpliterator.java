@@ -0,0 +1,69 @@
+package io.storj;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Spliterator} over a listing iterator which splits off array-backed batches.
+ *
+ * <p>The native listing can only be read sequentially, so splitting drains the next batch of
+ * items into an array and hands it out as a sized spliterator. Batches grow from
+ * {@link #INITIAL_BATCH_SIZE} to {@link #MAX_BATCH_SIZE}, so short listings still split and long
+ * listings amortize the copying.</p>
+ */
+class BatchSpliterator<T> implements Spliterator<T> {
+
+    static final int INITIAL_BATCH_SIZE = 128;
+    static final int MAX_BATCH_SIZE = 8192;
+
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.NONNULL;
+
+    private final Iterator<T> iterator;
+    private int batchSize = INITIAL_BATCH_SIZE;
+
+    BatchSpliterator(Iterator<T> iterator) {
+        this.iterator = iterator;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (!this.iterator.hasNext()) {
+            return false;
+        }
+        action.accept(this.iterator.next());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        while (this.iterator.hasNext()) {
+            action.accept(this.iterator.next());
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (!this.iterator.hasNext()) {
+            return null;
+        }
+        Object[] batch = new Object[this.batchSize];
+        int n = 0;
+        while (n < batch.length && this.iterator.hasNext()) {
+            batch[n++] = this.iterator.next();
+        }
+        this.batchSize = Math.min(this.batchSize * 2, MAX_BATCH_SIZE);
+        return Spliterators.spliterator(batch, 0, n, CHARACTERISTICS);
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+}
@@ -6,12 +6,16 @@ import java.util.Iterator;
 public class BucketIterator implements AutoCloseable, Iterator<BucketInfo>, Iterable<BucketInfo> {
 
     private JNAUplink.BucketIterator.ByReference cIterator;
+    private final Releaser releaser;
+    private final NativeCleaner.Cleanable cleanable;
 
     private BucketInfo currentItem;
     private Boolean hasNext = null;
 
-    BucketIterator(JNAUplink.Project.ByReference project, BucketListOption... options) {
-        this.cIterator = JNAUplink.INSTANCE.uplink_list_buckets(project, BucketListOption.internal(options));
+    BucketIterator(Project project, BucketListOption... options) {
+        this.cIterator = JNAUplink.INSTANCE.uplink_list_buckets(project.internal(), BucketListOption.internal(options));
+        this.releaser = new Releaser(project, this.cIterator);
+        this.cleanable = NativeCleaner.register(this, NativeResources.BUCKET_ITERATOR, this.releaser);
     }
 
     @Override
@@ -80,11 +84,42 @@ public class BucketIterator implements AutoCloseable, Iterator<BucketInfo>, Iter
 
     @Override
     public void close() throws StorjException {
+        if (!this.releaser.markClosed()) {
+            return;
+        }
         try {
             JNAUplink.Error.ByReference error = JNAUplink.INSTANCE.uplink_bucket_iterator_err(cIterator);
             ExceptionUtil.handleError(error);
         } finally {
-            JNAUplink.INSTANCE.uplink_free_bucket_iterator(cIterator);
+            this.cleanable.clean();
+        }
+    }
+
+    /**
+     * Frees the native iterator, also for an iterator which was not closed.
+     */
+    private static class Releaser extends NativeCleaner.Releaser {
+
+        /**
+         * Keeps the native project open until the iterator is freed, also when the {@link Project}
+         * itself is no longer referenced.
+         */
+        private final Project project;
+        private final JNAUplink.BucketIterator.ByReference cIterator;
+
+        Releaser(Project project, JNAUplink.BucketIterator.ByReference cIterator) {
+            this.project = project;
+            this.cIterator = cIterator;
+        }
+
+        @Override
+        void close() {
+            // iterators have nothing to close
+        }
+
+        @Override
+        void free() {
+            JNAUplink.INSTANCE.uplink_free_bucket_iterator(this.cIterator);
         }
     }
 
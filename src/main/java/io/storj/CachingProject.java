@@ -0,0 +1,558 @@
+package io.storj;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves downloads of a {@link Project} from a local directory, downloading only the parts of an
+ * object which are not cached yet.
+ *
+ * <p>Every download stats the object first. Cache entries are keyed by bucket, key and the
+ * creation time and content length of the object, so an overwritten object gets a new entry and
+ * the old one is evicted. Objects are downloaded and cached in chunks of
+ * {@link CachingProjectOption#chunkSize(int)} bytes, so a ranged download only fetches the chunks
+ * it overlaps which are missing. Hits are served from memory-mapped files.</p>
+ *
+ * <p>The directory can be shared by several threads and processes: filling an entry is
+ * serialized with a file lock, and the size of the directory is bounded by evicting least
+ * recently used entries, or least frequently used ones with
+ * {@link CachingProjectOption#leastFrequentlyUsed()}. If the cache directory cannot be used, the
+ * download is served from the network without caching.</p>
+ *
+ * <pre>
+ * {@code try (Project project = uplink.openProject(access)) {
+ *     CachingProject cache = project.caching(CachingProjectOption.directory(Paths.get("/var/cache/storj")));
+ *     try (InputStream in = cache.downloadObject("assets", "textures/wood.png")) {
+ *         ...
+ *     }
+ * }
+ * }
+ * </pre>
+ *
+ * @see Project#caching(CachingProjectOption...)
+ */
+public class CachingProject {
+
+    private static final String DATA_SUFFIX = ".data";
+    private static final String CHUNKS_SUFFIX = ".chunks";
+
+    /**
+     * Size of the regions mapped at once by the returned streams.
+     */
+    private static final int MAP_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final int COPY_BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * After exceeding the maximum size, entries are evicted down to this fraction of it, so not
+     * every following download has to evict again.
+     */
+    private static final double EVICTION_LOW_WATER_MARK = 0.9;
+
+    /**
+     * Serializes the threads of this JVM on an entry, the file lock serializes the processes.
+     * Shared by all instances, as a JVM cannot hold two locks on the same file, and striped, so
+     * no lock is ever removed while a thread may still hold it.
+     */
+    private static final Object[] LOCKS = new Object[64];
+
+    static {
+        for (int i = 0; i < LOCKS.length; i++) {
+            LOCKS[i] = new Object();
+        }
+    }
+
+    private final Project project;
+    private final CachingProjectOption.Settings settings;
+
+    private final ConcurrentHashMap<String, AtomicLong> hits = new ConcurrentHashMap<>();
+
+    /**
+     * Estimated bytes in the directory, -1 until it was first scanned. Other processes change it
+     * unnoticed, so it is corrected by each scan.
+     */
+    private final AtomicLong size = new AtomicLong(-1);
+
+    CachingProject(Project project, CachingProjectOption... options) {
+        this.project = project;
+        this.settings = CachingProjectOption.internal(options);
+    }
+
+    /**
+     * Returns the project this CachingProject downloads from.
+     *
+     * @return the underlying {@link Project}
+     */
+    public Project getProject() {
+        return this.project;
+    }
+
+    /**
+     * Returns the cache directory.
+     *
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return this.settings.directory;
+    }
+
+    /**
+     * Downloads an object, or the range selected with {@link ObjectDownloadOption#offset(long)}
+     * and {@link ObjectDownloadOption#length(long)}, through the cache.
+     *
+     * @param bucket  the bucket name
+     * @param key     an object key
+     * @param options options to apply while downloading
+     * @return input stream of the requested bytes
+     * @throws StorjException if an error occurs while retrieving the object info or downloading
+     */
+    public InputStream downloadObject(String bucket, String key, ObjectDownloadOption... options) throws StorjException {
+        ObjectInfo info = this.project.statObject(bucket, key);
+        SystemMetadata system = info.getSystemMetadata();
+        long offset = ObjectDownloadOption.offsetSetting(options);
+        long length = ObjectDownloadOption.lengthSetting(options);
+        if (offset < 0 || offset > system.getContentLength()) {
+            // leave the handling of unusual ranges to uplink
+            return this.project.downloadObject(bucket, key, options);
+        }
+        if (length < 0 || length > system.getContentLength() - offset) {
+            length = system.getContentLength() - offset;
+        }
+        if (length == 0) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        Entry entry = new Entry(bucket, key, system);
+        InputStream stream;
+        try {
+            stream = new MappedInputStream(fill(entry, offset, length), offset, offset + length);
+        } catch (IOException | OverlappingFileLockException e) {
+            // the cache only saves downloads, it must not fail them
+            return this.project.downloadObject(bucket, key, options);
+        }
+        used(entry);
+        evict(entry);
+        return stream;
+    }
+
+    /**
+     * Downloads the chunks overlapping the range which are not cached yet.
+     *
+     * @return the data file, opened while the entry was locked, so it has all chunks of the range
+     * also if the entry is evicted and filled again meanwhile
+     */
+    private FileChannel fill(Entry entry, long offset, long length) throws IOException {
+        int first = (int) (offset / this.settings.chunkSize);
+        int last = (int) ((offset + length - 1) / this.settings.chunkSize);
+        synchronized (lock(entry.name)) {
+            Files.createDirectories(this.settings.directory);
+            while (true) {
+                try (FileChannel chunks = FileChannel.open(entry.chunks, StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    FileLock lock = chunks.lock();
+                    try {
+                        if (!Files.exists(entry.chunks)) {
+                            // deleted by another process after it was opened, open the new file
+                            continue;
+                        }
+                        FileChannel data = FileChannel.open(entry.data, StandardOpenOption.CREATE,
+                                StandardOpenOption.READ, StandardOpenOption.WRITE);
+                        boolean filled = false;
+                        try {
+                            fill(entry, chunks, data, first, last);
+                            filled = true;
+                            return data;
+                        } finally {
+                            if (!filled) {
+                                data.close();
+                            }
+                        }
+                    } finally {
+                        lock.release();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Downloads the missing chunks from <code>first</code> to <code>last</code> into the data
+     * file, while holding the file lock of the entry.
+     */
+    private void fill(Entry entry, FileChannel chunks, FileChannel data, int first, int last) throws IOException {
+        BitSet present = readChunks(chunks);
+        int highest = present.length() - 1;
+        if (highest >= 0 && data.size() < Math.min((long) (highest + 1) * this.settings.chunkSize, entry.contentLength)) {
+            // the data file was replaced after the chunks were marked, none of them is there
+            present.clear();
+        }
+        int chunk = present.nextClearBit(first);
+        if (chunk > last) {
+            return;
+        }
+        try {
+            while (chunk <= last) {
+                int end = present.nextSetBit(chunk);
+                if (end < 0 || end > last) {
+                    end = last + 1;
+                }
+                long written = download(entry, data, chunk, end);
+                if (this.size.get() >= 0) {
+                    this.size.addAndGet(written);
+                }
+                present.set(chunk, end);
+                chunk = present.nextClearBit(end);
+            }
+        } finally {
+            // the data must be on disk before the chunks are marked as present
+            data.force(false);
+            byte[] bitmap = present.toByteArray();
+            chunks.write(ByteBuffer.wrap(bitmap), 0);
+            chunks.truncate(bitmap.length);
+            chunks.force(false);
+        }
+    }
+
+    /**
+     * Downloads the chunks from <code>first</code> up to <code>end</code> (exclusive) into the
+     * data file.
+     *
+     * @return the number of bytes written
+     */
+    private long download(Entry entry, FileChannel data, int first, int end) throws IOException {
+        long start = (long) first * this.settings.chunkSize;
+        long stop = Math.min((long) end * this.settings.chunkSize, entry.contentLength);
+        try (ObjectInputStream in = this.project.downloadObject(entry.bucket, entry.key,
+                ObjectDownloadOption.offset(start), ObjectDownloadOption.length(stop - start))) {
+            if (!entry.isVersionOf(in.info().getSystemMetadata())) {
+                throw new IOException("object changed since stat: " + entry.key);
+            }
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            long position = start;
+            while (position < stop) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, stop - position));
+                if (read == -1) {
+                    throw new IOException("object shorter than its content length: " + entry.key);
+                }
+                ByteBuffer source = ByteBuffer.wrap(buffer, 0, read);
+                while (source.hasRemaining()) {
+                    position += data.write(source, position);
+                }
+            }
+        }
+        return stop - start;
+    }
+
+    private static BitSet readChunks(FileChannel chunks) throws IOException {
+        ByteBuffer bitmap = ByteBuffer.allocate((int) chunks.size());
+        while (bitmap.hasRemaining() && chunks.read(bitmap, bitmap.position()) != -1) {
+            // read the whole bitmap
+        }
+        bitmap.flip();
+        return BitSet.valueOf(bitmap);
+    }
+
+    private static Object lock(String name) {
+        return LOCKS[(name.hashCode() & Integer.MAX_VALUE) % LOCKS.length];
+    }
+
+    /**
+     * Records a hit, in the modification time of the entry for other processes too.
+     */
+    private void used(Entry entry) {
+        AtomicLong count = this.hits.get(entry.name);
+        if (count == null) {
+            this.hits.putIfAbsent(entry.name, new AtomicLong());
+            count = this.hits.get(entry.name);
+        }
+        count.incrementAndGet();
+        try {
+            Files.setLastModifiedTime(entry.chunks, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // only affects the eviction order
+        }
+    }
+
+    /**
+     * Evicts entries while the directory is larger than allowed. Entries of other versions of the
+     * object just used are evicted first, the entry just used is kept.
+     */
+    private synchronized void evict(final Entry current) {
+        long estimate = this.size.get();
+        if (estimate >= 0 && estimate <= this.settings.maxSize) {
+            return;
+        }
+
+        List<Cached> entries = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.settings.directory, "*" + CHUNKS_SUFFIX)) {
+            for (Path chunks : files) {
+                String name = chunks.getFileName().toString();
+                Cached cached = new Cached(name.substring(0, name.length() - CHUNKS_SUFFIX.length()));
+                try {
+                    cached.bytes = cachedBytes(chunks, cached.name);
+                    cached.lastUsed = Files.getLastModifiedTime(chunks).toMillis();
+                } catch (IOException e) {
+                    // removed meanwhile
+                    continue;
+                }
+                AtomicLong count = this.hits.get(cached.name);
+                cached.hits = count == null ? 0 : count.get();
+                total += cached.bytes;
+                entries.add(cached);
+            }
+        } catch (IOException e) {
+            return;
+        }
+
+        if (total > this.settings.maxSize) {
+            Collections.sort(entries, new Comparator<Cached>() {
+                @Override
+                public int compare(Cached a, Cached b) {
+                    boolean aStale = current.isOtherVersion(a.name);
+                    boolean bStale = current.isOtherVersion(b.name);
+                    if (aStale != bStale) {
+                        return aStale ? -1 : 1;
+                    }
+                    if (settings.leastFrequentlyUsed && a.hits != b.hits) {
+                        return a.hits < b.hits ? -1 : 1;
+                    }
+                    return Long.compare(a.lastUsed, b.lastUsed);
+                }
+            });
+            long target = (long) (this.settings.maxSize * EVICTION_LOW_WATER_MARK);
+            for (Cached cached : entries) {
+                if (total <= target) {
+                    break;
+                }
+                if (cached.name.equals(current.name)) {
+                    continue;
+                }
+                if (delete(cached.name)) {
+                    total -= cached.bytes;
+                }
+            }
+        }
+        this.size.set(total);
+    }
+
+    /**
+     * Returns the number of cached bytes of an entry, counting the last chunk of the object only
+     * with its actual length.
+     */
+    private long cachedBytes(Path chunks, String name) throws IOException {
+        BitSet present;
+        try (FileChannel channel = FileChannel.open(chunks, StandardOpenOption.READ)) {
+            present = readChunks(channel);
+        }
+        long bytes = (long) present.cardinality() * this.settings.chunkSize;
+        long contentLength;
+        try {
+            contentLength = Long.parseLong(name.substring(name.lastIndexOf('-') + 1));
+        } catch (NumberFormatException e) {
+            // not named by this cache
+            return bytes;
+        }
+        if (contentLength > 0) {
+            int last = (int) ((contentLength - 1) / this.settings.chunkSize);
+            if (present.get(last)) {
+                bytes -= (long) (last + 1) * this.settings.chunkSize - contentLength;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Deletes an entry while holding its file lock, so no process is filling it meanwhile.
+     */
+    private boolean delete(String name) {
+        Path chunksPath = this.settings.directory.resolve(name + CHUNKS_SUFFIX);
+        synchronized (lock(name)) {
+            try (FileChannel chunks = FileChannel.open(chunksPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                FileLock lock = chunks.lock();
+                try {
+                    // a process which opened the chunks before they are unlinked finds none of
+                    // them present; readers keep using the unlinked data file
+                    chunks.truncate(0);
+                    Files.deleteIfExists(chunksPath);
+                    Files.deleteIfExists(this.settings.directory.resolve(name + DATA_SUFFIX));
+                } finally {
+                    lock.release();
+                }
+            } catch (NoSuchFileException e) {
+                // deleted by another process
+            } catch (IOException | OverlappingFileLockException e) {
+                // for example still open on Windows, try again on the next eviction
+                return false;
+            } finally {
+                this.hits.remove(name);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The files of a version of an object, named by a hash of bucket and key followed by the
+     * creation time and content length.
+     */
+    private class Entry {
+        final String bucket;
+        final String key;
+        final long created;
+        final long contentLength;
+        final String prefix;
+        final String name;
+        final Path data;
+        final Path chunks;
+
+        Entry(String bucket, String key, SystemMetadata system) {
+            this.bucket = bucket;
+            this.key = key;
+            this.created = system.getCreated().getTime();
+            this.contentLength = system.getContentLength();
+            this.prefix = hash(bucket, key);
+            this.name = this.prefix + "-" + this.created + "-" + this.contentLength;
+            this.data = settings.directory.resolve(this.name + DATA_SUFFIX);
+            this.chunks = settings.directory.resolve(this.name + CHUNKS_SUFFIX);
+        }
+
+        boolean isVersionOf(SystemMetadata system) {
+            return system.getCreated().getTime() == this.created && system.getContentLength() == this.contentLength;
+        }
+
+        boolean isOtherVersion(String name) {
+            return name.startsWith(this.prefix + "-") && !name.equals(this.name);
+        }
+    }
+
+    private static String hash(String bucket, String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(bucket.getBytes(StandardCharsets.UTF_8));
+            // bucket names cannot contain a slash, so bucket and key cannot be confused
+            digest.update((byte) '/');
+            digest.update(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Cached {
+        final String name;
+        long bytes;
+        long lastUsed;
+        long hits;
+
+        Cached(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Reads a region of a cached file through memory mappings of up to
+     * {@link #MAP_WINDOW_SIZE} bytes.
+     */
+    private static class MappedInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+        private MappedByteBuffer window;
+
+        MappedInputStream(FileChannel channel, long position, long end) {
+            this.channel = channel;
+            this.position = position;
+            this.end = end;
+        }
+
+        private boolean ensureWindow() throws IOException {
+            if (this.window != null && this.window.hasRemaining()) {
+                return true;
+            }
+            if (this.position >= this.end) {
+                return false;
+            }
+            long size = Math.min(MAP_WINDOW_SIZE, this.end - this.position);
+            this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, size);
+            this.position += size;
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!ensureWindow()) {
+                return -1;
+            }
+            return this.window.get() & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!ensureWindow()) {
+                return -1;
+            }
+            int read = Math.min(len, this.window.remaining());
+            this.window.get(b, off, read);
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            if (n <= 0) {
+                return 0;
+            }
+            long remaining = this.window == null ? 0 : this.window.remaining();
+            if (n < remaining) {
+                this.window.position(this.window.position() + (int) n);
+                return n;
+            }
+            long skipped = Math.min(n - remaining, this.end - this.position);
+            this.window = null;
+            this.position += skipped;
+            return remaining + skipped;
+        }
+
+        @Override
+        public int available() {
+            long remaining = (this.window == null ? 0 : this.window.remaining()) + (this.end - this.position);
+            return (int) Math.min(remaining, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // the mapping stays valid until it is garbage collected
+            this.channel.close();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package io.storj;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Options for configuring a {@link CachingProject}.
+ *
+ * @see Project#caching(CachingProjectOption...)
+ */
+public class CachingProjectOption {
+
+    static final long DEFAULT_MAX_SIZE = 1024L * 1024 * 1024;
+    static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private enum Key {
+        DIRECTORY,
+        MAX_SIZE,
+        CHUNK_SIZE,
+        LEAST_FREQUENTLY_USED,
+    }
+
+    private Key key;
+
+    private Object value;
+
+    CachingProjectOption(Key key, Object value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * Option for the directory holding the cached objects. It may be shared by several
+     * processes, which must then use the same chunk size. Defaults to
+     * <code>storj-uplink-cache</code> in <code>java.io.tmpdir</code>.
+     *
+     * @param directory the cache directory
+     * @return a {@link CachingProjectOption}
+     */
+    public static CachingProjectOption directory(Path directory) {
+        if (directory == null) {
+            throw new NullPointerException("directory");
+        }
+        return new CachingProjectOption(Key.DIRECTORY, directory);
+    }
+
+    /**
+     * Option for the number of cached bytes above which entries are evicted. Defaults to 1 GiB.
+     *
+     * @param maxSize the maximum cache size in bytes
+     * @return a {@link CachingProjectOption}
+     */
+    public static CachingProjectOption maxSize(long maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("max size must be positive: " + maxSize);
+        }
+        return new CachingProjectOption(Key.MAX_SIZE, maxSize);
+    }
+
+    /**
+     * Option for the unit in which objects are downloaded and cached. A ranged download fetches
+     * the chunks it overlaps which are not cached yet. Defaults to 4 MiB.
+     *
+     * @param chunkSize the chunk size in bytes
+     * @return a {@link CachingProjectOption}
+     */
+    public static CachingProjectOption chunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunk size must be positive: " + chunkSize);
+        }
+        return new CachingProjectOption(Key.CHUNK_SIZE, chunkSize);
+    }
+
+    /**
+     * Option to evict the entries with the fewest hits first, instead of the least recently used
+     * ones. Hits are counted per process; entries of equal count are evicted least recently used
+     * first.
+     *
+     * @return a {@link CachingProjectOption}
+     */
+    public static CachingProjectOption leastFrequentlyUsed() {
+        return new CachingProjectOption(Key.LEAST_FREQUENTLY_USED, true);
+    }
+
+    static Settings internal(CachingProjectOption... options) {
+        Settings settings = new Settings();
+        settings.directory = Paths.get(System.getProperty("java.io.tmpdir"), "storj-uplink-cache");
+        settings.maxSize = DEFAULT_MAX_SIZE;
+        settings.chunkSize = DEFAULT_CHUNK_SIZE;
+        for (CachingProjectOption option : options) {
+            if (option.key == Key.DIRECTORY) {
+                settings.directory = (Path) option.value;
+            } else if (option.key == Key.MAX_SIZE) {
+                settings.maxSize = (long) option.value;
+            } else if (option.key == Key.CHUNK_SIZE) {
+                settings.chunkSize = (int) option.value;
+            } else if (option.key == Key.LEAST_FREQUENTLY_USED) {
+                settings.leastFrequentlyUsed = (boolean) option.value;
+            }
+        }
+        return settings;
+    }
+
+    static class Settings {
+        Path directory;
+        long maxSize;
+        int chunkSize;
+        boolean leastFrequentlyUsed;
+    }
+}
@@ -0,0 +1,333 @@
+package io.storj;
+
+import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
+
+/**
+ * A {@link JNAUplink} forwarding every call to another implementation. Backends which bind only
+ * the hot calls differently extend it and override those.
+ */
+abstract class DelegatingUplink implements JNAUplink {
+
+    protected final JNAUplink delegate;
+
+    DelegatingUplink(JNAUplink delegate) {
+        this.delegate = delegate;
+    }
+
+    // access
+
+    @Override
+    public AccessResult.ByValue uplink_parse_access(String access) {
+        return this.delegate.uplink_parse_access(access);
+    }
+
+    @Override
+    public AccessResult.ByValue uplink_request_access_with_passphrase(String address, String apiKey, String passphrase) {
+        return this.delegate.uplink_request_access_with_passphrase(address, apiKey, passphrase);
+    }
+
+    @Override
+    public AccessResult.ByValue uplink_config_request_access_with_passphrase(Config.ByValue config, String address, String apiKey, String passphrase) {
+        return this.delegate.uplink_config_request_access_with_passphrase(config, address, apiKey, passphrase);
+    }
+
+    @Override
+    public StringResult.ByValue uplink_access_serialize(Access.ByReference access) {
+        return this.delegate.uplink_access_serialize(access);
+    }
+
+    @Override
+    public Error.ByReference uplink_access_override_encryption_key(Access.ByReference access, String bucket, String prefix, EncryptionKey.ByReference encryptionKey) {
+        return this.delegate.uplink_access_override_encryption_key(access, bucket, prefix, encryptionKey);
+    }
+
+    @Override
+    public void uplink_free_encryption_key_result(EncryptionKeyResult.ByValue result) {
+        this.delegate.uplink_free_encryption_key_result(result);
+    }
+
+    @Override
+    public EncryptionKeyResult.ByValue uplink_derive_encryption_key(String passphrase, Pointer salt, NativeLong length) {
+        return this.delegate.uplink_derive_encryption_key(passphrase, salt, length);
+    }
+
+    @Override
+    public AccessResult.ByValue uplink_access_share(Access.ByReference access, Permission.ByValue permission, SharePrefix.ByReference prefixes, long size) {
+        return this.delegate.uplink_access_share(access, permission, prefixes, size);
+    }
+
+    @Override
+    public void uplink_free_access_result(AccessResult.ByValue result) {
+        this.delegate.uplink_free_access_result(result);
+    }
+
+    // bucket
+
+    @Override
+    public BucketResult.ByValue uplink_stat_bucket(Project.ByReference project, String bucket) {
+        return this.delegate.uplink_stat_bucket(project, bucket);
+    }
+
+    @Override
+    public BucketResult.ByValue uplink_create_bucket(Project.ByReference project, String bucket) {
+        return this.delegate.uplink_create_bucket(project, bucket);
+    }
+
+    @Override
+    public BucketResult.ByValue uplink_ensure_bucket(Project.ByReference project, String bucket) {
+        return this.delegate.uplink_ensure_bucket(project, bucket);
+    }
+
+    @Override
+    public BucketResult.ByValue uplink_delete_bucket(Project.ByReference project, String bucket) {
+        return this.delegate.uplink_delete_bucket(project, bucket);
+    }
+
+    @Override
+    public void uplink_free_bucket_result(BucketResult.ByValue p0) {
+        this.delegate.uplink_free_bucket_result(p0);
+    }
+
+    @Override
+    public void uplink_free_bucket(Bucket.ByReference bucket) {
+        this.delegate.uplink_free_bucket(bucket);
+    }
+
+    @Override
+    public BucketIterator.ByReference uplink_list_buckets(Project.ByReference project, ListBucketsOptions.ByReference options) {
+        return this.delegate.uplink_list_buckets(project, options);
+    }
+
+    @Override
+    public boolean uplink_bucket_iterator_next(BucketIterator.ByReference iterator) {
+        return this.delegate.uplink_bucket_iterator_next(iterator);
+    }
+
+    @Override
+    public Error.ByReference uplink_bucket_iterator_err(BucketIterator.ByReference iterator) {
+        return this.delegate.uplink_bucket_iterator_err(iterator);
+    }
+
+    @Override
+    public Bucket.ByReference uplink_bucket_iterator_item(BucketIterator.ByReference iterator) {
+        return this.delegate.uplink_bucket_iterator_item(iterator);
+    }
+
+    @Override
+    public void uplink_free_bucket_iterator(BucketIterator.ByReference iterator) {
+        this.delegate.uplink_free_bucket_iterator(iterator);
+    }
+
+    // project
+
+    @Override
+    public ProjectResult.ByValue uplink_config_open_project(Config.ByValue config, Access.ByReference access) {
+        return this.delegate.uplink_config_open_project(config, access);
+    }
+
+    @Override
+    public ProjectResult.ByValue uplink_open_project(Access.ByReference access) {
+        return this.delegate.uplink_open_project(access);
+    }
+
+    @Override
+    public Error.ByReference uplink_close_project(Project.ByReference project) {
+        return this.delegate.uplink_close_project(project);
+    }
+
+    @Override
+    public void uplink_free_project_result(ProjectResult.ByValue result) {
+        this.delegate.uplink_free_project_result(result);
+    }
+
+    // object
+
+    @Override
+    public ObjectResult.ByValue uplink_stat_object(Project.ByReference project, String bucket, String key) {
+        return this.delegate.uplink_stat_object(project, bucket, key);
+    }
+
+    @Override
+    public ObjectResult.ByValue uplink_delete_object(Project.ByReference project, String bucket, String key) {
+        return this.delegate.uplink_delete_object(project, bucket, key);
+    }
+
+    @Override
+    public void uplink_free_object_result(ObjectResult.ByValue result) {
+        this.delegate.uplink_free_object_result(result);
+    }
+
+    @Override
+    public void uplink_free_object(Object.ByReference object) {
+        this.delegate.uplink_free_object(object);
+    }
+
+    @Override
+    public ObjectIterator.ByReference uplink_list_objects(Project.ByReference project, String bucket, ListObjectsOptions.ByReference options) {
+        return this.delegate.uplink_list_objects(project, bucket, options);
+    }
+
+    @Override
+    public boolean uplink_object_iterator_next(ObjectIterator.ByReference iterator) {
+        return this.delegate.uplink_object_iterator_next(iterator);
+    }
+
+    @Override
+    public Error.ByReference uplink_object_iterator_err(ObjectIterator.ByReference iterator) {
+        return this.delegate.uplink_object_iterator_err(iterator);
+    }
+
+    @Override
+    public Object.ByReference uplink_object_iterator_item(ObjectIterator.ByReference iterator) {
+        return this.delegate.uplink_object_iterator_item(iterator);
+    }
+
+    @Override
+    public void uplink_free_object_iterator(ObjectIterator.ByReference iterator) {
+        this.delegate.uplink_free_object_iterator(iterator);
+    }
+
+    // upload
+
+    @Override
+    public UploadResult.ByValue uplink_upload_object(Project.ByReference project, String bucket, String key, UploadOptions.ByReference options) {
+        return this.delegate.uplink_upload_object(project, bucket, key, options);
+    }
+
+    @Override
+    public WriteResult.ByValue uplink_upload_write(Upload.ByReference upload, Pointer bytes, NativeLong size) {
+        return this.delegate.uplink_upload_write(upload, bytes, size);
+    }
+
+    @Override
+    public Error.ByReference uplink_upload_commit(Upload.ByReference upload) {
+        return this.delegate.uplink_upload_commit(upload);
+    }
+
+    @Override
+    public Error.ByReference uplink_upload_abort(Upload.ByReference upload) {
+        return this.delegate.uplink_upload_abort(upload);
+    }
+
+    @Override
+    public ObjectResult.ByValue uplink_upload_info(Upload.ByReference upload) {
+        return this.delegate.uplink_upload_info(upload);
+    }
+
+    @Override
+    public Error.ByReference uplink_upload_set_custom_metadata(Upload.ByReference upload, CustomMetadata.ByValue metadata) {
+        return this.delegate.uplink_upload_set_custom_metadata(upload, metadata);
+    }
+
+    @Override
+    public void uplink_free_write_result(WriteResult.ByValue result) {
+        this.delegate.uplink_free_write_result(result);
+    }
+
+    @Override
+    public void uplink_free_upload_result(UploadResult.ByValue result) {
+        this.delegate.uplink_free_upload_result(result);
+    }
+
+    // multipart upload
+
+    @Override
+    public UploadInfoResult.ByValue uplink_begin_upload(Project.ByReference project, String bucket, String key, UploadOptions.ByReference options) {
+        return this.delegate.uplink_begin_upload(project, bucket, key, options);
+    }
+
+    @Override
+    public CommitUploadResult.ByValue uplink_commit_upload(Project.ByReference project, String bucket, String key, String uploadId, CommitUploadOptions.ByReference options) {
+        return this.delegate.uplink_commit_upload(project, bucket, key, uploadId, options);
+    }
+
+    @Override
+    public Error.ByReference uplink_abort_upload(Project.ByReference project, String bucket, String key, String uploadId) {
+        return this.delegate.uplink_abort_upload(project, bucket, key, uploadId);
+    }
+
+    @Override
+    public PartUploadResult.ByValue uplink_upload_part(Project.ByReference project, String bucket, String key, String uploadId, int partNumber) {
+        return this.delegate.uplink_upload_part(project, bucket, key, uploadId, partNumber);
+    }
+
+    @Override
+    public WriteResult.ByValue uplink_part_upload_write(PartUpload.ByReference upload, Pointer bytes, NativeLong size) {
+        return this.delegate.uplink_part_upload_write(upload, bytes, size);
+    }
+
+    @Override
+    public Error.ByReference uplink_part_upload_commit(PartUpload.ByReference upload) {
+        return this.delegate.uplink_part_upload_commit(upload);
+    }
+
+    @Override
+    public Error.ByReference uplink_part_upload_abort(PartUpload.ByReference upload) {
+        return this.delegate.uplink_part_upload_abort(upload);
+    }
+
+    @Override
+    public void uplink_free_upload_info_result(UploadInfoResult.ByValue result) {
+        this.delegate.uplink_free_upload_info_result(result);
+    }
+
+    @Override
+    public void uplink_free_commit_upload_result(CommitUploadResult.ByValue result) {
+        this.delegate.uplink_free_commit_upload_result(result);
+    }
+
+    @Override
+    public void uplink_free_part_upload_result(PartUploadResult.ByValue result) {
+        this.delegate.uplink_free_part_upload_result(result);
+    }
+
+    // download
+
+    @Override
+    public DownloadResult.ByValue uplink_download_object(Project.ByReference project, String bucket, String key, DownloadOptions options) {
+        return this.delegate.uplink_download_object(project, bucket, key, options);
+    }
+
+    @Override
+    public ReadResult.ByValue uplink_download_read(Download.ByReference download, Pointer bytes, NativeLong size) {
+        return this.delegate.uplink_download_read(download, bytes, size);
+    }
+
+    @Override
+    public ObjectResult.ByValue uplink_download_info(Download.ByReference download) {
+        return this.delegate.uplink_download_info(download);
+    }
+
+    @Override
+    public void uplink_free_read_result(ReadResult.ByValue result) {
+        this.delegate.uplink_free_read_result(result);
+    }
+
+    @Override
+    public Error.ByReference uplink_close_download(Download.ByReference download) {
+        return this.delegate.uplink_close_download(download);
+    }
+
+    @Override
+    public void uplink_free_download_result(DownloadResult.ByValue result) {
+        this.delegate.uplink_free_download_result(result);
+    }
+
+    // other
+
+    @Override
+    public void uplink_free_string_result(StringResult.ByValue result) {
+        this.delegate.uplink_free_string_result(result);
+    }
+
+    @Override
+    public void uplink_free_error(Error.ByReference error) {
+        this.delegate.uplink_free_error(error);
+    }
+
+    @Override
+    public Error.ByReference uplink_move_object(Project.ByReference project, String bucket, String key, String newBucket, String newKey) {
+        return this.delegate.uplink_move_object(project, bucket, key, newBucket, newKey);
+    }
+}
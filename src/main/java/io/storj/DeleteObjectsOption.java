@@ -0,0 +1,53 @@
+package io.storj;
+
+/**
+ * Options for deleting objects in a batch.
+ *
+ * @see Project#deleteObjects(String, Iterable, DeleteObjectsOption...)
+ * @see Project#deleteObjectsWithPrefix(String, String, DeleteObjectsOption...)
+ */
+public class DeleteObjectsOption {
+
+    static final int DEFAULT_CONCURRENCY = 8;
+
+    private enum Key {
+        CONCURRENCY,
+    }
+
+    private Key key;
+
+    private Object value;
+
+    DeleteObjectsOption(Key key, Object value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * Option for the number of deletions running at the same time. Defaults to 8.
+     *
+     * @param concurrency the number of parallel deletions
+     * @return a {@link DeleteObjectsOption}
+     */
+    public static DeleteObjectsOption concurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+        }
+        return new DeleteObjectsOption(Key.CONCURRENCY, concurrency);
+    }
+
+    static Settings internal(DeleteObjectsOption... options) {
+        Settings settings = new Settings();
+        settings.concurrency = DEFAULT_CONCURRENCY;
+        for (DeleteObjectsOption option : options) {
+            if (option.key == Key.CONCURRENCY) {
+                settings.concurrency = (int) option.value;
+            }
+        }
+        return settings;
+    }
+
+    static class Settings {
+        int concurrency;
+    }
+}
@@ -0,0 +1,74 @@
+package io.storj;
+
+/**
+ * Represents the outcome of deleting a single object in a batch deletion.
+ *
+ * @see Project#deleteObjects(String, Iterable, DeleteObjectsOption...)
+ */
+public class DeleteResult {
+
+    private final String key;
+    private final ObjectInfo objectInfo;
+    private final StorjException error;
+
+    DeleteResult(String key, ObjectInfo objectInfo, StorjException error) {
+        this.key = key;
+        this.objectInfo = objectInfo;
+        this.error = error;
+    }
+
+    /**
+     * Returns the key of the object which was to be deleted.
+     *
+     * @return the object key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the info of the deleted object.
+     *
+     * @return the object info, or <code>null</code> if the object did not exist or the deletion
+     * failed
+     */
+    public ObjectInfo getObjectInfo() {
+        return objectInfo;
+    }
+
+    /**
+     * Returns the error of a failed deletion.
+     *
+     * @return the error, or <code>null</code> if the deletion did not fail
+     */
+    public StorjException getError() {
+        return error;
+    }
+
+    /**
+     * Returns if the object existed and was deleted.
+     *
+     * @return <code>true</code> if the object was deleted
+     */
+    public boolean isDeleted() {
+        return objectInfo != null;
+    }
+
+    /**
+     * Returns if the object did not exist.
+     *
+     * @return <code>true</code> if there was no object with this key
+     */
+    public boolean isNotFound() {
+        return objectInfo == null && error == null;
+    }
+
+    @Override
+    public String toString() {
+        return "DeleteResult{" +
+                "key='" + key + '\'' +
+                ", deleted=" + isDeleted() +
+                ", error=" + error +
+                '}';
+    }
+}
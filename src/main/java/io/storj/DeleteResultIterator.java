@@ -0,0 +1,146 @@
+package io.storj;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Iterates over the results of a batch deletion, in the order of the keys.
+ *
+ * <p>Keys are taken from the source as results are consumed, keeping up to
+ * {@link DeleteObjectsOption#concurrency(int)} deletions running ahead of the caller. A failed
+ * deletion is reported as a {@link DeleteResult} with an error instead of being thrown, so the
+ * rest of the batch continues.</p>
+ *
+ * <p>Make sure to close the iterator, also when not consuming all results, to stop the remaining
+ * deletions and release the background threads.</p>
+ *
+ * @see Project#deleteObjects(String, Iterable, DeleteObjectsOption...)
+ */
+public class DeleteResultIterator implements AutoCloseable, Iterator<DeleteResult>, Iterable<DeleteResult> {
+
+    private final Project project;
+    private final String bucket;
+    private final Iterator<String> keys;
+    private final AutoCloseable source;
+    private final String sourceName;
+    private final int concurrency;
+    private final ExecutorService executor;
+    private final Deque<Future<DeleteResult>> pending = new ArrayDeque<>();
+
+    /**
+     * Error of the key source itself, like a failed listing, reported after the pending results.
+     */
+    private DeleteResult sourceFailure;
+    private boolean closed;
+
+    /**
+     * @param keys       the keys to delete
+     * @param source     closed together with this iterator, may be <code>null</code>
+     * @param sourceName the key reported with an error of the key source
+     */
+    DeleteResultIterator(Project project, String bucket, Iterator<String> keys, AutoCloseable source,
+                         String sourceName, DeleteObjectsOption... options) {
+        this.project = project;
+        this.bucket = bucket;
+        this.keys = keys;
+        this.source = source;
+        this.sourceName = sourceName;
+        this.concurrency = DeleteObjectsOption.internal(options).concurrency;
+        this.executor = Executors.newFixedThreadPool(this.concurrency, new NamedThreadFactory("batch-delete"));
+    }
+
+    private void fill() {
+        while (!this.closed && this.sourceFailure == null && this.pending.size() < this.concurrency) {
+            final String key;
+            try {
+                if (!this.keys.hasNext()) {
+                    return;
+                }
+                key = this.keys.next();
+            } catch (RuntimeException e) {
+                Throwable cause = e instanceof StorjException ? e : e.getCause();
+                this.sourceFailure = new DeleteResult(this.sourceName, null,
+                        cause instanceof StorjException ? (StorjException) cause : new StorjException(e));
+                return;
+            }
+            this.pending.add(this.executor.submit(new Callable<DeleteResult>() {
+                @Override
+                public DeleteResult call() {
+                    try {
+                        return new DeleteResult(key, project.deleteObject(bucket, key), null);
+                    } catch (StorjException e) {
+                        return new DeleteResult(key, null, e);
+                    } catch (RuntimeException e) {
+                        // any failure is a result of its key, it must not end the batch
+                        return new DeleteResult(key, null, new StorjException(e));
+                    }
+                }
+            }));
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        fill();
+        return !this.pending.isEmpty() || this.sourceFailure != null;
+    }
+
+    @Override
+    public DeleteResult next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Future<DeleteResult> future = this.pending.poll();
+        if (future == null) {
+            DeleteResult failure = this.sourceFailure;
+            this.sourceFailure = null;
+            this.closed = true;
+            return failure;
+        }
+
+        DeleteResult result;
+        try {
+            result = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorjException(e);
+        } catch (ExecutionException e) {
+            throw new StorjException(e.getCause());
+        }
+        fill();
+        return result;
+    }
+
+    @Override
+    public Iterator<DeleteResult> iterator() {
+        return this;
+    }
+
+    /**
+     * Stops taking new keys. Deletions already running still finish in the background.
+     *
+     * @throws StorjException if closing the key source fails
+     */
+    @Override
+    public void close() throws StorjException {
+        this.closed = true;
+        this.pending.clear();
+        this.executor.shutdown();
+        try {
+            if (this.source != null) {
+                this.source.close();
+            }
+        } catch (StorjException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new StorjException(e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package io.storj;
+
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+/**
+ * Calls the per-buffer and per-item functions of uplink-c through JNA direct mapping and
+ * forwards all other calls to the interface-mapped binding.
+ *
+ * <p>Direct mapping binds static native methods once, instead of dispatching every call through
+ * a dynamic proxy and converting the arguments reflectively. The handles are passed as plain
+ * pointers, which also skips writing and reading back the handle structures around each call,
+ * and sizes as <code>long</code> instead of {@link NativeLong}. That matches
+ * <code>size_t</code> only on 64-bit platforms, so {@link UplinkBackend} uses this class only
+ * there.</p>
+ */
+final class DirectUplink extends DelegatingUplink {
+
+    DirectUplink(JNAUplink delegate) {
+        super(delegate);
+        Functions.register();
+    }
+
+    @Override
+    public ReadResult.ByValue uplink_download_read(Download.ByReference download, Pointer bytes, NativeLong size) {
+        return Functions.uplink_download_read(download.getPointer(), bytes, size.longValue());
+    }
+
+    @Override
+    public WriteResult.ByValue uplink_upload_write(Upload.ByReference upload, Pointer bytes, NativeLong size) {
+        return Functions.uplink_upload_write(upload.getPointer(), bytes, size.longValue());
+    }
+
+    @Override
+    public WriteResult.ByValue uplink_part_upload_write(PartUpload.ByReference upload, Pointer bytes, NativeLong size) {
+        return Functions.uplink_part_upload_write(upload.getPointer(), bytes, size.longValue());
+    }
+
+    @Override
+    public boolean uplink_object_iterator_next(ObjectIterator.ByReference iterator) {
+        return Functions.uplink_object_iterator_next(iterator.getPointer());
+    }
+
+    @Override
+    public Object.ByReference uplink_object_iterator_item(ObjectIterator.ByReference iterator) {
+        Pointer item = Functions.uplink_object_iterator_item(iterator.getPointer());
+        if (item == null) {
+            return null;
+        }
+        Object.ByReference object = Structure.newInstance(Object.ByReference.class, item);
+        object.read();
+        return object;
+    }
+
+    /**
+     * Returns the address of the current item without reading it into a structure, for callers
+     * which only need some of its fields.
+     */
+    Pointer objectIteratorItemAddress(ObjectIterator.ByReference iterator) {
+        return Functions.uplink_object_iterator_item(iterator.getPointer());
+    }
+
+    /**
+     * The directly mapped functions, registered against the library loaded by the interface
+     * mapping.
+     */
+    private static final class Functions {
+
+        private static boolean registered;
+
+        static synchronized void register() {
+            if (!registered) {
+                Native.register(Functions.class, "uplink");
+                registered = true;
+            }
+        }
+
+        static native ReadResult.ByValue uplink_download_read(Pointer download, Pointer bytes, long size);
+
+        static native WriteResult.ByValue uplink_upload_write(Pointer upload, Pointer bytes, long size);
+
+        static native WriteResult.ByValue uplink_part_upload_write(Pointer upload, Pointer bytes, long size);
+
+        static native boolean uplink_object_iterator_next(Pointer iterator);
+
+        static native Pointer uplink_object_iterator_item(Pointer iterator);
+    }
+}
@@ -0,0 +1,299 @@
+package io.storj;
+
+import com.sun.jna.Memory;
+import com.sun.jna.NativeLong;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, time-expiring cache of encryption keys derived from an {@link EncryptionKey}
+ * passphrase and salt.
+ *
+ * <p>Deriving a key runs a deliberately expensive password-based key derivation function. The
+ * cache runs derivations on its own threads, runs concurrent requests for the same key only once,
+ * and keeps the derived native keys for reuse by
+ * {@link Access#overrideEncryptionKey(String, String, EncryptionKey, EncryptionKeyCache)}. Keys are
+ * looked up by a SHA-256 hash of passphrase and salt, so the passphrases themselves are not kept.
+ * Evicted keys are freed as soon as no override is using them.</p>
+ *
+ * <p>Caching is opt-in: only overrides given a cache use one. An override still waits for the
+ * derivation of a key which is not cached yet, the cache only avoids deriving it again;
+ * {@link #derive(EncryptionKey)} starts a derivation ahead of time without blocking.</p>
+ */
+public class EncryptionKeyCache implements AutoCloseable {
+
+    private static EncryptionKeyCache defaultCache;
+
+    private final EncryptionKeyCacheOption.Settings settings;
+    private final ExecutorService executor;
+    private final LinkedHashMap<Digest, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private boolean closed;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param options options for the cache size, expiration and derivation threads
+     */
+    public EncryptionKeyCache(EncryptionKeyCacheOption... options) {
+        this.settings = EncryptionKeyCacheOption.internal(options);
+        this.executor = Executors.newFixedThreadPool(settings.derivationThreads, new NamedThreadFactory("key-derivation"));
+    }
+
+    /**
+     * Returns a cache shared within the JVM, created with the default options on first use.
+     * Nothing uses it unless passed explicitly to
+     * {@link Access#overrideEncryptionKey(String, String, EncryptionKey, EncryptionKeyCache)}.
+     *
+     * @return the shared cache
+     */
+    public static synchronized EncryptionKeyCache getDefault() {
+        if (defaultCache == null) {
+            defaultCache = new EncryptionKeyCache();
+        }
+        return defaultCache;
+    }
+
+    /**
+     * Starts deriving a key in the background, unless it is already cached or being derived.
+     * This allows warming up the cache without blocking the calling thread.
+     *
+     * @param encryptionKey the passphrase and salt
+     * @return a future completed when the key is available
+     */
+    public CompletableFuture<Void> derive(EncryptionKey encryptionKey) {
+        return entry(encryptionKey).future.thenApply(new Function<DerivedKey, Void>() {
+            @Override
+            public Void apply(DerivedKey key) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Returns the derived key with an additional reference, which the caller must give back with
+     * {@link DerivedKey#release()}. Waits for the derivation if the key is not derived yet.
+     */
+    DerivedKey acquire(EncryptionKey encryptionKey) throws StorjException {
+        while (true) {
+            Entry entry = entry(encryptionKey);
+            DerivedKey key;
+            try {
+                key = entry.future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new StorjException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof StorjException) {
+                    throw (StorjException) e.getCause();
+                }
+                throw new StorjException(e.getCause());
+            }
+            if (key.retain()) {
+                return key;
+            }
+            // evicted and freed after the lookup, derive again
+        }
+    }
+
+    private synchronized Entry entry(final EncryptionKey encryptionKey) {
+        if (this.closed) {
+            throw new StorjException("encryption key cache is closed");
+        }
+        long now = System.nanoTime();
+        expire(now);
+
+        final Digest digest = Digest.of(encryptionKey);
+        Entry entry = this.entries.get(digest);
+        if (entry != null) {
+            return entry;
+        }
+
+        final Entry created = new Entry(now, CompletableFuture.supplyAsync(new Supplier<DerivedKey>() {
+            @Override
+            public DerivedKey get() {
+                return deriveNative(encryptionKey);
+            }
+        }, this.executor));
+        this.entries.put(digest, created);
+        created.future.whenComplete(new BiConsumer<DerivedKey, Throwable>() {
+            @Override
+            public void accept(DerivedKey key, Throwable error) {
+                if (error != null) {
+                    // failed derivations are not cached
+                    remove(digest, created);
+                }
+            }
+        });
+
+        if (this.entries.size() > settings.maxSize) {
+            Iterator<Map.Entry<Digest, Entry>> eldest = this.entries.entrySet().iterator();
+            evict(eldest.next().getValue());
+            eldest.remove();
+        }
+        return created;
+    }
+
+    private void expire(long now) {
+        long expireAfter = settings.expireAfter * 1000000;
+        Iterator<Entry> iterator = this.entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (now - entry.created >= expireAfter) {
+                evict(entry);
+                iterator.remove();
+            }
+        }
+    }
+
+    private synchronized void remove(Digest digest, Entry entry) {
+        if (this.entries.get(digest) == entry) {
+            this.entries.remove(digest);
+        }
+    }
+
+    /**
+     * Releases the reference held by the cache, once the derivation has finished.
+     */
+    private static void evict(Entry entry) {
+        entry.future.thenAccept(new Consumer<DerivedKey>() {
+            @Override
+            public void accept(DerivedKey key) {
+                key.release();
+            }
+        });
+    }
+
+    /**
+     * Derives a key without caching it, with a single reference.
+     */
+    static DerivedKey deriveNative(EncryptionKey encryptionKey) {
+        byte[] salt = encryptionKey.getSalt();
+        Memory cSalt = new Memory(Math.max(salt.length, 1));
+        cSalt.write(0, salt, 0, salt.length);
+        JNAUplink.EncryptionKeyResult.ByValue result = JNAUplink.INSTANCE.uplink_derive_encryption_key(
+                encryptionKey.getPassphrase(), cSalt, new NativeLong(salt.length));
+        try {
+            ExceptionUtil.handleError(result.error);
+        } catch (StorjException e) {
+            JNAUplink.INSTANCE.uplink_free_encryption_key_result(result);
+            throw e;
+        }
+        return new DerivedKey(result);
+    }
+
+    /**
+     * Frees all cached keys which are not in use and stops the derivation threads. Keys in use
+     * are freed when released.
+     */
+    @Override
+    public void close() {
+        List<Entry> evicted;
+        synchronized (this) {
+            this.closed = true;
+            evicted = new ArrayList<>(this.entries.values());
+            this.entries.clear();
+        }
+        for (Entry entry : evicted) {
+            evict(entry);
+        }
+        this.executor.shutdown();
+    }
+
+    private static class Entry {
+        final long created;
+        final CompletableFuture<DerivedKey> future;
+
+        Entry(long created, CompletableFuture<DerivedKey> future) {
+            this.created = created;
+            this.future = future;
+        }
+    }
+
+    /**
+     * A reference-counted derived key, freed when the last reference is released.
+     */
+    static class DerivedKey {
+
+        private final JNAUplink.EncryptionKeyResult.ByValue result;
+        private int references = 1;
+
+        DerivedKey(JNAUplink.EncryptionKeyResult.ByValue result) {
+            this.result = result;
+        }
+
+        JNAUplink.EncryptionKey.ByReference handle() {
+            return this.result.encryption_key;
+        }
+
+        synchronized boolean retain() {
+            if (this.references == 0) {
+                return false;
+            }
+            this.references++;
+            return true;
+        }
+
+        void release() {
+            boolean free;
+            synchronized (this) {
+                free = --this.references == 0;
+            }
+            if (free) {
+                JNAUplink.INSTANCE.uplink_free_encryption_key_result(this.result);
+            }
+        }
+    }
+
+    /**
+     * SHA-256 of the passphrase length, passphrase and salt.
+     */
+    private static class Digest {
+
+        private final byte[] hash;
+
+        private Digest(byte[] hash) {
+            this.hash = hash;
+        }
+
+        static Digest of(EncryptionKey encryptionKey) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                byte[] passphrase = encryptionKey.getPassphrase().getBytes(StandardCharsets.UTF_8);
+                int length = passphrase.length;
+                digest.update(new byte[]{(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length});
+                digest.update(passphrase);
+                digest.update(encryptionKey.getSalt());
+                return new Digest(digest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                // every Java platform is required to support SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Digest && Arrays.equals(this.hash, ((Digest) o).hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(this.hash);
+        }
+    }
+}
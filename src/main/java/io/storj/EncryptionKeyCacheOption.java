@@ -0,0 +1,90 @@
+package io.storj;
+
+/**
+ * Options for configuring an {@link EncryptionKeyCache}.
+ */
+public class EncryptionKeyCacheOption {
+
+    static final int DEFAULT_MAX_SIZE = 64;
+    static final long DEFAULT_EXPIRE_AFTER = 10 * 60 * 1000;
+    static final int DEFAULT_DERIVATION_THREADS = 2;
+
+    private enum Key {
+        MAX_SIZE,
+        EXPIRE_AFTER,
+        DERIVATION_THREADS,
+    }
+
+    private Key key;
+
+    private Object value;
+
+    EncryptionKeyCacheOption(Key key, Object value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * Option for the maximum number of derived keys kept in the cache. The least recently used
+     * key is evicted first. Defaults to 64.
+     *
+     * @param maxSize the maximum number of cached keys
+     * @return an {@link EncryptionKeyCacheOption}
+     */
+    public static EncryptionKeyCacheOption maxSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("max size must be positive: " + maxSize);
+        }
+        return new EncryptionKeyCacheOption(Key.MAX_SIZE, maxSize);
+    }
+
+    /**
+     * Option for how long a derived key stays cached after its derivation. Defaults to 10
+     * minutes.
+     *
+     * @param expireAfter the time to keep a key in milliseconds
+     * @return an {@link EncryptionKeyCacheOption}
+     */
+    public static EncryptionKeyCacheOption expireAfter(long expireAfter) {
+        if (expireAfter < 1) {
+            throw new IllegalArgumentException("expire after must be positive: " + expireAfter);
+        }
+        return new EncryptionKeyCacheOption(Key.EXPIRE_AFTER, expireAfter);
+    }
+
+    /**
+     * Option for the number of threads running key derivations. Defaults to 2.
+     *
+     * @param derivationThreads the number of derivation threads
+     * @return an {@link EncryptionKeyCacheOption}
+     */
+    public static EncryptionKeyCacheOption derivationThreads(int derivationThreads) {
+        if (derivationThreads < 1) {
+            throw new IllegalArgumentException("derivation threads must be positive: " + derivationThreads);
+        }
+        return new EncryptionKeyCacheOption(Key.DERIVATION_THREADS, derivationThreads);
+    }
+
+    static Settings internal(EncryptionKeyCacheOption... options) {
+        Settings settings = new Settings();
+        settings.maxSize = DEFAULT_MAX_SIZE;
+        settings.expireAfter = DEFAULT_EXPIRE_AFTER;
+        settings.derivationThreads = DEFAULT_DERIVATION_THREADS;
+        for (EncryptionKeyCacheOption option : options) {
+            if (option.key == Key.MAX_SIZE) {
+                settings.maxSize = (int) option.value;
+            } else if (option.key == Key.EXPIRE_AFTER) {
+                settings.expireAfter = (long) option.value;
+            } else if (option.key == Key.DERIVATION_THREADS) {
+                settings.derivationThreads = (int) option.value;
+            }
+        }
+        return settings;
+    }
+
+    static class Settings {
+        int maxSize;
+        long expireAfter;
+        int derivationThreads;
+    }
+}
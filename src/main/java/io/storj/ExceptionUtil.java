@@ -8,7 +8,7 @@ class ExceptionUtil {
             if (error.message != null) {
                 message = error.message;
             }
-            throw new StorjException(message);
+            throw new StorjException(message, error.code);
         }
     }
 
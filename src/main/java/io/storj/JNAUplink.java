@@ -4,7 +4,7 @@ import com.sun.jna.*;
 
 interface JNAUplink extends Library {
 
-    public static final JNAUplink INSTANCE = Native.load("uplink", JNAUplink.class);
+    public static final JNAUplink INSTANCE = UplinkBackend.load();
 
     public static final int EOF = -1;
     public static final int ERROR_UPLOAD_DONE = (int) 0x22;
@@ -19,6 +19,7 @@ interface JNAUplink extends Library {
     public static final int ERROR_BUCKET_NAME_INVALID = (int) 0x10;
     public static final int ERROR_BUCKET_NOT_EMPTY = (int) 0x12;
     public static final int ERROR_INTERNAL = (int) 0x02;
+    public static final int ERROR_PERMISSION_DENIED = (int) 0x09;
 
     @Structure.FieldOrder({"_handle"})
     public static class Handle extends Structure {
@@ -335,6 +336,128 @@ interface JNAUplink extends Library {
         }
     }
 
+    public static class PartUpload extends Handle {
+        public static class ByReference extends PartUpload implements Structure.ByReference {
+        }
+
+        public static class ByValue extends PartUpload implements Structure.ByValue {
+        }
+    }
+
+    @Structure.FieldOrder({"upload_id", "key", "is_prefix", "system", "custom"})
+    public static class UploadInfo extends Structure {
+        public String upload_id;
+        public String key;
+        public byte is_prefix;
+        public JNAUplink.SystemMetadata.ByValue system;
+        public JNAUplink.CustomMetadata.ByValue custom;
+
+        public UploadInfo() {
+            super();
+        }
+
+        public UploadInfo(String upload_id, String key, byte is_prefix, JNAUplink.SystemMetadata.ByValue system, JNAUplink.CustomMetadata.ByValue custom) {
+            super();
+            this.upload_id = upload_id;
+            this.key = key;
+            this.is_prefix = is_prefix;
+            this.system = system;
+            this.custom = custom;
+        }
+
+        public static class ByReference extends UploadInfo implements Structure.ByReference {
+        }
+
+        public static class ByValue extends UploadInfo implements Structure.ByValue {
+        }
+    }
+
+    @Structure.FieldOrder({"info", "error"})
+    public static class UploadInfoResult extends Structure {
+        public JNAUplink.UploadInfo.ByReference info;
+        public Error.ByReference error;
+
+        public UploadInfoResult() {
+            super();
+        }
+
+        public UploadInfoResult(JNAUplink.UploadInfo.ByReference info, Error.ByReference error) {
+            super();
+            this.info = info;
+            this.error = error;
+        }
+
+        public static class ByReference extends UploadInfoResult implements Structure.ByReference {
+        }
+
+        public static class ByValue extends UploadInfoResult implements Structure.ByValue {
+        }
+    }
+
+    @Structure.FieldOrder({"custom_metadata"})
+    public static class CommitUploadOptions extends Structure {
+        public JNAUplink.CustomMetadata.ByValue custom_metadata;
+
+        public CommitUploadOptions() {
+            super();
+        }
+
+        public CommitUploadOptions(JNAUplink.CustomMetadata.ByValue custom_metadata) {
+            super();
+            this.custom_metadata = custom_metadata;
+        }
+
+        public static class ByReference extends CommitUploadOptions implements Structure.ByReference {
+        }
+
+        public static class ByValue extends CommitUploadOptions implements Structure.ByValue {
+        }
+    }
+
+    @Structure.FieldOrder({"object", "error"})
+    public static class CommitUploadResult extends Structure {
+        public JNAUplink.Object.ByReference object;
+        public Error.ByReference error;
+
+        public CommitUploadResult() {
+            super();
+        }
+
+        public CommitUploadResult(JNAUplink.Object.ByReference object, Error.ByReference error) {
+            super();
+            this.object = object;
+            this.error = error;
+        }
+
+        public static class ByReference extends CommitUploadResult implements Structure.ByReference {
+        }
+
+        public static class ByValue extends CommitUploadResult implements Structure.ByValue {
+        }
+    }
+
+    @Structure.FieldOrder({"part_upload", "error"})
+    public static class PartUploadResult extends Structure {
+        public JNAUplink.PartUpload.ByReference part_upload;
+        public Error.ByReference error;
+
+        public PartUploadResult() {
+            super();
+        }
+
+        public PartUploadResult(JNAUplink.PartUpload.ByReference part_upload, Error.ByReference error) {
+            super();
+            this.part_upload = part_upload;
+            this.error = error;
+        }
+
+        public static class ByReference extends PartUploadResult implements Structure.ByReference {
+        }
+
+        public static class ByValue extends PartUploadResult implements Structure.ByValue {
+        }
+    }
+
     @Structure.FieldOrder({"key", "is_prefix", "system", "custom"})
     public static class Object extends Structure {
         public String key;
@@ -729,10 +852,31 @@ interface JNAUplink extends Library {
 
     void uplink_free_upload_result(UploadResult.ByValue result);
 
+    // multipart upload
+    UploadInfoResult.ByValue uplink_begin_upload(Project.ByReference project, String bucket, String key, UploadOptions.ByReference options);
+
+    CommitUploadResult.ByValue uplink_commit_upload(Project.ByReference project, String bucket, String key, String uploadId, CommitUploadOptions.ByReference options);
+
+    Error.ByReference uplink_abort_upload(Project.ByReference project, String bucket, String key, String uploadId);
+
+    PartUploadResult.ByValue uplink_upload_part(Project.ByReference project, String bucket, String key, String uploadId, int partNumber);
+
+    WriteResult.ByValue uplink_part_upload_write(PartUpload.ByReference upload, Pointer bytes, NativeLong size);
+
+    Error.ByReference uplink_part_upload_commit(PartUpload.ByReference upload);
+
+    Error.ByReference uplink_part_upload_abort(PartUpload.ByReference upload);
+
+    void uplink_free_upload_info_result(UploadInfoResult.ByValue result);
+
+    void uplink_free_commit_upload_result(CommitUploadResult.ByValue result);
+
+    void uplink_free_part_upload_result(PartUploadResult.ByValue result);
+
     // download
     DownloadResult.ByValue uplink_download_object(Project.ByReference project, String bucket, String key, DownloadOptions options);
 
-    ReadResult.ByValue uplink_download_read(Download.ByReference download, byte[] bytes, NativeLong size);
+    ReadResult.ByValue uplink_download_read(Download.ByReference download, Pointer bytes, NativeLong size);
 
     ObjectResult.ByValue uplink_download_info(Download.ByReference download);
 
@@ -0,0 +1,1482 @@
+package io.storj;
+
+import com.sun.jna.Memory;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An in-process implementation of {@link JNAUplink} which keeps buckets and objects in memory
+ * instead of talking to a Storj network. It is selected with
+ * <code>-Dstorj.uplink.backend=memory</code>, see {@link UplinkBackend}.
+ *
+ * <p>Access grants have the form <code>memory:&lt;project&gt;</code>; all projects opened with
+ * the same project name share their buckets for the lifetime of the JVM. Shared grants carry
+ * their permissions and prefixes, which are enforced like the satellite would. Listings,
+ * ranged downloads, multipart uploads and the uplink-c error codes, including
+ * {@link JNAUplink#EOF}, behave like the native library.</p>
+ *
+ * <p>For benchmarks, network costs can be simulated deterministically with the system
+ * properties <code>storj.uplink.memory.latency</code>, the milliseconds added to every request
+ * which would be a round trip to the satellite or storage nodes, and
+ * <code>storj.uplink.memory.bandwidth</code>, the bytes per second uploads and downloads are
+ * throttled to.</p>
+ */
+class MemoryUplink implements JNAUplink {
+
+    static final String ACCESS_PREFIX = "memory:";
+    static final String LATENCY_PROPERTY = "storj.uplink.memory.latency";
+    static final String BANDWIDTH_PROPERTY = "storj.uplink.memory.bandwidth";
+
+    // a listing costs one round trip per page, like the paged satellite requests
+    private static final int LIST_PAGE_SIZE = 1000;
+
+    private static final int DOWNLOAD = 1;
+    private static final int UPLOAD = 2;
+    private static final int LIST = 4;
+    private static final int DELETE = 8;
+
+    /**
+     * Orders keys by their UTF-8 bytes, like the satellite.
+     */
+    static final Comparator<String> KEY_ORDER = new Comparator<String>() {
+        @Override
+        public int compare(String a, String b) {
+            int i = 0;
+            int j = 0;
+            while (i < a.length() && j < b.length()) {
+                int ca = a.codePointAt(i);
+                int cb = b.codePointAt(j);
+                if (ca != cb) {
+                    return ca < cb ? -1 : 1;
+                }
+                i += Character.charCount(ca);
+                j += Character.charCount(cb);
+            }
+            return (a.length() - i) - (b.length() - j);
+        }
+    };
+
+    private final long latencyNanos;
+    private final long bandwidth;
+
+    private final AtomicLong nextHandle = new AtomicLong();
+    private final Map<Long, java.lang.Object> handles = new ConcurrentHashMap<>();
+    private final Map<String, Store> projects = new ConcurrentHashMap<>();
+    private final AtomicLong nextUploadId = new AtomicLong();
+
+    MemoryUplink() {
+        this(TimeUnit.MILLISECONDS.toNanos(Long.getLong(LATENCY_PROPERTY, 0)), Long.getLong(BANDWIDTH_PROPERTY, 0));
+    }
+
+    /**
+     * @param latencyNanos the delay of every round trip
+     * @param bandwidth    the bytes per second of uploads and downloads, 0 for unlimited
+     */
+    MemoryUplink(long latencyNanos, long bandwidth) {
+        this.latencyNanos = latencyNanos;
+        this.bandwidth = bandwidth;
+    }
+
+    /**
+     * Returns an access grant for a project of the in-memory backend.
+     *
+     * @param project the project name
+     * @return the serialized access grant
+     */
+    static String access(String project) {
+        return ACCESS_PREFIX + encode(project);
+    }
+
+    // simulated network
+
+    private void roundTrip() {
+        if (latencyNanos > 0) {
+            sleep(latencyNanos);
+        }
+    }
+
+    private void transfer(long bytes) {
+        if (bandwidth > 0 && bytes > 0) {
+            sleep(bytes * TimeUnit.SECONDS.toNanos(1) / bandwidth);
+        }
+    }
+
+    private static void sleep(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    // handles
+
+    private <T extends Handle> T register(T handle, java.lang.Object target) {
+        long id = nextHandle.incrementAndGet();
+        handles.put(id, target);
+        handle._handle = new NativeLong(id);
+        return handle;
+    }
+
+    private <T> T resolve(Handle handle, Class<T> type) {
+        if (handle == null || handle._handle == null) {
+            return null;
+        }
+        java.lang.Object target = handles.get(handle._handle.longValue());
+        return type.isInstance(target) ? type.cast(target) : null;
+    }
+
+    private void release(Handle handle) {
+        if (handle != null && handle._handle != null) {
+            handles.remove(handle._handle.longValue());
+        }
+    }
+
+    // errors
+
+    private static Error.ByReference error(int code, String message) {
+        Error.ByReference error = new Error.ByReference();
+        error.code = code;
+        error.message = message;
+        return error;
+    }
+
+    private static Error.ByReference invalidHandle(String name) {
+        return error(ERROR_INVALID_HANDLE, "invalid " + name);
+    }
+
+    private static Error.ByReference bucketNotFound(String bucket) {
+        return error(ERROR_BUCKET_NOT_FOUND, "bucket not found (\"" + bucket + "\")");
+    }
+
+    private static Error.ByReference objectNotFound(String key) {
+        return error(ERROR_OBJECT_NOT_FOUND, "object not found (\"" + key + "\")");
+    }
+
+    private static Error.ByReference permissionDenied() {
+        return error(ERROR_PERMISSION_DENIED, "permission denied");
+    }
+
+    private static Error.ByReference validateBucket(String bucket) {
+        if (bucket == null || !bucket.matches("[a-z0-9][a-z0-9.-]{1,61}[a-z0-9]")) {
+            return error(ERROR_BUCKET_NAME_INVALID, "bucket name invalid (\"" + bucket + "\")");
+        }
+        return null;
+    }
+
+    private static Error.ByReference validate(String bucket, String key) {
+        Error.ByReference error = validateBucket(bucket);
+        if (error == null && (key == null || key.isEmpty())) {
+            error = error(ERROR_OBJECT_KEY_INVALID, "object key invalid (\"" + key + "\")");
+        }
+        return error;
+    }
+
+    // access
+
+    @Override
+    public AccessResult.ByValue uplink_parse_access(String access) {
+        AccessResult.ByValue result = new AccessResult.ByValue();
+        Grant grant = Grant.parse(access);
+        if (grant == null) {
+            result.error = error(ERROR_INTERNAL, "invalid access grant format");
+        } else {
+            result.access = register(new Access.ByReference(), grant);
+        }
+        return result;
+    }
+
+    @Override
+    public AccessResult.ByValue uplink_request_access_with_passphrase(String address, String apiKey, String passphrase) {
+        AccessResult.ByValue result = new AccessResult.ByValue();
+        result.error = error(ERROR_INTERNAL, "the in-memory backend cannot request access grants from " + address);
+        return result;
+    }
+
+    @Override
+    public AccessResult.ByValue uplink_config_request_access_with_passphrase(Config.ByValue config, String address, String apiKey, String passphrase) {
+        return uplink_request_access_with_passphrase(address, apiKey, passphrase);
+    }
+
+    @Override
+    public StringResult.ByValue uplink_access_serialize(Access.ByReference access) {
+        StringResult.ByValue result = new StringResult.ByValue();
+        Grant grant = resolve(access, Grant.class);
+        if (grant == null) {
+            result.error = invalidHandle("access");
+        } else {
+            result.string = grant.serialized;
+        }
+        return result;
+    }
+
+    @Override
+    public Error.ByReference uplink_access_override_encryption_key(Access.ByReference access, String bucket, String prefix, EncryptionKey.ByReference encryptionKey) {
+        Grant grant = resolve(access, Grant.class);
+        if (grant == null) {
+            return invalidHandle("access");
+        }
+        String key = resolve(encryptionKey, String.class);
+        if (key == null) {
+            return invalidHandle("encryption key");
+        }
+        handles.put(access._handle.longValue(), grant.withKey(bucket, prefix, key));
+        return null;
+    }
+
+    @Override
+    public void uplink_free_encryption_key_result(EncryptionKeyResult.ByValue result) {
+        if (result != null) {
+            release(result.encryption_key);
+        }
+    }
+
+    @Override
+    public EncryptionKeyResult.ByValue uplink_derive_encryption_key(String passphrase, Pointer salt, NativeLong length) {
+        EncryptionKeyResult.ByValue result = new EncryptionKeyResult.ByValue();
+        if (passphrase == null) {
+            result.error = error(ERROR_INTERNAL, "passphrase is required");
+            return result;
+        }
+        byte[] saltBytes = salt.getByteArray(0, length.intValue());
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(passphrase.getBytes(StandardCharsets.UTF_8));
+            digest.update(saltBytes);
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            result.encryption_key = register(new EncryptionKey.ByReference(), hex.toString());
+        } catch (NoSuchAlgorithmException e) {
+            result.error = error(ERROR_INTERNAL, e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public AccessResult.ByValue uplink_access_share(Access.ByReference access, Permission.ByValue permission, SharePrefix.ByReference prefixes, long size) {
+        AccessResult.ByValue result = new AccessResult.ByValue();
+        Grant grant = resolve(access, Grant.class);
+        if (grant == null) {
+            result.error = invalidHandle("access");
+            return result;
+        }
+
+        StringBuilder share = new StringBuilder("share=");
+        int flags = (permission.allow_download != 0 ? DOWNLOAD : 0) | (permission.allow_upload != 0 ? UPLOAD : 0)
+                | (permission.allow_list != 0 ? LIST : 0) | (permission.allow_delete != 0 ? DELETE : 0);
+        share.append(flags).append(',').append(permission.not_before).append(',').append(permission.not_after);
+        if (size > 0) {
+            // the caller's prefix array is only written to memory for native calls
+            prefixes.autoWrite();
+            for (int i = 0; i < size; i++) {
+                SharePrefix prefix = Structure.newInstance(SharePrefix.class, prefixes.getPointer().share(i * prefixes.size()));
+                prefix.read();
+                share.append(',').append(encode(prefix.bucket)).append('/').append(encode(prefix.prefix));
+            }
+        }
+        result.access = register(new Access.ByReference(), grant.withSegment(share.toString()));
+        return result;
+    }
+
+    @Override
+    public void uplink_free_access_result(AccessResult.ByValue result) {
+        if (result != null) {
+            release(result.access);
+        }
+    }
+
+    // project
+
+    @Override
+    public ProjectResult.ByValue uplink_config_open_project(Config.ByValue config, Access.ByReference access) {
+        return uplink_open_project(access);
+    }
+
+    @Override
+    public ProjectResult.ByValue uplink_open_project(Access.ByReference access) {
+        ProjectResult.ByValue result = new ProjectResult.ByValue();
+        Grant grant = resolve(access, Grant.class);
+        if (grant == null) {
+            result.error = invalidHandle("access");
+            return result;
+        }
+        Store store = projects.get(grant.project);
+        if (store == null) {
+            Store created = new Store();
+            store = projects.putIfAbsent(grant.project, created);
+            if (store == null) {
+                store = created;
+            }
+        }
+        result.project = register(new Project.ByReference(), new OpenProject(store, grant));
+        return result;
+    }
+
+    @Override
+    public Error.ByReference uplink_close_project(Project.ByReference project) {
+        if (resolve(project, OpenProject.class) == null) {
+            return invalidHandle("project");
+        }
+        release(project);
+        return null;
+    }
+
+    @Override
+    public void uplink_free_project_result(ProjectResult.ByValue result) {
+        if (result != null) {
+            release(result.project);
+        }
+    }
+
+    // buckets
+
+    private static Bucket.ByReference toBucket(StoredBucket stored) {
+        Bucket.ByReference bucket = new Bucket.ByReference();
+        bucket.name = stored.name;
+        bucket.created = stored.created;
+        return bucket;
+    }
+
+    private BucketResult.ByValue bucketResult(Project.ByReference project, String bucket, int permission) {
+        BucketResult.ByValue result = new BucketResult.ByValue();
+        OpenProject open = resolve(project, OpenProject.class);
+        if (open == null) {
+            result.error = invalidHandle("project");
+            return result;
+        }
+        result.error = validateBucket(bucket);
+        if (result.error == null && !open.grant.allows(permission, bucket, null)) {
+            result.error = permissionDenied();
+        }
+        return result;
+    }
+
+    @Override
+    public BucketResult.ByValue uplink_stat_bucket(Project.ByReference project, String bucket) {
+        BucketResult.ByValue result = bucketResult(project, bucket, DOWNLOAD | UPLOAD | LIST | DELETE);
+        if (result.error != null) {
+            return result;
+        }
+        roundTrip();
+        Store store = resolve(project, OpenProject.class).store;
+        synchronized (store) {
+            StoredBucket stored = store.buckets.get(bucket);
+            if (stored == null) {
+                result.error = bucketNotFound(bucket);
+            } else {
+                result.bucket = toBucket(stored);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public BucketResult.ByValue uplink_create_bucket(Project.ByReference project, String bucket) {
+        return createBucket(project, bucket, false);
+    }
+
+    @Override
+    public BucketResult.ByValue uplink_ensure_bucket(Project.ByReference project, String bucket) {
+        return createBucket(project, bucket, true);
+    }
+
+    private BucketResult.ByValue createBucket(Project.ByReference project, String bucket, boolean ensure) {
+        BucketResult.ByValue result = bucketResult(project, bucket, UPLOAD);
+        if (result.error != null) {
+            return result;
+        }
+        roundTrip();
+        Store store = resolve(project, OpenProject.class).store;
+        synchronized (store) {
+            StoredBucket stored = store.buckets.get(bucket);
+            if (stored == null) {
+                stored = new StoredBucket(bucket, System.currentTimeMillis() / 1000);
+                store.buckets.put(bucket, stored);
+            } else if (!ensure) {
+                result.error = error(ERROR_BUCKET_ALREADY_EXISTS, "bucket already exists (\"" + bucket + "\")");
+            }
+            result.bucket = toBucket(stored);
+        }
+        return result;
+    }
+
+    @Override
+    public BucketResult.ByValue uplink_delete_bucket(Project.ByReference project, String bucket) {
+        BucketResult.ByValue result = bucketResult(project, bucket, DELETE);
+        if (result.error != null) {
+            return result;
+        }
+        roundTrip();
+        Store store = resolve(project, OpenProject.class).store;
+        synchronized (store) {
+            StoredBucket stored = store.buckets.get(bucket);
+            if (stored == null) {
+                result.error = bucketNotFound(bucket);
+            } else if (!stored.objects.isEmpty()) {
+                result.error = error(ERROR_BUCKET_NOT_EMPTY, "bucket not empty (\"" + bucket + "\")");
+            } else {
+                store.buckets.remove(bucket);
+                result.bucket = toBucket(stored);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void uplink_free_bucket_result(BucketResult.ByValue p0) {
+    }
+
+    @Override
+    public void uplink_free_bucket(Bucket.ByReference bucket) {
+    }
+
+    @Override
+    public BucketIterator.ByReference uplink_list_buckets(Project.ByReference project, ListBucketsOptions.ByReference options) {
+        return register(new BucketIterator.ByReference(), new BucketListing(resolve(project, OpenProject.class),
+                options != null ? options.cursor : null));
+    }
+
+    @Override
+    public boolean uplink_bucket_iterator_next(BucketIterator.ByReference iterator) {
+        BucketListing listing = resolve(iterator, BucketListing.class);
+        return listing != null && listing.next();
+    }
+
+    @Override
+    public Error.ByReference uplink_bucket_iterator_err(BucketIterator.ByReference iterator) {
+        BucketListing listing = resolve(iterator, BucketListing.class);
+        return listing == null ? invalidHandle("iterator") : listing.error;
+    }
+
+    @Override
+    public Bucket.ByReference uplink_bucket_iterator_item(BucketIterator.ByReference iterator) {
+        BucketListing listing = resolve(iterator, BucketListing.class);
+        return listing == null || listing.current() == null ? null : toBucket(listing.current());
+    }
+
+    @Override
+    public void uplink_free_bucket_iterator(BucketIterator.ByReference iterator) {
+        release(iterator);
+    }
+
+    // objects
+
+    private static Map<String, String> fromCustomMetadata(CustomMetadata metadata) {
+        Map<String, String> custom = new LinkedHashMap<>();
+        if (metadata == null || metadata.count == null || metadata.entries == null) {
+            return custom;
+        }
+        CustomMetadataEntry first = metadata.entries;
+        // the caller's entry array is only written to memory for native calls
+        first.autoWrite();
+        for (int i = 0; i < metadata.count.intValue(); i++) {
+            CustomMetadataEntry entry = Structure.newInstance(CustomMetadataEntry.class, first.getPointer().share((long) i * first.size()));
+            entry.read();
+            custom.put(new String(entry.key.getByteArray(0, entry.key_length.intValue()), StandardCharsets.UTF_8),
+                    new String(entry.value.getByteArray(0, entry.value_length.intValue()), StandardCharsets.UTF_8));
+        }
+        return custom;
+    }
+
+    private static CustomMetadata.ByValue toCustomMetadata(Map<String, String> custom) {
+        CustomMetadata.ByValue metadata = new CustomMetadata.ByValue();
+        metadata.count = new NativeLong(custom.size());
+        if (!custom.isEmpty()) {
+            CustomMetadataEntry.ByReference first = new CustomMetadataEntry.ByReference();
+            Structure[] entries = first.toArray(custom.size());
+            int i = 0;
+            for (Map.Entry<String, String> field : custom.entrySet()) {
+                CustomMetadataEntry entry = (CustomMetadataEntry) entries[i++];
+                byte[] key = field.getKey().getBytes(StandardCharsets.UTF_8);
+                byte[] value = field.getValue().getBytes(StandardCharsets.UTF_8);
+                entry.key = cString(key);
+                entry.key_length = new NativeLong(key.length);
+                entry.value = cString(value);
+                entry.value_length = new NativeLong(value.length);
+            }
+            // readers of the metadata read the entries from memory
+            first.autoWrite();
+            metadata.entries = first;
+        }
+        return metadata;
+    }
+
+    private static Memory cString(byte[] bytes) {
+        Memory memory = new Memory(bytes.length + 1);
+        memory.write(0, bytes, 0, bytes.length);
+        memory.setByte(bytes.length, (byte) 0);
+        return memory;
+    }
+
+    private static Object.ByReference toObject(StoredObject stored, boolean system, boolean custom) {
+        Object.ByReference object = new Object.ByReference();
+        object.key = stored.key;
+        object.system = new SystemMetadata.ByValue();
+        if (system) {
+            object.system.created = stored.created;
+            object.system.expires = stored.expires;
+            object.system.content_length = stored.data.length;
+        }
+        object.custom = toCustomMetadata(custom ? stored.custom : Collections.<String, String>emptyMap());
+        return object;
+    }
+
+    private static Object.ByReference toPrefix(String key) {
+        Object.ByReference object = new Object.ByReference();
+        object.key = key;
+        object.is_prefix = 1;
+        object.system = new SystemMetadata.ByValue();
+        object.custom = toCustomMetadata(Collections.<String, String>emptyMap());
+        return object;
+    }
+
+    /**
+     * Checks the project, names and permission of an operation on an object.
+     */
+    private Error.ByReference check(OpenProject open, String bucket, String key, int permission) {
+        if (open == null) {
+            return invalidHandle("project");
+        }
+        Error.ByReference error = validate(bucket, key);
+        if (error == null && !open.grant.allows(permission, bucket, key)) {
+            error = permissionDenied();
+        }
+        return error;
+    }
+
+    /**
+     * Returns the bucket, or sets the error of the result. Must hold the store lock.
+     */
+    private static StoredBucket bucket(Store store, String bucket, Error.ByReference[] error) {
+        StoredBucket stored = store.buckets.get(bucket);
+        if (stored == null) {
+            error[0] = bucketNotFound(bucket);
+        }
+        return stored;
+    }
+
+    @Override
+    public ObjectResult.ByValue uplink_stat_object(Project.ByReference project, String bucket, String key) {
+        ObjectResult.ByValue result = new ObjectResult.ByValue();
+        OpenProject open = resolve(project, OpenProject.class);
+        result.error = check(open, bucket, key, DOWNLOAD | LIST);
+        if (result.error != null) {
+            return result;
+        }
+        roundTrip();
+        Error.ByReference[] error = new Error.ByReference[1];
+        synchronized (open.store) {
+            StoredBucket stored = bucket(open.store, bucket, error);
+            StoredObject object = stored == null ? null : stored.objects.get(key);
+            if (stored != null && object == null) {
+                error[0] = objectNotFound(key);
+            }
+            if (object != null) {
+                result.object = toObject(object, true, true);
+            }
+        }
+        result.error = error[0];
+        return result;
+    }
+
+    @Override
+    public ObjectResult.ByValue uplink_delete_object(Project.ByReference project, String bucket, String key) {
+        ObjectResult.ByValue result = new ObjectResult.ByValue();
+        OpenProject open = resolve(project, OpenProject.class);
+        result.error = check(open, bucket, key, DELETE);
+        if (result.error != null) {
+            return result;
+        }
+        roundTrip();
+        Error.ByReference[] error = new Error.ByReference[1];
+        synchronized (open.store) {
+            StoredBucket stored = bucket(open.store, bucket, error);
+            StoredObject object = stored == null ? null : stored.objects.remove(key);
+            // deleting a missing object is not an error, it just returns no object
+            if (object != null) {
+                result.object = toObject(object, true, true);
+            }
+        }
+        result.error = error[0];
+        return result;
+    }
+
+    @Override
+    public Error.ByReference uplink_move_object(Project.ByReference project, String bucket, String key, String newBucket, String newKey) {
+        OpenProject open = resolve(project, OpenProject.class);
+        Error.ByReference error = check(open, bucket, key, DELETE);
+        if (error == null) {
+            error = check(open, newBucket, newKey, UPLOAD);
+        }
+        if (error != null) {
+            return error;
+        }
+        roundTrip();
+        Error.ByReference[] errors = new Error.ByReference[1];
+        synchronized (open.store) {
+            StoredBucket source = bucket(open.store, bucket, errors);
+            StoredBucket destination = source == null ? null : bucket(open.store, newBucket, errors);
+            if (destination == null) {
+                return errors[0];
+            }
+            StoredObject object = source.objects.get(key);
+            if (object == null) {
+                return objectNotFound(key);
+            }
+            source.objects.remove(key);
+            destination.objects.put(newKey, object.withKey(newKey));
+        }
+        return null;
+    }
+
+    @Override
+    public void uplink_free_object_result(ObjectResult.ByValue result) {
+    }
+
+    @Override
+    public void uplink_free_object(Object.ByReference object) {
+    }
+
+    @Override
+    public ObjectIterator.ByReference uplink_list_objects(Project.ByReference project, String bucket, ListObjectsOptions.ByReference options) {
+        return register(new ObjectIterator.ByReference(), new ObjectListing(resolve(project, OpenProject.class), bucket, options));
+    }
+
+    @Override
+    public boolean uplink_object_iterator_next(ObjectIterator.ByReference iterator) {
+        ObjectListing listing = resolve(iterator, ObjectListing.class);
+        return listing != null && listing.next();
+    }
+
+    @Override
+    public Error.ByReference uplink_object_iterator_err(ObjectIterator.ByReference iterator) {
+        ObjectListing listing = resolve(iterator, ObjectListing.class);
+        return listing == null ? invalidHandle("iterator") : listing.error;
+    }
+
+    @Override
+    public Object.ByReference uplink_object_iterator_item(ObjectIterator.ByReference iterator) {
+        ObjectListing listing = resolve(iterator, ObjectListing.class);
+        return listing == null ? null : listing.current();
+    }
+
+    @Override
+    public void uplink_free_object_iterator(ObjectIterator.ByReference iterator) {
+        release(iterator);
+    }
+
+    // upload
+
+    @Override
+    public UploadResult.ByValue uplink_upload_object(Project.ByReference project, String bucket, String key, UploadOptions.ByReference options) {
+        UploadResult.ByValue result = new UploadResult.ByValue();
+        OpenProject open = resolve(project, OpenProject.class);
+        result.error = check(open, bucket, key, UPLOAD);
+        if (result.error != null) {
+            return result;
+        }
+        roundTrip();
+        synchronized (open.store) {
+            if (!open.store.buckets.containsKey(bucket)) {
+                result.error = bucketNotFound(bucket);
+                return result;
+            }
+        }
+        result.upload = register(new Upload.ByReference(), new UploadState(open.store, bucket, key,
+                options != null ? options.expires : 0));
+        return result;
+    }
+
+    @Override
+    public WriteResult.ByValue uplink_upload_write(Upload.ByReference upload, Pointer bytes, NativeLong size) {
+        UploadState state = resolve(upload, UploadState.class);
+        return write(state, state == null ? "upload" : null, bytes, size);
+    }
+
+    private WriteResult.ByValue write(Buffer state, String invalid, Pointer bytes, NativeLong size) {
+        WriteResult.ByValue result = new WriteResult.ByValue();
+        result.bytes_written = new NativeLong(0);
+        if (invalid != null) {
+            result.error = invalidHandle(invalid);
+            return result;
+        }
+        int length = size.intValue();
+        synchronized (state) {
+            if (state.done) {
+                result.error = error(ERROR_UPLOAD_DONE, "upload done");
+                return result;
+            }
+            state.data.write(bytes.getByteArray(0, length), 0, length);
+        }
+        transfer(length);
+        result.bytes_written = new NativeLong(length);
+        return result;
+    }
+
+    @Override
+    public Error.ByReference uplink_upload_commit(Upload.ByReference upload) {
+        UploadState state = resolve(upload, UploadState.class);
+        if (state == null) {
+            return invalidHandle("upload");
+        }
+        roundTrip();
+        synchronized (state) {
+            if (state.done) {
+                return error(ERROR_UPLOAD_DONE, "upload done");
+            }
+            state.done = true;
+            StoredObject object = new StoredObject(state.key, System.currentTimeMillis() / 1000, state.expires,
+                    state.data.toByteArray(), state.custom);
+            synchronized (state.store) {
+                StoredBucket stored = state.store.buckets.get(state.bucket);
+                if (stored == null) {
+                    return bucketNotFound(state.bucket);
+                }
+                stored.objects.put(state.key, object);
+            }
+            state.committed = object;
+        }
+        return null;
+    }
+
+    @Override
+    public Error.ByReference uplink_upload_abort(Upload.ByReference upload) {
+        UploadState state = resolve(upload, UploadState.class);
+        if (state == null) {
+            return invalidHandle("upload");
+        }
+        synchronized (state) {
+            if (state.done) {
+                return error(ERROR_UPLOAD_DONE, "upload done");
+            }
+            state.done = true;
+        }
+        return null;
+    }
+
+    @Override
+    public ObjectResult.ByValue uplink_upload_info(Upload.ByReference upload) {
+        ObjectResult.ByValue result = new ObjectResult.ByValue();
+        UploadState state = resolve(upload, UploadState.class);
+        if (state == null) {
+            result.error = invalidHandle("upload");
+            return result;
+        }
+        synchronized (state) {
+            StoredObject object = state.committed;
+            if (object == null) {
+                // not committed yet, only the key and the metadata are known
+                object = new StoredObject(state.key, 0, state.expires, new byte[0], state.custom);
+            }
+            result.object = toObject(object, true, true);
+        }
+        return result;
+    }
+
+    @Override
+    public Error.ByReference uplink_upload_set_custom_metadata(Upload.ByReference upload, CustomMetadata.ByValue metadata) {
+        UploadState state = resolve(upload, UploadState.class);
+        if (state == null) {
+            return invalidHandle("upload");
+        }
+        synchronized (state) {
+            if (state.done) {
+                return error(ERROR_UPLOAD_DONE, "upload done");
+            }
+            state.custom = fromCustomMetadata(metadata);
+        }
+        return null;
+    }
+
+    @Override
+    public void uplink_free_write_result(WriteResult.ByValue result) {
+    }
+
+    @Override
+    public void uplink_free_upload_result(UploadResult.ByValue result) {
+        if (result != null) {
+            release(result.upload);
+        }
+    }
+
+    // multipart upload
+
+    @Override
+    public UploadInfoResult.ByValue uplink_begin_upload(Project.ByReference project, String bucket, String key, UploadOptions.ByReference options) {
+        UploadInfoResult.ByValue result = new UploadInfoResult.ByValue();
+        OpenProject open = resolve(project, OpenProject.class);
+        result.error = check(open, bucket, key, UPLOAD);
+        if (result.error != null) {
+            return result;
+        }
+        roundTrip();
+        String uploadId = "upload-" + nextUploadId.incrementAndGet();
+        synchronized (open.store) {
+            if (!open.store.buckets.containsKey(bucket)) {
+                result.error = bucketNotFound(bucket);
+                return result;
+            }
+            open.store.uploads.put(uploadId, new MultipartState(bucket, key, options != null ? options.expires : 0));
+        }
+        result.info = new UploadInfo.ByReference();
+        result.info.upload_id = uploadId;
+        result.info.key = key;
+        result.info.system = new SystemMetadata.ByValue();
+        result.info.custom = toCustomMetadata(Collections.<String, String>emptyMap());
+        return result;
+    }
+
+    /**
+     * Returns the pending multipart upload, or sets the error. Must hold the store lock.
+     */
+    private static MultipartState multipart(Store store, String bucket, String key, String uploadId, Error.ByReference[] error) {
+        MultipartState state = uploadId == null ? null : store.uploads.get(uploadId);
+        if (state == null || !state.bucket.equals(bucket) || !state.key.equals(key)) {
+            error[0] = error(ERROR_INTERNAL, "upload id invalid (\"" + uploadId + "\")");
+            return null;
+        }
+        return state;
+    }
+
+    @Override
+    public CommitUploadResult.ByValue uplink_commit_upload(Project.ByReference project, String bucket, String key, String uploadId, CommitUploadOptions.ByReference options) {
+        CommitUploadResult.ByValue result = new CommitUploadResult.ByValue();
+        OpenProject open = resolve(project, OpenProject.class);
+        result.error = check(open, bucket, key, UPLOAD);
+        if (result.error != null) {
+            return result;
+        }
+        roundTrip();
+        Error.ByReference[] error = new Error.ByReference[1];
+        synchronized (open.store) {
+            MultipartState state = multipart(open.store, bucket, key, uploadId, error);
+            StoredBucket stored = state == null ? null : bucket(open.store, bucket, error);
+            if (stored != null) {
+                ByteArrayOutputStream data = new ByteArrayOutputStream();
+                for (byte[] part : state.parts.values()) {
+                    data.write(part, 0, part.length);
+                }
+                StoredObject object = new StoredObject(key, System.currentTimeMillis() / 1000, state.expires,
+                        data.toByteArray(), fromCustomMetadata(options != null ? options.custom_metadata : null));
+                open.store.uploads.remove(uploadId);
+                stored.objects.put(key, object);
+                result.object = toObject(object, true, true);
+            }
+        }
+        result.error = error[0];
+        return result;
+    }
+
+    @Override
+    public Error.ByReference uplink_abort_upload(Project.ByReference project, String bucket, String key, String uploadId) {
+        OpenProject open = resolve(project, OpenProject.class);
+        Error.ByReference error = check(open, bucket, key, UPLOAD);
+        if (error != null) {
+            return error;
+        }
+        roundTrip();
+        Error.ByReference[] errors = new Error.ByReference[1];
+        synchronized (open.store) {
+            if (multipart(open.store, bucket, key, uploadId, errors) != null) {
+                open.store.uploads.remove(uploadId);
+            }
+        }
+        return errors[0];
+    }
+
+    @Override
+    public PartUploadResult.ByValue uplink_upload_part(Project.ByReference project, String bucket, String key, String uploadId, int partNumber) {
+        PartUploadResult.ByValue result = new PartUploadResult.ByValue();
+        OpenProject open = resolve(project, OpenProject.class);
+        result.error = check(open, bucket, key, UPLOAD);
+        if (result.error != null) {
+            return result;
+        }
+        Error.ByReference[] error = new Error.ByReference[1];
+        MultipartState state;
+        synchronized (open.store) {
+            state = multipart(open.store, bucket, key, uploadId, error);
+        }
+        if (state == null) {
+            result.error = error[0];
+        } else {
+            result.part_upload = register(new PartUpload.ByReference(), new PartState(open.store, state, partNumber));
+        }
+        return result;
+    }
+
+    @Override
+    public WriteResult.ByValue uplink_part_upload_write(PartUpload.ByReference upload, Pointer bytes, NativeLong size) {
+        PartState state = resolve(upload, PartState.class);
+        return write(state, state == null ? "part upload" : null, bytes, size);
+    }
+
+    @Override
+    public Error.ByReference uplink_part_upload_commit(PartUpload.ByReference upload) {
+        PartState state = resolve(upload, PartState.class);
+        if (state == null) {
+            return invalidHandle("part upload");
+        }
+        roundTrip();
+        synchronized (state) {
+            if (state.done) {
+                return error(ERROR_UPLOAD_DONE, "upload done");
+            }
+            state.done = true;
+            synchronized (state.store) {
+                state.upload.parts.put(state.partNumber, state.data.toByteArray());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Error.ByReference uplink_part_upload_abort(PartUpload.ByReference upload) {
+        PartState state = resolve(upload, PartState.class);
+        if (state == null) {
+            return invalidHandle("part upload");
+        }
+        synchronized (state) {
+            if (state.done) {
+                return error(ERROR_UPLOAD_DONE, "upload done");
+            }
+            state.done = true;
+        }
+        return null;
+    }
+
+    @Override
+    public void uplink_free_upload_info_result(UploadInfoResult.ByValue result) {
+    }
+
+    @Override
+    public void uplink_free_commit_upload_result(CommitUploadResult.ByValue result) {
+    }
+
+    @Override
+    public void uplink_free_part_upload_result(PartUploadResult.ByValue result) {
+        if (result != null) {
+            release(result.part_upload);
+        }
+    }
+
+    // download
+
+    @Override
+    public DownloadResult.ByValue uplink_download_object(Project.ByReference project, String bucket, String key, DownloadOptions options) {
+        DownloadResult.ByValue result = new DownloadResult.ByValue();
+        OpenProject open = resolve(project, OpenProject.class);
+        result.error = check(open, bucket, key, DOWNLOAD);
+        if (result.error != null) {
+            return result;
+        }
+        roundTrip();
+        Error.ByReference[] error = new Error.ByReference[1];
+        StoredObject object = null;
+        synchronized (open.store) {
+            StoredBucket stored = bucket(open.store, bucket, error);
+            if (stored != null) {
+                object = stored.objects.get(key);
+                if (object == null) {
+                    error[0] = objectNotFound(key);
+                }
+            }
+        }
+        if (object == null) {
+            result.error = error[0];
+            return result;
+        }
+
+        long offset = options != null ? options.offset : 0;
+        long length = options != null ? options.length : -1;
+        if (offset < 0 || offset > object.data.length) {
+            result.error = error(ERROR_INTERNAL, "offset " + offset + " out of range for object of " + object.data.length + " bytes");
+            return result;
+        }
+        int end = length < 0 ? object.data.length : (int) Math.min(object.data.length, offset + length);
+        result.download = register(new Download.ByReference(), new DownloadState(object, (int) offset, end));
+        return result;
+    }
+
+    @Override
+    public ReadResult.ByValue uplink_download_read(Download.ByReference download, Pointer bytes, NativeLong size) {
+        ReadResult.ByValue result = new ReadResult.ByValue();
+        result.bytes_read = new NativeLong(0);
+        DownloadState state = resolve(download, DownloadState.class);
+        if (state == null) {
+            result.error = invalidHandle("download");
+            return result;
+        }
+        int read;
+        boolean eof;
+        synchronized (state) {
+            read = (int) Math.min(size.longValue(), state.end - state.position);
+            if (read > 0) {
+                bytes.write(0, state.object.data, state.position, read);
+                state.position += read;
+            }
+            eof = state.position == state.end;
+        }
+        transfer(read);
+        result.bytes_read = new NativeLong(read);
+        if (eof) {
+            // like uplink-c, the last bytes may come together with EOF
+            result.error = error(EOF, "EOF");
+        }
+        return result;
+    }
+
+    @Override
+    public ObjectResult.ByValue uplink_download_info(Download.ByReference download) {
+        ObjectResult.ByValue result = new ObjectResult.ByValue();
+        DownloadState state = resolve(download, DownloadState.class);
+        if (state == null) {
+            result.error = invalidHandle("download");
+        } else {
+            result.object = toObject(state.object, true, true);
+        }
+        return result;
+    }
+
+    @Override
+    public void uplink_free_read_result(ReadResult.ByValue result) {
+    }
+
+    @Override
+    public Error.ByReference uplink_close_download(Download.ByReference download) {
+        return resolve(download, DownloadState.class) == null ? invalidHandle("download") : null;
+    }
+
+    @Override
+    public void uplink_free_download_result(DownloadResult.ByValue result) {
+        if (result != null) {
+            release(result.download);
+        }
+    }
+
+    @Override
+    public void uplink_free_string_result(StringResult.ByValue result) {
+    }
+
+    @Override
+    public void uplink_free_error(Error.ByReference error) {
+    }
+
+    // grants
+
+    static String encode(String value) {
+        if (value == null) {
+            return "";
+        }
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A parsed access grant: <code>memory:&lt;project&gt;</code> followed by
+     * <code>;share=&lt;permissions&gt;,&lt;not before&gt;,&lt;not after&gt;[,&lt;bucket&gt;/&lt;prefix&gt;]...</code>
+     * for every share and <code>;key=&lt;bucket&gt;,&lt;prefix&gt;,&lt;key&gt;</code> for every
+     * encryption key override, all names URL-encoded.
+     */
+    static final class Grant {
+
+        final String project;
+        final String serialized;
+        final List<Share> shares;
+
+        private Grant(String project, String serialized, List<Share> shares) {
+            this.project = project;
+            this.serialized = serialized;
+            this.shares = shares;
+        }
+
+        static Grant parse(String serialized) {
+            if (serialized == null || !serialized.startsWith(ACCESS_PREFIX)) {
+                return null;
+            }
+            String[] segments = serialized.substring(ACCESS_PREFIX.length()).split(";", -1);
+            if (segments[0].isEmpty()) {
+                return null;
+            }
+            List<Share> shares = new ArrayList<>();
+            try {
+                for (int i = 1; i < segments.length; i++) {
+                    if (segments[i].startsWith("share=")) {
+                        shares.add(Share.parse(segments[i].substring("share=".length())));
+                    } else if (!segments[i].startsWith("key=") || segments[i].split(",", -1).length != 3) {
+                        return null;
+                    }
+                }
+                return new Grant(decode(segments[0]), serialized, shares);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        Grant withSegment(String segment) {
+            return parse(serialized + ";" + segment);
+        }
+
+        /**
+         * Returns the grant with the encryption key of the bucket and prefix replaced.
+         */
+        Grant withKey(String bucket, String prefix, String key) {
+            String location = "key=" + encode(bucket) + "," + encode(prefix) + ",";
+            StringBuilder replaced = new StringBuilder();
+            for (String segment : serialized.split(";", -1)) {
+                if (!segment.startsWith(location)) {
+                    replaced.append(replaced.length() == 0 ? "" : ";").append(segment);
+                }
+            }
+            return parse(replaced + ";" + location + key);
+        }
+
+        /**
+         * Returns if every share of the grant allows one of the permissions on the bucket, or on
+         * the key if it is not <code>null</code>.
+         */
+        boolean allows(int permissions, String bucket, String key) {
+            long now = System.currentTimeMillis() / 1000;
+            for (Share share : shares) {
+                if (!share.allows(permissions, bucket, key, now)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    static final class Share {
+
+        final int permissions;
+        final long notBefore;
+        final long notAfter;
+        // bucket and prefix pairs, the prefix is empty for whole buckets
+        final List<String[]> prefixes;
+
+        private Share(int permissions, long notBefore, long notAfter, List<String[]> prefixes) {
+            this.permissions = permissions;
+            this.notBefore = notBefore;
+            this.notAfter = notAfter;
+            this.prefixes = prefixes;
+        }
+
+        static Share parse(String encoded) {
+            String[] fields = encoded.split(",", -1);
+            if (fields.length < 3) {
+                throw new IllegalArgumentException("invalid share: " + encoded);
+            }
+            List<String[]> prefixes = new ArrayList<>();
+            for (int i = 3; i < fields.length; i++) {
+                int slash = fields[i].indexOf('/');
+                if (slash < 0) {
+                    throw new IllegalArgumentException("invalid share prefix: " + fields[i]);
+                }
+                prefixes.add(new String[]{decode(fields[i].substring(0, slash)), decode(fields[i].substring(slash + 1))});
+            }
+            return new Share(Integer.parseInt(fields[0]), Long.parseLong(fields[1]), Long.parseLong(fields[2]), prefixes);
+        }
+
+        boolean allows(int permissions, String bucket, String key, long now) {
+            if ((this.permissions & permissions) == 0
+                    || (notBefore != 0 && now < notBefore)
+                    || (notAfter != 0 && now >= notAfter)) {
+                return false;
+            }
+            if (prefixes.isEmpty()) {
+                return true;
+            }
+            for (String[] prefix : prefixes) {
+                if (prefix[0].equals(bucket) && (key == null || key.startsWith(prefix[1]))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // state
+
+    static final class Store {
+        final TreeMap<String, StoredBucket> buckets = new TreeMap<>(KEY_ORDER);
+        final Map<String, MultipartState> uploads = new HashMap<>();
+    }
+
+    static final class StoredBucket {
+        final String name;
+        final long created;
+        final TreeMap<String, StoredObject> objects = new TreeMap<>(KEY_ORDER);
+
+        StoredBucket(String name, long created) {
+            this.name = name;
+            this.created = created;
+        }
+    }
+
+    static final class StoredObject {
+        final String key;
+        final long created;
+        final long expires;
+        final byte[] data;
+        final Map<String, String> custom;
+
+        StoredObject(String key, long created, long expires, byte[] data, Map<String, String> custom) {
+            this.key = key;
+            this.created = created;
+            this.expires = expires;
+            this.data = data;
+            this.custom = custom;
+        }
+
+        StoredObject withKey(String key) {
+            return new StoredObject(key, created, expires, data, custom);
+        }
+    }
+
+    static final class OpenProject {
+        final Store store;
+        final Grant grant;
+
+        OpenProject(Store store, Grant grant) {
+            this.store = store;
+            this.grant = grant;
+        }
+    }
+
+    /**
+     * The data written to an upload, guarded by its own lock.
+     */
+    abstract static class Buffer {
+        final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        boolean done;
+    }
+
+    static final class UploadState extends Buffer {
+        final Store store;
+        final String bucket;
+        final String key;
+        final long expires;
+        Map<String, String> custom = new LinkedHashMap<>();
+        StoredObject committed;
+
+        UploadState(Store store, String bucket, String key, long expires) {
+            this.store = store;
+            this.bucket = bucket;
+            this.key = key;
+            this.expires = expires;
+        }
+    }
+
+    static final class MultipartState {
+        final String bucket;
+        final String key;
+        final long expires;
+        final TreeMap<Integer, byte[]> parts = new TreeMap<>();
+
+        MultipartState(String bucket, String key, long expires) {
+            this.bucket = bucket;
+            this.key = key;
+            this.expires = expires;
+        }
+    }
+
+    static final class PartState extends Buffer {
+        final Store store;
+        final MultipartState upload;
+        final int partNumber;
+
+        PartState(Store store, MultipartState upload, int partNumber) {
+            this.store = store;
+            this.upload = upload;
+            this.partNumber = partNumber;
+        }
+    }
+
+    static final class DownloadState {
+        final StoredObject object;
+        final int end;
+        int position;
+
+        DownloadState(StoredObject object, int position, int end) {
+            this.object = object;
+            this.position = position;
+            this.end = end;
+        }
+    }
+
+    final class BucketListing {
+        private final OpenProject open;
+        private final String cursor;
+        private List<StoredBucket> buckets;
+        private int index = -1;
+        Error.ByReference error;
+
+        BucketListing(OpenProject open, String cursor) {
+            this.open = open;
+            this.cursor = cursor;
+        }
+
+        synchronized boolean next() {
+            if (buckets == null) {
+                buckets = new ArrayList<>();
+                if (open == null) {
+                    error = invalidHandle("project");
+                    return false;
+                }
+                roundTrip();
+                synchronized (open.store) {
+                    for (StoredBucket bucket : open.store.buckets.values()) {
+                        if ((cursor == null || KEY_ORDER.compare(bucket.name, cursor) > 0)
+                                && open.grant.allows(DOWNLOAD | UPLOAD | LIST | DELETE, bucket.name, null)) {
+                            buckets.add(bucket);
+                        }
+                    }
+                }
+            }
+            if (index + 1 >= buckets.size()) {
+                index = buckets.size();
+                return false;
+            }
+            index++;
+            if (index > 0 && index % LIST_PAGE_SIZE == 0) {
+                roundTrip();
+            }
+            return true;
+        }
+
+        synchronized StoredBucket current() {
+            return buckets != null && index >= 0 && index < buckets.size() ? buckets.get(index) : null;
+        }
+    }
+
+    final class ObjectListing {
+        private final OpenProject open;
+        private final String bucket;
+        private final String prefix;
+        private final String cursor;
+        private final boolean recursive;
+        private final boolean system;
+        private final boolean custom;
+        // stored objects, or the key of a collapsed prefix
+        private List<java.lang.Object> items;
+        private int index = -1;
+        Error.ByReference error;
+
+        ObjectListing(OpenProject open, String bucket, ListObjectsOptions options) {
+            this.open = open;
+            this.bucket = bucket;
+            this.prefix = options != null && options.prefix != null ? options.prefix : "";
+            this.cursor = options != null ? options.cursor : null;
+            this.recursive = options != null && options.recursive != 0;
+            this.system = options != null && options.system != 0;
+            this.custom = options != null && options.custom != 0;
+        }
+
+        synchronized boolean next() {
+            if (items == null) {
+                items = new ArrayList<>();
+                list();
+                if (error != null) {
+                    return false;
+                }
+            }
+            if (index + 1 >= items.size()) {
+                index = items.size();
+                return false;
+            }
+            index++;
+            if (index > 0 && index % LIST_PAGE_SIZE == 0) {
+                roundTrip();
+            }
+            return true;
+        }
+
+        private void list() {
+            if (open == null) {
+                error = invalidHandle("project");
+                return;
+            }
+            error = validateBucket(bucket);
+            if (error != null) {
+                return;
+            }
+            if (!prefix.isEmpty() && !prefix.endsWith("/")) {
+                error = error(ERROR_INTERNAL, "prefix should end with slash");
+                return;
+            }
+            if (!open.grant.allows(LIST, bucket, null)) {
+                error = permissionDenied();
+                return;
+            }
+            roundTrip();
+            synchronized (open.store) {
+                StoredBucket stored = open.store.buckets.get(bucket);
+                if (stored == null) {
+                    error = bucketNotFound(bucket);
+                    return;
+                }
+                String last = null;
+                for (StoredObject object : stored.objects.tailMap(prefix, true).values()) {
+                    if (!object.key.startsWith(prefix)) {
+                        break;
+                    }
+                    if (!open.grant.allows(LIST, bucket, object.key)) {
+                        continue;
+                    }
+                    int slash = recursive ? -1 : object.key.indexOf('/', prefix.length());
+                    String key = slash < 0 ? object.key : object.key.substring(0, slash + 1);
+                    if ((cursor != null && KEY_ORDER.compare(key, cursor) <= 0) || key.equals(last)) {
+                        continue;
+                    }
+                    items.add(slash < 0 ? object : key);
+                    last = key;
+                }
+            }
+        }
+
+        synchronized Object.ByReference current() {
+            if (items == null || index < 0 || index >= items.size()) {
+                return null;
+            }
+            java.lang.Object item = items.get(index);
+            if (item instanceof String) {
+                return toPrefix((String) item);
+            }
+            return toObject((StoredObject) item, system, custom);
+        }
+    }
+}
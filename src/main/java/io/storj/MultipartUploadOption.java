@@ -0,0 +1,154 @@
+package io.storj;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Options for uploading an object in parts with several parallel part uploads.
+ *
+ * @see Project#uploadObjectMultipart(String, String, java.io.InputStream, MultipartUploadOption...)
+ */
+public class MultipartUploadOption {
+
+    static final long DEFAULT_PART_SIZE = 64 * 1024 * 1024;
+    /**
+     * The smallest part the service accepts, except for the last part of an object.
+     */
+    static final long MIN_PART_SIZE = 5 * 1024 * 1024;
+    static final int DEFAULT_CONCURRENCY = 4;
+    static final int DEFAULT_RETRIES = 3;
+
+    private enum Key {
+        PART_SIZE,
+        CONCURRENCY,
+        BUFFERED_PARTS,
+        RETRIES,
+        EXPIRES,
+        CUSTOM_METADATA,
+    }
+
+    private Key key;
+
+    private Object value;
+
+    MultipartUploadOption(Key key, Object value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * Option for the size of a single part in bytes. All parts except the last one have this
+     * size. Must be at least 5 MiB, the minimum part size of the service. Defaults to 64 MiB.
+     *
+     * @param partSize the part size
+     * @return a {@link MultipartUploadOption}
+     */
+    public static MultipartUploadOption partSize(long partSize) {
+        if (partSize < MIN_PART_SIZE || partSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid part size: " + partSize);
+        }
+        return new MultipartUploadOption(Key.PART_SIZE, partSize);
+    }
+
+    /**
+     * Option for the number of parts uploaded at the same time. Defaults to 4.
+     *
+     * @param concurrency the number of parallel part uploads
+     * @return a {@link MultipartUploadOption}
+     */
+    public static MultipartUploadOption concurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+        }
+        return new MultipartUploadOption(Key.CONCURRENCY, concurrency);
+    }
+
+    /**
+     * Option for the number of parts held in memory, including the parts being uploaded and
+     * the part being read from the source. Together with the part size it bounds the memory
+     * used by the upload. Defaults to the concurrency plus one.
+     *
+     * @param bufferedParts the maximum number of parts held in memory
+     * @return a {@link MultipartUploadOption}
+     */
+    public static MultipartUploadOption bufferedParts(int bufferedParts) {
+        if (bufferedParts < 1) {
+            throw new IllegalArgumentException("buffered parts must be positive: " + bufferedParts);
+        }
+        return new MultipartUploadOption(Key.BUFFERED_PARTS, bufferedParts);
+    }
+
+    /**
+     * Option for the number of times a failed part upload is retried. Defaults to 3. The first
+     * retry waits 100 ms, each further one twice as long, up to 5 seconds.
+     *
+     * @param retries the number of retries per part
+     * @return a {@link MultipartUploadOption}
+     */
+    public static MultipartUploadOption retries(int retries) {
+        if (retries < 0) {
+            throw new IllegalArgumentException("retries must not be negative: " + retries);
+        }
+        return new MultipartUploadOption(Key.RETRIES, retries);
+    }
+
+    /**
+     * Option for the expiration date of the new object. If not set, the object will never expire
+     * and will persist on the network until deleted explicitly.
+     *
+     * @param expires the expiration {@link Date}
+     * @return a {@link MultipartUploadOption}
+     */
+    public static MultipartUploadOption expires(Date expires) {
+        return new MultipartUploadOption(Key.EXPIRES, expires);
+    }
+
+    /**
+     * Option for the custom metadata to be included with the object on commit.
+     *
+     * @param metadata the metadata map
+     * @return a {@link MultipartUploadOption}
+     */
+    public static MultipartUploadOption customMetadata(Map<String, String> metadata) {
+        return new MultipartUploadOption(Key.CUSTOM_METADATA, metadata);
+    }
+
+    static Settings internal(MultipartUploadOption... options) {
+        Settings settings = new Settings();
+        settings.partSize = DEFAULT_PART_SIZE;
+        settings.concurrency = DEFAULT_CONCURRENCY;
+        settings.retries = DEFAULT_RETRIES;
+        for (MultipartUploadOption option : options) {
+            if (option.key == Key.PART_SIZE) {
+                settings.partSize = (long) option.value;
+            } else if (option.key == Key.CONCURRENCY) {
+                settings.concurrency = (int) option.value;
+            } else if (option.key == Key.BUFFERED_PARTS) {
+                settings.bufferedParts = (int) option.value;
+            } else if (option.key == Key.RETRIES) {
+                settings.retries = (int) option.value;
+            } else if (option.key == Key.EXPIRES) {
+                settings.uploadOptions = new JNAUplink.UploadOptions.ByReference();
+                settings.uploadOptions.expires = ((Date) option.value).getTime() / 1000;
+            } else if (option.key == Key.CUSTOM_METADATA) {
+                @SuppressWarnings("unchecked")
+                Map<String, String> metadata = (Map<String, String>) option.value;
+                settings.commitOptions = new JNAUplink.CommitUploadOptions.ByReference();
+                settings.commitOptions.custom_metadata = ObjectOutputStream.internalMetadata(metadata);
+            }
+        }
+        if (settings.bufferedParts == 0) {
+            settings.bufferedParts = settings.concurrency + 1;
+        }
+        return settings;
+    }
+
+    static class Settings {
+        long partSize;
+        int concurrency;
+        int bufferedParts;
+        int retries;
+        JNAUplink.UploadOptions.ByReference uploadOptions;
+        JNAUplink.CommitUploadOptions.ByReference commitOptions;
+    }
+}
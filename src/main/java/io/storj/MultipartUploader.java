@@ -0,0 +1,307 @@
+package io.storj;
+
+import com.sun.jna.Memory;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uploads an object with the multipart upload API of uplink-c. The source is read sequentially
+ * into part buffers, which are uploaded by a pool of workers, each part with its own
+ * <code>uplink_upload_part</code> call. Failed parts are retried from the buffer, and the upload
+ * is committed after all parts succeeded or aborted otherwise.
+ */
+class MultipartUploader {
+
+    /**
+     * Size of the heap buffer used to copy an {@link InputStream} into native part buffers.
+     */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Wait before the first retry of a part, doubled for each further retry.
+     */
+    private static final long INITIAL_BACKOFF_MILLIS = 100;
+
+    /**
+     * Upper bound of the wait between two attempts of a part.
+     */
+    private static final long MAX_BACKOFF_MILLIS = 5000;
+
+    private final Project project;
+    private final JNAUplink.Project.ByReference cProject;
+    private final String bucket;
+    private final String key;
+    private final MultipartUploadOption.Settings settings;
+
+    MultipartUploader(Project project, String bucket, String key, MultipartUploadOption... options) {
+        // the project is kept reachable by this uploader, so it stays open while parts are uploaded
+        this.project = project;
+        this.cProject = project.internal();
+        this.bucket = bucket;
+        this.key = key;
+        this.settings = MultipartUploadOption.internal(options);
+    }
+
+    ObjectInfo upload(final InputStream source) throws IOException {
+        return upload(new PartSource() {
+            private final byte[] copyBuffer = new byte[COPY_BUFFER_SIZE];
+
+            @Override
+            public int read(Memory buffer, int length) throws IOException {
+                int read = 0;
+                while (read < length) {
+                    int n = source.read(copyBuffer, 0, Math.min(copyBuffer.length, length - read));
+                    if (n == -1) {
+                        break;
+                    }
+                    buffer.write(read, copyBuffer, 0, n);
+                    read += n;
+                }
+                return read;
+            }
+        });
+    }
+
+    ObjectInfo upload(final ReadableByteChannel source) throws IOException {
+        return upload(new PartSource() {
+            @Override
+            public int read(Memory buffer, int length) throws IOException {
+                ByteBuffer target = buffer.getByteBuffer(0, length);
+                while (target.hasRemaining()) {
+                    if (source.read(target) == -1) {
+                        break;
+                    }
+                }
+                return target.position();
+            }
+        });
+    }
+
+    private interface PartSource {
+        /**
+         * Fills the buffer with up to <code>length</code> bytes. Fewer bytes are returned only
+         * at the end of the source.
+         */
+        int read(Memory buffer, int length) throws IOException;
+    }
+
+    private ObjectInfo upload(PartSource source) throws IOException {
+        JNAUplink.UploadInfoResult.ByValue beginResult = JNAUplink.INSTANCE.uplink_begin_upload(this.cProject, this.bucket, this.key, settings.uploadOptions);
+        String uploadId;
+        try {
+            ExceptionUtil.handleError(beginResult.error);
+            uploadId = beginResult.info.upload_id;
+        } finally {
+            JNAUplink.INSTANCE.uplink_free_upload_info_result(beginResult);
+        }
+
+        BlockingQueue<Memory> freeBuffers = new ArrayBlockingQueue<>(settings.bufferedParts);
+        List<Memory> allocatedBuffers = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(settings.concurrency, new NamedThreadFactory("multipart-upload"));
+        List<Future<Void>> parts = new ArrayList<>();
+        boolean committed = false;
+        try {
+            int partNumber = 1;
+            while (true) {
+                Memory buffer = freeBuffers.poll();
+                if (buffer == null && allocatedBuffers.size() < settings.bufferedParts) {
+                    buffer = new Memory(settings.partSize);
+                    allocatedBuffers.add(buffer);
+                } else if (buffer == null) {
+                    buffer = freeBuffers.take();
+                }
+                checkFailures(parts);
+
+                int length = source.read(buffer, (int) settings.partSize);
+                if (length == 0) {
+                    // an empty source commits an upload without parts
+                    freeBuffers.offer(buffer);
+                    break;
+                }
+                parts.add(executor.submit(new PartTask(uploadId, partNumber++, buffer, length, freeBuffers)));
+                if (length < settings.partSize) {
+                    break;
+                }
+            }
+            for (Future<Void> part : parts) {
+                await(part);
+            }
+
+            JNAUplink.CommitUploadResult.ByValue commitResult = JNAUplink.INSTANCE.uplink_commit_upload(this.cProject, this.bucket, this.key, uploadId, settings.commitOptions);
+            try {
+                ExceptionUtil.handleError(commitResult.error);
+                committed = true;
+                return new ObjectInfo(commitResult.object);
+            } finally {
+                JNAUplink.INSTANCE.uplink_free_commit_upload_result(commitResult);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (StorjException e) {
+            throw new IOException(e);
+        } finally {
+            // part uploads still running must finish before the upload is aborted and their
+            // buffers are freed; buffers of parts which never started are freed as well
+            executor.shutdownNow();
+            awaitTermination(executor);
+            if (!committed) {
+                abort(uploadId);
+            }
+            for (Memory buffer : allocatedBuffers) {
+                buffer.close();
+            }
+        }
+    }
+
+    /**
+     * Waits for the running part uploads, which cannot be interrupted within a native call.
+     */
+    private static void awaitTermination(ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void abort(String uploadId) {
+        JNAUplink.Error.ByReference error = JNAUplink.INSTANCE.uplink_abort_upload(this.cProject, this.bucket, this.key, uploadId);
+        if (error != null) {
+            error.setAutoRead(false);
+            JNAUplink.INSTANCE.uplink_free_error(error);
+        }
+    }
+
+    private static void checkFailures(List<Future<Void>> parts) throws IOException {
+        for (Future<Void> part : parts) {
+            if (part.isDone()) {
+                await(part);
+            }
+        }
+    }
+
+    private static void await(Future<Void> part) throws IOException {
+        try {
+            part.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private class PartTask implements Callable<Void> {
+
+        private final String uploadId;
+        private final int partNumber;
+        private final Memory buffer;
+        private final int length;
+        private final BlockingQueue<Memory> freeBuffers;
+
+        PartTask(String uploadId, int partNumber, Memory buffer, int length, BlockingQueue<Memory> freeBuffers) {
+            this.uploadId = uploadId;
+            this.partNumber = partNumber;
+            this.buffer = buffer;
+            this.length = length;
+            this.freeBuffers = freeBuffers;
+        }
+
+        @Override
+        public Void call() throws IOException {
+            try {
+                for (int attempt = 0; ; attempt++) {
+                    try {
+                        uploadPart();
+                        return null;
+                    } catch (StorjException e) {
+                        if (attempt >= settings.retries) {
+                            throw new IOException("part " + partNumber + " failed after " + (attempt + 1) + " attempts", e);
+                        }
+                    }
+                    backoff(attempt);
+                }
+            } finally {
+                freeBuffers.offer(buffer);
+            }
+        }
+
+        /**
+         * Waits before the next attempt, so that a transient error of a satellite or node is not
+         * turned into back-to-back failures. Interrupted when the upload fails.
+         */
+        private void backoff(int attempt) throws IOException {
+            long millis = Math.min(INITIAL_BACKOFF_MILLIS << Math.min(attempt, 16), MAX_BACKOFF_MILLIS);
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+
+        private void uploadPart() throws StorjException {
+            JNAUplink.PartUploadResult.ByValue partResult = JNAUplink.INSTANCE.uplink_upload_part(cProject, bucket, key, uploadId, partNumber);
+            boolean committed = false;
+            try {
+                ExceptionUtil.handleError(partResult.error);
+
+                int written = 0;
+                while (written < length) {
+                    Pointer chunk = written == 0 ? buffer : buffer.share(written);
+                    JNAUplink.WriteResult.ByValue writeResult = JNAUplink.INSTANCE.uplink_part_upload_write(partResult.part_upload, chunk, new NativeLong(length - written));
+                    try {
+                        ExceptionUtil.handleError(writeResult.error);
+                        int n = writeResult.bytes_written.intValue();
+                        if (n <= 0) {
+                            throw new StorjException("part upload write made no progress");
+                        }
+                        written += n;
+                    } finally {
+                        JNAUplink.INSTANCE.uplink_free_write_result(writeResult);
+                    }
+                }
+
+                JNAUplink.Error.ByReference error = JNAUplink.INSTANCE.uplink_part_upload_commit(partResult.part_upload);
+                ExceptionUtil.handleError(error);
+                committed = true;
+            } finally {
+                if (!committed && partResult.part_upload != null) {
+                    JNAUplink.Error.ByReference error = JNAUplink.INSTANCE.uplink_part_upload_abort(partResult.part_upload);
+                    if (error != null) {
+                        error.setAutoRead(false);
+                        JNAUplink.INSTANCE.uplink_free_error(error);
+                    }
+                }
+                JNAUplink.INSTANCE.uplink_free_part_upload_result(partResult);
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package io.storj;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Releases native resources of objects which became unreachable without being closed. A minimal
+ * equivalent of <code>java.lang.ref.Cleaner</code>, which is not available on Java 8.
+ *
+ * <p>The cleanup action must not reference the registered object, or the object never becomes
+ * unreachable. Registrations are tracked by type in {@link NativeResources}.</p>
+ */
+class NativeCleaner {
+
+    private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+
+    // keeps the references reachable until they are cleaned
+    private static final Set<Ref> REFS = Collections.newSetFromMap(new ConcurrentHashMap<Ref, Boolean>());
+
+    static {
+        Thread thread = new NamedThreadFactory("cleaner").newThread(new Runnable() {
+            @Override
+            public void run() {
+                while (true) {
+                    try {
+                        Reference<?> ref = QUEUE.remove();
+                        ((Ref) ref).clean(true);
+                    } catch (InterruptedException e) {
+                        // keep running, cleaning is needed for the lifetime of the JVM
+                    } catch (Throwable e) {
+                        // a failing action must not stop the cleaning of others
+                    }
+                }
+            }
+        });
+        thread.start();
+    }
+
+    private NativeCleaner() {
+    }
+
+    /**
+     * A registered cleanup action, run at most once.
+     */
+    interface Cleanable {
+        /**
+         * Runs the action now, unless it already ran, and unregisters it.
+         */
+        void clean();
+    }
+
+    /**
+     * A cleanup action for a handle which is closed before it is freed.
+     *
+     * <p>The owner closes the handle itself in <code>close()</code>, so errors are reported, and
+     * then runs the {@link Cleanable} to free it. For an owner which was never closed the cleaner
+     * closes the handle, ignoring errors, and frees it.</p>
+     */
+    abstract static class Releaser implements Runnable {
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        /**
+         * Returns <code>true</code> for the first caller only, which has to close the handle.
+         */
+        boolean markClosed() {
+            return this.closed.compareAndSet(false, true);
+        }
+
+        /**
+         * Returns whether the handle was closed by its owner or by the cleaner.
+         */
+        boolean isClosed() {
+            return this.closed.get();
+        }
+
+        @Override
+        public final void run() {
+            if (markClosed()) {
+                close();
+            }
+            free();
+        }
+
+        /**
+         * Closes the handle of a leaked owner. Errors are ignored, there is no one to report them.
+         */
+        abstract void close();
+
+        abstract void free();
+    }
+
+    /**
+     * Registers an action to run when the object becomes phantom reachable.
+     *
+     * @param object the object to watch
+     * @param type   the kind of native resource, for {@link NativeResources}
+     * @param action the cleanup action
+     * @return a {@link Cleanable} for running the action explicitly, for example on close
+     */
+    static Cleanable register(Object object, String type, Runnable action) {
+        Ref ref = new Ref(object, type, action);
+        REFS.add(ref);
+        return ref;
+    }
+
+    /**
+     * Keeps the object reachable at least until this call, so that it is not cleaned while a
+     * native call still uses its handle. A replacement for
+     * <code>java.lang.ref.Reference.reachabilityFence</code>, which is not available on Java 8.
+     *
+     * @param object the object owning the handle
+     */
+    static void keepAlive(Object object) {
+        synchronized (object) {
+            // the lock cannot be elided for an object which escaped, so the object is still
+            // needed here
+        }
+    }
+
+    /**
+     * Returns the registrations whose action has not run yet.
+     */
+    static List<NativeResources.Resource> live() {
+        return new ArrayList<NativeResources.Resource>(REFS);
+    }
+
+    private static class Ref extends PhantomReference<Object> implements Cleanable, NativeResources.Resource {
+
+        private final String type;
+        private final long created = System.currentTimeMillis();
+        private final Throwable allocation;
+        private final Runnable action;
+        private final AtomicBoolean cleaned = new AtomicBoolean();
+
+        Ref(Object referent, String type, Runnable action) {
+            super(referent, QUEUE);
+            this.type = type;
+            this.action = action;
+            this.allocation = NativeResources.allocated(type);
+        }
+
+        @Override
+        public void clean() {
+            clean(false);
+        }
+
+        void clean(boolean leaked) {
+            if (this.cleaned.compareAndSet(false, true)) {
+                REFS.remove(this);
+                clear();
+                try {
+                    this.action.run();
+                } finally {
+                    NativeResources.freed(this, leaked);
+                }
+            }
+        }
+
+        @Override
+        public String getType() {
+            return this.type;
+        }
+
+        @Override
+        public long getCreated() {
+            return this.created;
+        }
+
+        @Override
+        public StackTraceElement[] getAllocationStack() {
+            return this.allocation == null ? null : this.allocation.getStackTrace();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package io.storj;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monitoring of the native uplink-c handles owned by this library: access grants, projects,
+ * downloads, uploads and iterators, and of the checkouts of a {@link ProjectPool} and the worker
+ * pools of parallel listings.
+ *
+ * <p>Every handle is registered when created and unregistered when freed, either by
+ * <code>close()</code> of its owner or, if the owner became unreachable without being closed,
+ * by a background cleaner. Handles freed by the cleaner are counted as leaks and reported to the
+ * {@link LeakListener}. Allocation stacks are recorded for a sample of the handles, see
+ * {@link #setStackSampling(int)}.</p>
+ */
+public final class NativeResources {
+
+    /**
+     * System property with the initial stack sampling interval, see
+     * {@link #setStackSampling(int)}.
+     */
+    public static final String STACK_SAMPLING_PROPERTY = "storj.uplink.resources.stackSampling";
+
+    public static final String ACCESS = "access";
+    public static final String PROJECT = "project";
+    public static final String DOWNLOAD = "download";
+    public static final String UPLOAD = "upload";
+    public static final String OBJECT_ITERATOR = "object-iterator";
+    public static final String BUCKET_ITERATOR = "bucket-iterator";
+    public static final String POOLED_PROJECT = "pooled-project";
+    public static final String PARALLEL_LISTING = "parallel-listing";
+
+    private static final ConcurrentHashMap<String, AtomicInteger> LIVE = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, AtomicLong> LEAKED = new ConcurrentHashMap<>();
+    private static final AtomicLong ALLOCATIONS = new AtomicLong();
+
+    private static volatile int stackSampling = Integer.getInteger(STACK_SAMPLING_PROPERTY, 0);
+    private static volatile LeakListener leakListener;
+
+    private NativeResources() {
+    }
+
+    /**
+     * Records the allocation stack of every <code>interval</code>-th handle. <code>1</code>
+     * records all of them, <code>0</code> (the default) none. Capturing a stack costs a few
+     * microseconds per handle.
+     *
+     * @param interval the sampling interval
+     */
+    public static void setStackSampling(int interval) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("interval must not be negative: " + interval);
+        }
+        stackSampling = interval;
+    }
+
+    /**
+     * Sets the listener called on the cleaner thread for every leaked handle, or
+     * <code>null</code> to remove it.
+     *
+     * @param listener the listener
+     */
+    public static void setLeakListener(LeakListener listener) {
+        leakListener = listener;
+    }
+
+    /**
+     * Returns the number of live handles by type.
+     *
+     * @return the counts, sorted by type
+     */
+    public static Map<String, Integer> getLiveCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Map.Entry<String, AtomicInteger> entry : LIVE.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the number of handles freed by the cleaner, because their owner was not closed,
+     * by type.
+     *
+     * @return the counts, sorted by type
+     */
+    public static Map<String, Long> getLeakCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : LEAKED.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the live handles, for finding the code which does not close them.
+     *
+     * @return a snapshot of the live handles
+     */
+    public static List<Resource> getLiveResources() {
+        return Collections.unmodifiableList(new ArrayList<>(NativeCleaner.live()));
+    }
+
+    /**
+     * Called by {@link NativeCleaner} when a handle is registered.
+     *
+     * @return the allocation stack, if sampled
+     */
+    static Throwable allocated(String type) {
+        live(type).incrementAndGet();
+        int interval = stackSampling;
+        if (interval > 0 && ALLOCATIONS.incrementAndGet() % interval == 0) {
+            return new Throwable("allocation of " + type);
+        }
+        return null;
+    }
+
+    /**
+     * Called by {@link NativeCleaner} when a handle is freed.
+     */
+    static void freed(Resource resource, boolean leaked) {
+        live(resource.getType()).decrementAndGet();
+        if (!leaked) {
+            return;
+        }
+        AtomicLong leaks = LEAKED.get(resource.getType());
+        if (leaks == null) {
+            LEAKED.putIfAbsent(resource.getType(), new AtomicLong());
+            leaks = LEAKED.get(resource.getType());
+        }
+        leaks.incrementAndGet();
+        LeakListener listener = leakListener;
+        if (listener != null) {
+            listener.leaked(resource);
+        }
+    }
+
+    private static AtomicInteger live(String type) {
+        AtomicInteger live = LIVE.get(type);
+        if (live == null) {
+            LIVE.putIfAbsent(type, new AtomicInteger());
+            live = LIVE.get(type);
+        }
+        return live;
+    }
+
+    /**
+     * A registered native handle.
+     */
+    public interface Resource {
+
+        /**
+         * Returns the kind of handle, one of the constants of {@link NativeResources}.
+         *
+         * @return the type
+         */
+        String getType();
+
+        /**
+         * Returns the time the handle was registered.
+         *
+         * @return milliseconds since the epoch
+         */
+        long getCreated();
+
+        /**
+         * Returns where the handle was allocated, if it was sampled.
+         *
+         * @return the allocation stack, or <code>null</code>
+         */
+        StackTraceElement[] getAllocationStack();
+    }
+
+    /**
+     * Notified of handles whose owner became unreachable without being closed.
+     */
+    public interface LeakListener {
+
+        /**
+         * Called after the leaked handle has been freed.
+         *
+         * @param resource the leaked handle
+         */
+        void leaked(Resource resource);
+    }
+}
@@ -0,0 +1,440 @@
+package io.storj;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The result of a columnar object listing: key, content length, creation and expiration time of
+ * each listed object, stored in primitive arrays instead of {@link ObjectInfo} objects.
+ *
+ * <p>Keys are kept as UTF-8 bytes in a single arena and only decoded when requested. Objects are
+ * addressed by their index in listing order, either directly or through a {@link Cursor}:</p>
+ *
+ * <pre>
+ * {@code ObjectColumns columns = project.listObjectColumns("my-bucket", ObjectListOption.recursive());
+ * ObjectColumns.Cursor cursor = columns.cursor();
+ * while (cursor.next()) {
+ *     if (cursor.contentLength() > threshold) {
+ *         System.out.println(cursor.key());
+ *     }
+ * }
+ * }
+ * </pre>
+ *
+ * @see Project#listObjectColumns(String, ObjectListOption...)
+ */
+public class ObjectColumns {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The largest array the JVM reliably allocates.
+     */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private int size;
+    private byte[] keys = new byte[16 * INITIAL_CAPACITY];
+    private int[] keyOffsets = new int[INITIAL_CAPACITY + 1];
+    private long[] contentLengths = new long[INITIAL_CAPACITY];
+    private long[] created = new long[INITIAL_CAPACITY];
+    private long[] expires = new long[INITIAL_CAPACITY];
+
+    private ObjectColumns() {
+    }
+
+    /**
+     * Drains a native object listing into columns. Prefix entries of non-recursive listings
+     * carry no metadata and are skipped.
+     */
+    static ObjectColumns list(JNAUplink.Project.ByReference project, String bucket, ObjectListOption... options) {
+        ObjectListOption[] withSystem = Arrays.copyOf(options, options.length + 1);
+        withSystem[options.length] = ObjectListOption.system();
+
+        ObjectColumns columns = new ObjectColumns();
+        // with direct mapping the items are read field by field, without an Object structure
+        // and a String per key
+        DirectUplink direct = JNAUplink.INSTANCE instanceof DirectUplink ? (DirectUplink) JNAUplink.INSTANCE : null;
+        JNAUplink.ObjectIterator.ByReference cIterator = JNAUplink.INSTANCE.uplink_list_objects(project, bucket,
+                ObjectListOption.internal(withSystem));
+        try {
+            while (JNAUplink.INSTANCE.uplink_object_iterator_next(cIterator)) {
+                JNAUplink.Object.ByReference obj;
+                if (direct != null) {
+                    Pointer item = direct.objectIteratorItemAddress(cIterator);
+                    obj = Structure.newInstance(JNAUplink.Object.ByReference.class, item);
+                    // the fields are never read, so they must not be written back before freeing
+                    obj.setAutoSynch(false);
+                    try {
+                        columns.add(item);
+                    } finally {
+                        JNAUplink.INSTANCE.uplink_free_object(obj);
+                    }
+                    continue;
+                }
+                obj = JNAUplink.INSTANCE.uplink_object_iterator_item(cIterator);
+                try {
+                    if (obj.is_prefix != 1) {
+                        columns.add(obj.key.getBytes(StandardCharsets.UTF_8), obj.system.content_length,
+                                obj.system.created, obj.system.expires);
+                    }
+                } finally {
+                    obj.setAutoRead(false);
+                    JNAUplink.INSTANCE.uplink_free_object(obj);
+                }
+            }
+            JNAUplink.Error.ByReference error = JNAUplink.INSTANCE.uplink_object_iterator_err(cIterator);
+            ExceptionUtil.handleError(error);
+        } finally {
+            JNAUplink.INSTANCE.uplink_free_object_iterator(cIterator);
+        }
+        return columns;
+    }
+
+    /**
+     * Adds a native object, copying its key straight from native memory into the arena.
+     */
+    private void add(Pointer item) {
+        if (item.getByte(Layout.IS_PREFIX) == 1) {
+            return;
+        }
+        Pointer key = item.getPointer(Layout.KEY);
+        long keyLength = key.indexOf(0, (byte) 0);
+        int offset = reserveKey(keyLength);
+        key.read(0, this.keys, offset, (int) keyLength);
+        append(offset + (int) keyLength, item.getLong(Layout.CONTENT_LENGTH), item.getLong(Layout.CREATED),
+                item.getLong(Layout.EXPIRES));
+    }
+
+    private void add(byte[] key, long contentLength, long createdSeconds, long expiresSeconds) {
+        int offset = reserveKey(key.length);
+        System.arraycopy(key, 0, this.keys, offset, key.length);
+        append(offset + key.length, contentLength, createdSeconds, expiresSeconds);
+    }
+
+    /**
+     * Makes room for the key of the next object and returns its offset in the arena.
+     */
+    private int reserveKey(long keyLength) {
+        int offset = this.keyOffsets[this.size];
+        long end = offset + keyLength;
+        if (end > this.keys.length) {
+            if (end > MAX_ARRAY_SIZE) {
+                throw new StorjException("listing exceeds " + MAX_ARRAY_SIZE + " bytes of keys after " + this.size
+                        + " objects, list it by prefix instead");
+            }
+            this.keys = Arrays.copyOf(this.keys, (int) Math.min(MAX_ARRAY_SIZE, Math.max(2L * this.keys.length, end)));
+        }
+        return offset;
+    }
+
+    private void append(int keyEnd, long contentLength, long createdSeconds, long expiresSeconds) {
+        if (this.size == this.contentLengths.length) {
+            if (this.size == MAX_ARRAY_SIZE - 1) {
+                throw new StorjException("listing exceeds " + this.size + " objects, list it by prefix instead");
+            }
+            int capacity = (int) Math.min(MAX_ARRAY_SIZE - 1, 2L * this.size);
+            this.keyOffsets = Arrays.copyOf(this.keyOffsets, capacity + 1);
+            this.contentLengths = Arrays.copyOf(this.contentLengths, capacity);
+            this.created = Arrays.copyOf(this.created, capacity);
+            this.expires = Arrays.copyOf(this.expires, capacity);
+        }
+
+        this.keyOffsets[this.size + 1] = keyEnd;
+        this.contentLengths[this.size] = contentLength;
+        this.created[this.size] = createdSeconds;
+        this.expires[this.size] = expiresSeconds;
+        this.size++;
+    }
+
+    /**
+     * Offsets of the fields of a native <code>UplinkObject</code>, taken from the JNA layout of
+     * the structures.
+     */
+    private static final class Layout {
+        static final long KEY;
+        static final long IS_PREFIX;
+        static final long CREATED;
+        static final long EXPIRES;
+        static final long CONTENT_LENGTH;
+
+        static {
+            ObjectOffsets object = new ObjectOffsets();
+            SystemOffsets system = new SystemOffsets();
+            KEY = object.key;
+            IS_PREFIX = object.isPrefix;
+            CREATED = object.system + system.created;
+            EXPIRES = object.system + system.expires;
+            CONTENT_LENGTH = object.system + system.contentLength;
+        }
+
+        private Layout() {
+        }
+
+        private static final class ObjectOffsets extends JNAUplink.Object {
+            final int key = fieldOffset("key");
+            final int isPrefix = fieldOffset("is_prefix");
+            final int system = fieldOffset("system");
+        }
+
+        private static final class SystemOffsets extends JNAUplink.SystemMetadata {
+            final int created = fieldOffset("created");
+            final int expires = fieldOffset("expires");
+            final int contentLength = fieldOffset("content_length");
+        }
+    }
+
+    /**
+     * Returns the number of listed objects.
+     *
+     * @return the number of objects
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the key of an object.
+     *
+     * @param index the object index, from 0 to {@link #size()} - 1
+     * @return the object key
+     */
+    public String key(int index) {
+        checkIndex(index);
+        return new String(keys, keyOffsets[index], keyOffsets[index + 1] - keyOffsets[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the content length of an object.
+     *
+     * @param index the object index, from 0 to {@link #size()} - 1
+     * @return the content length in bytes
+     */
+    public long contentLength(int index) {
+        checkIndex(index);
+        return contentLengths[index];
+    }
+
+    /**
+     * Returns the creation time of an object.
+     *
+     * @param index the object index, from 0 to {@link #size()} - 1
+     * @return the creation time in milliseconds since the epoch
+     */
+    public long created(int index) {
+        checkIndex(index);
+        return created[index] * 1000;
+    }
+
+    /**
+     * Returns the expiration time of an object.
+     *
+     * @param index the object index, from 0 to {@link #size()} - 1
+     * @return the expiration time in milliseconds since the epoch, or 0 if the object does not
+     * expire
+     */
+    public long expires(int index) {
+        checkIndex(index);
+        return expires[index] * 1000;
+    }
+
+    /**
+     * Returns if the key of an object starts with the given prefix, without decoding the key.
+     *
+     * @param index  the object index, from 0 to {@link #size()} - 1
+     * @param prefix the key prefix
+     * @return <code>true</code> if the key starts with the prefix
+     */
+    public boolean keyStartsWith(int index, String prefix) {
+        checkIndex(index);
+        return startsWith(index, prefix.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private boolean startsWith(int index, byte[] prefix) {
+        int offset = keyOffsets[index];
+        if (keyOffsets[index + 1] - offset < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (keys[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a cursor positioned before the first object.
+     *
+     * @return a new {@link Cursor}
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Returns the sum of the content lengths of all objects.
+     *
+     * @return the total size in bytes
+     */
+    public long totalSize() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += contentLengths[i];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the sum of the content lengths of the objects whose key starts with the prefix.
+     *
+     * @param prefix the key prefix
+     * @return the total size in bytes
+     */
+    public long totalSize(String prefix) {
+        byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            if (startsWith(i, prefixBytes)) {
+                total += contentLengths[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the sum of the content lengths grouped by the key up to and including the first
+     * <code>/</code>. Objects without <code>/</code> in their key are grouped under the empty
+     * string.
+     *
+     * @return the total size in bytes per top-level prefix, sorted by prefix
+     */
+    public Map<String, Long> totalSizeByPrefix() {
+        Map<String, Long> totals = new TreeMap<>();
+        int groupStart = -1;
+        int groupLength = 0;
+        String group = null;
+        long groupTotal = 0;
+        for (int i = 0; i < size; i++) {
+            int offset = keyOffsets[i];
+            int length = prefixLength(offset, keyOffsets[i + 1]);
+            // listings return neighbouring keys together, so only decode on a prefix change
+            if (group == null || length != groupLength
+                    || !regionEquals(offset, groupStart, length)) {
+                if (group != null) {
+                    merge(totals, group, groupTotal);
+                }
+                group = new String(keys, offset, length, StandardCharsets.UTF_8);
+                groupStart = offset;
+                groupLength = length;
+                groupTotal = 0;
+            }
+            groupTotal += contentLengths[i];
+        }
+        if (group != null) {
+            merge(totals, group, groupTotal);
+        }
+        return totals;
+    }
+
+    private int prefixLength(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (keys[i] == '/') {
+                return i - start + 1;
+            }
+        }
+        return 0;
+    }
+
+    private boolean regionEquals(int offset, int otherOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (keys[offset + i] != keys[otherOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void merge(Map<String, Long> totals, String group, long total) {
+        Long previous = totals.get(group);
+        totals.put(group, previous == null ? total : previous + total);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+    }
+
+    /**
+     * Moves over the listed objects in listing order.
+     */
+    public class Cursor {
+
+        private int index = -1;
+
+        /**
+         * Moves to the next object.
+         *
+         * @return <code>false</code> if there are no more objects
+         */
+        public boolean next() {
+            if (index + 1 >= size) {
+                index = size;
+                return false;
+            }
+            index++;
+            return true;
+        }
+
+        /**
+         * Returns the index of the current object.
+         *
+         * @return the object index
+         */
+        public int index() {
+            return index;
+        }
+
+        /**
+         * Returns the key of the current object.
+         *
+         * @return the object key
+         */
+        public String key() {
+            return ObjectColumns.this.key(index);
+        }
+
+        /**
+         * Returns the content length of the current object.
+         *
+         * @return the content length in bytes
+         */
+        public long contentLength() {
+            return ObjectColumns.this.contentLength(index);
+        }
+
+        /**
+         * Returns the creation time of the current object.
+         *
+         * @return the creation time in milliseconds since the epoch
+         */
+        public long created() {
+            return ObjectColumns.this.created(index);
+        }
+
+        /**
+         * Returns the expiration time of the current object.
+         *
+         * @return the expiration time in milliseconds since the epoch, or 0 if the object does
+         * not expire
+         */
+        public long expires() {
+            return ObjectColumns.this.expires(index);
+        }
+    }
+}
@@ -10,6 +10,7 @@ public class ObjectDownloadOption {
     private enum Key {
         OFFSET,
         LENGTH,
+        READ_AHEAD,
     }
 
     private Key key;
@@ -41,13 +42,37 @@ public class ObjectDownloadOption {
         return new ObjectDownloadOption(Key.LENGTH, length);
     }
 
-    static JNAUplink.DownloadOptions internal(ObjectDownloadOption... options) {
-        if (options.length == 0) {
-            return null;
+    /**
+     * Option for reading ahead in a background thread. While the caller processes the data
+     * already read, a background thread keeps filling up to <code>bufferCount</code> buffers of
+     * <code>bufferSize</code> bytes each, so the network transfer overlaps with processing.
+     * Small reads, including {@link ObjectInputStream#read()}, are then served from memory.
+     *
+     * @param bufferCount the number of buffers to read ahead
+     * @param bufferSize  the size of a single buffer in bytes
+     * @return a {@link ObjectDownloadOption}
+     */
+    public static ObjectDownloadOption readAhead(int bufferCount, int bufferSize) {
+        if (bufferCount < 1 || bufferSize < 1) {
+            throw new IllegalArgumentException("invalid read ahead: " + bufferCount + " x " + bufferSize);
         }
+        ReadAhead readAhead = new ReadAhead();
+        readAhead.bufferCount = bufferCount;
+        readAhead.bufferSize = bufferSize;
+        return new ObjectDownloadOption(Key.READ_AHEAD, readAhead);
+    }
 
-        JNAUplink.DownloadOptions downloadOptions = new JNAUplink.DownloadOptions();
+    static JNAUplink.DownloadOptions internal(ObjectDownloadOption... options) {
+        JNAUplink.DownloadOptions downloadOptions = null;
         for (ObjectDownloadOption option : options) {
+            if (option.key != Key.OFFSET && option.key != Key.LENGTH) {
+                continue;
+            }
+            if (downloadOptions == null) {
+                downloadOptions = new JNAUplink.DownloadOptions();
+                // read until the end of the object unless the length is set
+                downloadOptions.length = -1;
+            }
             if (option.key == Key.OFFSET) {
                 downloadOptions.offset = (long) option.value;
             } else if (option.key == Key.LENGTH) {
@@ -57,4 +82,42 @@ public class ObjectDownloadOption {
 
         return downloadOptions;
     }
+
+    static long offsetSetting(ObjectDownloadOption... options) {
+        long offset = 0;
+        for (ObjectDownloadOption option : options) {
+            if (option.key == Key.OFFSET) {
+                offset = (long) option.value;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Returns the requested length, or -1 to read until the end of the object.
+     */
+    static long lengthSetting(ObjectDownloadOption... options) {
+        long length = -1;
+        for (ObjectDownloadOption option : options) {
+            if (option.key == Key.LENGTH) {
+                length = (long) option.value;
+            }
+        }
+        return length;
+    }
+
+    static ReadAhead readAheadSettings(ObjectDownloadOption... options) {
+        ReadAhead readAhead = null;
+        for (ObjectDownloadOption option : options) {
+            if (option.key == Key.READ_AHEAD) {
+                readAhead = (ReadAhead) option.value;
+            }
+        }
+        return readAhead;
+    }
+
+    static class ReadAhead {
+        int bufferCount;
+        int bufferSize;
+    }
 }
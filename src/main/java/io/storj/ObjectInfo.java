@@ -1,9 +1,13 @@
 package io.storj;
 
-import com.sun.jna.Structure;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
 
+import java.io.IOException;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -13,28 +17,78 @@ import java.util.Objects;
  */
 public class ObjectInfo implements Serializable, Comparable<ObjectInfo> {
 
+    // computed from the class before the custom metadata became lazy, to keep the serialized form
+    private static final long serialVersionUID = -5168787202798611322L;
+
+    // the serialized form still holds the decoded custom metadata map
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("key", String.class),
+            new ObjectStreamField("isPrefix", boolean.class),
+            new ObjectStreamField("system", SystemMetadata.class),
+            new ObjectStreamField("custom", Map.class),
+    };
+
+    /**
+     * Layout of a native <code>UplinkCustomMetadataEntry</code>: a pointer and a length for the
+     * key, followed by the same for the value, each pair padded to the pointer alignment.
+     */
+    private static final int VALUE_OFFSET = align(Native.POINTER_SIZE + Native.LONG_SIZE,
+            Math.max(Native.POINTER_SIZE, Native.LONG_SIZE));
+    private static final int ENTRY_SIZE = 2 * VALUE_OFFSET;
+
     private String key;
     private boolean isPrefix;
     private SystemMetadata system;
-    private Map<String, String> custom = new HashMap<>();
+
+    /**
+     * The UTF-8 bytes of all custom metadata keys and values, alternating, with entry
+     * <code>i</code> spanning <code>customBounds[i]</code> to <code>customBounds[i + 1]</code>.
+     * Decoded into {@link #custom} on first access.
+     */
+    private transient byte[] customBytes;
+    private transient int[] customBounds;
+    private transient volatile Map<String, String> custom;
 
     ObjectInfo(JNAUplink.Object object) {
         this.key = object.key;
         this.isPrefix = object.is_prefix == 1;
         this.system = new SystemMetadata(object.system);
 
-        if (object.custom.count.longValue() > 0) {
-            Structure[] entries = object.custom.entries.toArray(object.custom.count.intValue());
-            for (int i = 0; i < entries.length; i++) {
-                JNAUplink.CustomMetadataEntry entry = (JNAUplink.CustomMetadataEntry) entries[i];
-                byte[] keyBytes = entry.key.getByteArray(0, entry.key_length.intValue());
-                byte[] valueBytes = entry.value.getByteArray(0, entry.value_length.intValue());
+        int count = object.custom.count.intValue();
+        if (count > 0) {
+            // read the entry array directly instead of through Structure.toArray, which
+            // allocates and reflectively reads a Structure per entry
+            Pointer entries = object.custom.entries.getPointer();
+            Pointer[] pointers = new Pointer[2 * count];
+            int[] bounds = new int[2 * count + 1];
+            for (int i = 0; i < count; i++) {
+                long offset = (long) i * ENTRY_SIZE;
+                pointers[2 * i] = entries.getPointer(offset);
+                bounds[2 * i + 1] = bounds[2 * i]
+                        + entries.getNativeLong(offset + Native.POINTER_SIZE).intValue();
+                pointers[2 * i + 1] = entries.getPointer(offset + VALUE_OFFSET);
+                bounds[2 * i + 2] = bounds[2 * i + 1]
+                        + entries.getNativeLong(offset + VALUE_OFFSET + Native.POINTER_SIZE).intValue();
+            }
 
-                custom.put(new String(keyBytes, StandardCharsets.UTF_8), new String(valueBytes, StandardCharsets.UTF_8));
+            byte[] bytes = new byte[bounds[2 * count]];
+            for (int i = 0; i < pointers.length; i++) {
+                int length = bounds[i + 1] - bounds[i];
+                if (length > 0) {
+                    pointers[i].read(0, bytes, bounds[i], length);
+                }
             }
+            this.customBytes = bytes;
+            this.customBounds = bounds;
+        } else {
+            this.custom = new HashMap<>();
         }
     }
 
+    private static int align(int size, int alignment) {
+        return (size + alignment - 1) / alignment * alignment;
+    }
+
     /**
      * Returns the key to the object relative to the bucket.
      *
@@ -71,9 +125,38 @@ public class ObjectInfo implements Serializable, Comparable<ObjectInfo> {
      * @return the custom metadata as a map
      */
     public Map<String, String> getCustomMetadata() {
+        Map<String, String> custom = this.custom;
+        if (custom == null) {
+            synchronized (this) {
+                custom = this.custom;
+                if (custom == null) {
+                    custom = new HashMap<>();
+                    for (int i = 0; i + 1 < customBounds.length; i += 2) {
+                        custom.put(decode(i), decode(i + 1));
+                    }
+                    this.custom = custom;
+                }
+            }
+        }
         return custom;
     }
 
+    private String decode(int index) {
+        return new String(customBytes, customBounds[index], customBounds[index + 1] - customBounds[index],
+                StandardCharsets.UTF_8);
+    }
+
+    private boolean customEquals(ObjectInfo that) {
+        if (this.custom == null && that.custom == null) {
+            // both still raw, identical bytes in the same order are equal without decoding
+            if (Arrays.equals(this.customBounds, that.customBounds)
+                    && Arrays.equals(this.customBytes, that.customBytes)) {
+                return true;
+            }
+        }
+        return getCustomMetadata().equals(that.getCustomMetadata());
+    }
+
     /**
      * Two {@link ObjectInfo} objects are equal if their names are equal.
      *
@@ -88,7 +171,7 @@ public class ObjectInfo implements Serializable, Comparable<ObjectInfo> {
         return Objects.equals(key, that.key)
                 && isPrefix == that.isPrefix
                 && Objects.equals(system, that.system)
-                && Objects.equals(custom, that.custom);
+                && customEquals(that);
     }
 
     /**
@@ -132,13 +215,31 @@ public class ObjectInfo implements Serializable, Comparable<ObjectInfo> {
         return 0;
     }
 
+    private void writeObject(java.io.ObjectOutputStream out) throws IOException {
+        java.io.ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("key", key);
+        fields.put("isPrefix", isPrefix);
+        fields.put("system", system);
+        fields.put("custom", getCustomMetadata());
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
+        java.io.ObjectInputStream.GetField fields = in.readFields();
+        this.key = (String) fields.get("key", null);
+        this.isPrefix = fields.get("isPrefix", false);
+        this.system = (SystemMetadata) fields.get("system", null);
+        this.custom = (Map<String, String>) fields.get("custom", null);
+    }
+
     @Override
     public String toString() {
         return "ObjectInfo{" +
                 "key='" + key + '\'' +
                 ", isPrefix=" + isPrefix +
                 ", system=" + system +
-                ", custom=" + custom +
+                ", custom=" + getCustomMetadata() +
                 '}';
     }
 }
@@ -1,22 +1,59 @@
 package io.storj;
 
+import com.sun.jna.Memory;
 import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * An {@link InputStream} for reading data from an object stored on the Storj network.
+ *
+ * @see ObjectDownloadOption#readAhead(int, int)
  */
 public class ObjectInputStream extends InputStream {
 
+    /**
+     * Upper bound for the native read buffer. Larger reads are served partially, which is
+     * allowed by the {@link InputStream#read(byte[], int, int)} contract.
+     */
+    static final int MAX_READ_BUFFER_SIZE = 256 * 1024;
+
     private JNAUplink.Download.ByReference cDownload;
+    private final Reader reader;
+    private final Releaser releaser;
+    private final NativeCleaner.Cleanable cleanable;
 
-    private boolean isEOF;
     private byte[] buf = new byte[1];
 
-    ObjectInputStream(JNAUplink.Download.ByReference cDownload) {
+    /**
+     * Native buffer reused across reads, grown on demand up to {@link #MAX_READ_BUFFER_SIZE}.
+     */
+    private Memory readBuffer;
+
+    /**
+     * Background reader, only set in read-ahead mode.
+     */
+    private Prefetcher prefetcher;
+
+    ObjectInputStream(Project project, JNAUplink.Download.ByReference cDownload) {
+        this(project, cDownload, null);
+    }
+
+    ObjectInputStream(Project project, JNAUplink.Download.ByReference cDownload, ObjectDownloadOption.ReadAhead readAhead) {
         this.cDownload = cDownload;
+        this.reader = new Reader(cDownload);
+        if (readAhead != null) {
+            this.prefetcher = new Prefetcher(this.reader, readAhead.bufferCount, readAhead.bufferSize);
+        }
+        this.releaser = new Releaser(project, cDownload, this.prefetcher);
+        this.cleanable = NativeCleaner.register(this, NativeResources.DOWNLOAD, this.releaser);
+        if (this.prefetcher != null) {
+            this.prefetcher.start();
+        }
     }
 
     /**
@@ -35,18 +72,16 @@ public class ObjectInputStream extends InputStream {
      */
     @Override
     public int read() throws IOException {
-        try {
-            int n = this.read(buf, 0, 1);
-            if (n == -1) {
-                return n;
-            }
-            if (n == 1) {
-                return buf[0] & 0xff;
-            }
-            throw new IOException("invalid state");
-        } catch (Exception e) {
-            throw new IOException(e);
+        ensureOpen();
+        if (this.prefetcher != null) {
+            return this.prefetcher.read();
         }
+
+        int n;
+        do {
+            n = this.read(buf, 0, 1);
+        } while (n == 0);
+        return n == -1 ? -1 : buf[0] & 0xff;
     }
 
     /**
@@ -108,10 +143,6 @@ public class ObjectInputStream extends InputStream {
      */
     @Override
     public int read(byte[] b, int off, int len) throws IOException {
-        if (this.isEOF) {
-            return -1;
-        }
-
         if (b == null) {
             throw new NullPointerException();
         } else if (off < 0 || len < 0 || len > b.length - off) {
@@ -120,24 +151,52 @@ public class ObjectInputStream extends InputStream {
             return 0;
         }
 
-        byte[] byteArray = new byte[len];
-        JNAUplink.ReadResult.ByValue readResult = JNAUplink.INSTANCE.uplink_download_read(this.cDownload, byteArray, new NativeLong(len));
+        ensureOpen();
+        if (this.prefetcher != null) {
+            return this.prefetcher.read(b, off, len);
+        }
+        if (this.reader.isEOF) {
+            return -1;
+        }
 
-        if (readResult.error != null && readResult.error.code == JNAUplink.EOF) {
-            this.isEOF = true;
-        } else {
-            try {
-                ExceptionUtil.handleError(readResult.error);
-            } catch (StorjException e) {
-                throw new IOException(e);
+        int size = Math.min(len, MAX_READ_BUFFER_SIZE);
+        if (this.readBuffer == null || this.readBuffer.size() < size) {
+            if (this.readBuffer != null) {
+                this.readBuffer.close();
             }
+            this.readBuffer = new Memory(size);
         }
 
-        int read = readResult.bytes_read.intValue();
-        System.arraycopy(byteArray, 0, b, off, read);
+        int read = read(this.readBuffer, size);
+        if (read > 0) {
+            this.readBuffer.read(0, b, off, read);
+        }
         return read;
     }
 
+    /**
+     * Reads up to <code>len</code> bytes directly into native memory.
+     *
+     * @param buffer the native memory to read into
+     * @param len    the maximum number of bytes to read
+     * @return the number of bytes read, or <code>-1</code> at the end of the stream
+     * @throws IOException if an I/O error occurs
+     */
+    int read(Pointer buffer, int len) throws IOException {
+        ensureOpen();
+        return this.reader.read(buffer, len);
+    }
+
+    /**
+     * Fails reads after close, the download is freed and a stopped {@link Prefetcher} never
+     * fills another chunk.
+     */
+    private void ensureOpen() throws IOException {
+        if (this.releaser.isClosed()) {
+            throw new IOException("stream closed");
+        }
+    }
+
     /**
      * Returns the last information about the object.
      *
@@ -163,15 +222,259 @@ public class ObjectInputStream extends InputStream {
      */
     @Override
     public void close() throws IOException {
+        if (!this.releaser.markClosed()) {
+            return;
+        }
+        if (this.prefetcher != null) {
+            this.prefetcher.stop();
+        }
         JNAUplink.Error.ByReference error = JNAUplink.INSTANCE.uplink_close_download(this.cDownload);
         try {
             ExceptionUtil.handleError(error);
         } catch (StorjException e) {
             throw new IOException(e);
         } finally {
+            this.cleanable.clean();
+            if (this.readBuffer != null) {
+                this.readBuffer.close();
+                this.readBuffer = null;
+            }
+        }
+    }
+
+    /**
+     * Reads the native download and tracks its end. Shared by the stream and its
+     * {@link Prefetcher}, without referencing the stream, so that an abandoned stream can be
+     * cleaned while the background thread is still running.
+     */
+    private static class Reader {
+
+        private final JNAUplink.Download.ByReference cDownload;
+        private boolean isEOF;
+
+        Reader(JNAUplink.Download.ByReference cDownload) {
+            this.cDownload = cDownload;
+        }
+
+        int read(Pointer buffer, int len) throws IOException {
+            if (this.isEOF) {
+                return -1;
+            } else if (len == 0) {
+                return 0;
+            }
+
+            JNAUplink.ReadResult.ByValue readResult = JNAUplink.INSTANCE.uplink_download_read(this.cDownload, buffer, new NativeLong(len));
+            try {
+                if (readResult.error != null && readResult.error.code == JNAUplink.EOF) {
+                    this.isEOF = true;
+                } else {
+                    ExceptionUtil.handleError(readResult.error);
+                }
+
+                int read = readResult.bytes_read.intValue();
+                if (read == 0 && this.isEOF) {
+                    return -1;
+                }
+                return read;
+            } catch (StorjException e) {
+                throw new IOException(e);
+            } finally {
+                JNAUplink.INSTANCE.uplink_free_read_result(readResult);
+            }
+        }
+    }
+
+    /**
+     * Closes and frees the native download, also for a stream which was not closed. The
+     * background reader of a leaked stream is stopped first, it may still be using the download.
+     */
+    private static class Releaser extends NativeCleaner.Releaser {
+
+        /**
+         * Keeps the native project open until the download is freed, also when the {@link Project}
+         * itself is no longer referenced.
+         */
+        private final Project project;
+        private final JNAUplink.Download.ByReference cDownload;
+        private final Prefetcher prefetcher;
+
+        Releaser(Project project, JNAUplink.Download.ByReference cDownload, Prefetcher prefetcher) {
+            this.project = project;
+            this.cDownload = cDownload;
+            this.prefetcher = prefetcher;
+        }
+
+        @Override
+        void close() {
+            if (this.prefetcher != null) {
+                try {
+                    this.prefetcher.stop();
+                } catch (IOException e) {
+                    // interrupted while waiting, the download is closed anyway
+                }
+            }
+            JNAUplink.INSTANCE.uplink_close_download(this.cDownload);
+        }
+
+        @Override
+        void free() {
             JNAUplink.DownloadResult.ByValue result = new JNAUplink.DownloadResult.ByValue();
             result.download = this.cDownload;
             JNAUplink.INSTANCE.uplink_free_download_result(result);
         }
     }
+
+    /**
+     * A chunk of data read ahead by the {@link Prefetcher}. A chunk with <code>length</code> of
+     * <code>-1</code> marks the end of the stream, a chunk with an <code>error</code> marks a
+     * failed read.
+     */
+    private static class Chunk {
+        final byte[] data;
+        int length;
+        IOException error;
+
+        Chunk(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    /**
+     * Reads the download in a background thread into a bounded ring of buffers. Buffers cycle
+     * between the <code>free</code> and <code>filled</code> queues, so no buffer is allocated
+     * after the first <code>bufferCount</code> reads.
+     */
+    private static class Prefetcher implements Runnable {
+
+        private final Reader reader;
+        private final BlockingQueue<Chunk> free;
+        private final BlockingQueue<Chunk> filled;
+        private final Thread thread;
+
+        private Chunk current;
+        private int position;
+        private boolean done;
+        private IOException failure;
+        private volatile boolean stopped;
+
+        Prefetcher(Reader reader, int bufferCount, int bufferSize) {
+            this.reader = reader;
+            this.free = new ArrayBlockingQueue<>(bufferCount);
+            for (int i = 0; i < bufferCount; i++) {
+                this.free.add(new Chunk(new byte[bufferSize]));
+            }
+            // one extra slot for the end or error marker
+            this.filled = new ArrayBlockingQueue<>(bufferCount + 1);
+            this.thread = new NamedThreadFactory("read-ahead").newThread(this);
+        }
+
+        void start() {
+            this.thread.start();
+        }
+
+        @Override
+        public void run() {
+            Memory buffer = null;
+            try {
+                while (!this.stopped) {
+                    Chunk chunk = this.free.take();
+                    if (buffer == null) {
+                        buffer = new Memory(chunk.data.length);
+                    }
+                    chunk.error = null;
+                    try {
+                        chunk.length = this.reader.read(buffer, chunk.data.length);
+                    } catch (IOException e) {
+                        chunk.error = e;
+                    }
+                    if (chunk.length > 0) {
+                        buffer.read(0, chunk.data, 0, chunk.length);
+                    }
+                    this.filled.put(chunk);
+                    if (chunk.length == -1 || chunk.error != null) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // stopped by close() or by the cleaner
+            } finally {
+                if (buffer != null) {
+                    buffer.close();
+                }
+            }
+        }
+
+        private boolean next() throws IOException {
+            if (this.current != null) {
+                this.free.offer(this.current);
+                this.current = null;
+            }
+            if (this.failure != null) {
+                throw this.failure;
+            }
+            if (this.done) {
+                return false;
+            }
+
+            Chunk chunk;
+            try {
+                chunk = this.filled.take();
+                while (chunk.length == 0 && chunk.error == null) {
+                    // an empty read still returns its buffer to the ring
+                    this.free.offer(chunk);
+                    chunk = this.filled.take();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            if (chunk.error != null) {
+                this.failure = chunk.error;
+                throw chunk.error;
+            }
+            if (chunk.length == -1) {
+                this.done = true;
+                return false;
+            }
+
+            this.current = chunk;
+            this.position = 0;
+            return true;
+        }
+
+        int read() throws IOException {
+            if (this.current == null || this.position == this.current.length) {
+                if (!next()) {
+                    return -1;
+                }
+            }
+            return this.current.data[this.position++] & 0xff;
+        }
+
+        int read(byte[] b, int off, int len) throws IOException {
+            if (this.current == null || this.position == this.current.length) {
+                if (!next()) {
+                    return -1;
+                }
+            }
+            int n = Math.min(len, this.current.length - this.position);
+            System.arraycopy(this.current.data, this.position, b, off, n);
+            this.position += n;
+            return n;
+        }
+
+        /**
+         * Stops the background thread and waits until it no longer uses the download.
+         */
+        void stop() throws IOException {
+            this.stopped = true;
+            this.thread.interrupt();
+            try {
+                this.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
 }
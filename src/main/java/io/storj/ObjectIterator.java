@@ -1,20 +1,42 @@
 package io.storj;
 
 import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 public class ObjectIterator implements AutoCloseable, Iterator<ObjectInfo>, Iterable<ObjectInfo> {
 
     private JNAUplink.ObjectIterator.ByReference cIterator;
+    private final Releaser releaser;
+    private final NativeCleaner.Cleanable cleanable;
 
     private ObjectInfo currentItem;
     private Boolean hasNext = null;
 
-    ObjectIterator(JNAUplink.Project.ByReference project, String bucket, ObjectListOption... options) {
-        this.cIterator = JNAUplink.INSTANCE.uplink_list_objects(project, bucket, ObjectListOption.internal(options));
+    private Prefetcher prefetcher;
+
+    ObjectIterator(Project project, String bucket, ObjectListOption... options) {
+        this.cIterator = JNAUplink.INSTANCE.uplink_list_objects(project.internal(), bucket, ObjectListOption.internal(options));
+        int prefetchSize = ObjectListOption.prefetchSize(options);
+        if (prefetchSize > 0) {
+            this.prefetcher = new Prefetcher(this.cIterator, prefetchSize);
+        }
+        this.releaser = new Releaser(project, this.cIterator, this.prefetcher);
+        this.cleanable = NativeCleaner.register(this, NativeResources.OBJECT_ITERATOR, this.releaser);
+        if (this.prefetcher != null) {
+            this.prefetcher.start();
+        }
     }
 
     @Override
     public boolean hasNext() {
+        if (this.releaser.isClosed()) {
+            // the native iterator is freed, and a stopped prefetcher queues nothing more
+            return false;
+        }
+        if (this.prefetcher != null) {
+            return this.prefetcher.hasNext();
+        }
         if (this.hasNext == null) {
             this.hasNext = JNAUplink.INSTANCE.uplink_object_iterator_next(this.cIterator);
             if (this.hasNext) {
@@ -36,6 +58,12 @@ public class ObjectIterator implements AutoCloseable, Iterator<ObjectInfo>, Iter
 
     @Override
     public ObjectInfo next() {
+        if (this.releaser.isClosed()) {
+            return null;
+        }
+        if (this.prefetcher != null) {
+            return this.prefetcher.next();
+        }
         if (currentItem != null) {
             this.hasNext = JNAUplink.INSTANCE.uplink_object_iterator_next(this.cIterator);
             ObjectInfo result = this.currentItem;
@@ -79,6 +107,155 @@ public class ObjectIterator implements AutoCloseable, Iterator<ObjectInfo>, Iter
 
     @Override
     public void close() throws StorjException {
-        JNAUplink.INSTANCE.uplink_free_object_iterator(this.cIterator);
+        if (!this.releaser.markClosed()) {
+            return;
+        }
+        if (this.prefetcher != null) {
+            // the background thread must be done with the native iterator before it is freed
+            this.prefetcher.stop();
+        }
+        this.cleanable.clean();
+    }
+
+    /**
+     * Frees the native iterator, also for an iterator which was not closed. The prefetch thread
+     * of a leaked iterator is stopped first, it may still be using the iterator.
+     */
+    private static class Releaser extends NativeCleaner.Releaser {
+
+        /**
+         * Keeps the native project open until the iterator is freed, also when the {@link Project}
+         * itself is no longer referenced.
+         */
+        private final Project project;
+        private final JNAUplink.ObjectIterator.ByReference cIterator;
+        private final Prefetcher prefetcher;
+
+        Releaser(Project project, JNAUplink.ObjectIterator.ByReference cIterator, Prefetcher prefetcher) {
+            this.project = project;
+            this.cIterator = cIterator;
+            this.prefetcher = prefetcher;
+        }
+
+        @Override
+        void close() {
+            // iterators have nothing to close, only the prefetch thread to stop
+            if (this.prefetcher != null) {
+                this.prefetcher.stop();
+            }
+        }
+
+        @Override
+        void free() {
+            JNAUplink.INSTANCE.uplink_free_object_iterator(this.cIterator);
+        }
+    }
+
+    /**
+     * An element of the prefetch queue: either a listed object, or the end of the listing with
+     * the listing error, if any.
+     */
+    private static class Item {
+        final ObjectInfo info;
+        final Throwable error;
+
+        Item(ObjectInfo info, Throwable error) {
+            this.info = info;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Drains the native iterator on a background thread into a bounded queue. It does not
+     * reference the {@link ObjectIterator}, so an abandoned iterator can still be cleaned.
+     */
+    private static class Prefetcher implements Runnable {
+
+        private final JNAUplink.ObjectIterator.ByReference cIterator;
+        private final BlockingQueue<Item> queue;
+        private final Thread thread;
+
+        private Item head;
+        private volatile boolean stopped;
+
+        Prefetcher(JNAUplink.ObjectIterator.ByReference cIterator, int queueSize) {
+            this.cIterator = cIterator;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+            this.thread = new NamedThreadFactory("list-prefetch").newThread(this);
+        }
+
+        void start() {
+            this.thread.start();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!this.stopped) {
+                    if (!JNAUplink.INSTANCE.uplink_object_iterator_next(this.cIterator)) {
+                        JNAUplink.Error.ByReference error = JNAUplink.INSTANCE.uplink_object_iterator_err(this.cIterator);
+                        try {
+                            ExceptionUtil.handleError(error);
+                            this.queue.put(new Item(null, null));
+                        } catch (StorjException e) {
+                            this.queue.put(new Item(null, e));
+                        }
+                        return;
+                    }
+                    JNAUplink.Object.ByReference obj = JNAUplink.INSTANCE.uplink_object_iterator_item(this.cIterator);
+                    ObjectInfo info;
+                    try {
+                        info = new ObjectInfo(obj);
+                    } finally {
+                        obj.setAutoRead(false);
+                        JNAUplink.INSTANCE.uplink_free_object(obj);
+                    }
+                    this.queue.put(new Item(info, null));
+                }
+            } catch (InterruptedException e) {
+                // stopped by close() or by the cleaner
+            } catch (Throwable e) {
+                // end the listing with the failure, so the consumer does not wait forever
+                try {
+                    this.queue.put(new Item(null, e));
+                } catch (InterruptedException ignored) {
+                    // stopped by close() or by the cleaner
+                }
+            }
+        }
+
+        boolean hasNext() {
+            if (this.head == null) {
+                try {
+                    this.head = this.queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+            if (this.head.error != null) {
+                throw new RuntimeException(this.head.error);
+            }
+            return this.head.info != null;
+        }
+
+        ObjectInfo next() {
+            if (!hasNext()) {
+                return null;
+            }
+            ObjectInfo result = this.head.info;
+            this.head = null;
+            return result;
+        }
+
+        void stop() {
+            this.stopped = true;
+            this.thread.interrupt();
+            try {
+                this.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 }
@@ -13,6 +13,7 @@ public class ObjectListOption {
         RECURSIVE,
         SYSTEM,
         CUSTOM,
+        PREFETCH,
     }
 
     private Key key;
@@ -72,6 +73,22 @@ public class ObjectListOption {
         return new ObjectListOption(Key.CUSTOM, true);
     }
 
+    /**
+     * Option for listing in the background. A background thread fetches the listing pages and
+     * keeps up to <code>queueSize</code> objects ahead of the iterator, so processing the
+     * objects overlaps with fetching the next page. A listing error is thrown from the iterator
+     * after the objects listed before it.
+     *
+     * @param queueSize the maximum number of objects fetched ahead of the iterator
+     * @return a {@link ObjectListOption}
+     */
+    public static ObjectListOption prefetch(int queueSize) {
+        if (queueSize < 1) {
+            throw new IllegalArgumentException("queue size must be positive: " + queueSize);
+        }
+        return new ObjectListOption(Key.PREFETCH, queueSize);
+    }
+
     static JNAUplink.ListObjectsOptions.ByReference internal(ObjectListOption... options) {
         if (options.length == 0) {
             return null;
@@ -95,4 +112,14 @@ public class ObjectListOption {
         return listOptions;
     }
 
+    static int prefetchSize(ObjectListOption... options) {
+        int queueSize = 0;
+        for (ObjectListOption option : options) {
+            if (option.key == Key.PREFETCH) {
+                queueSize = (int) option.value;
+            }
+        }
+        return queueSize;
+    }
+
 }
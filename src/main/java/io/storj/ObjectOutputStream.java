@@ -12,20 +12,45 @@ import java.util.Map;
 
 /**
  * An {@link OutputStream} for writing data to an object stored on the Storj network.
+ *
+ * <p>Written bytes are buffered in native memory and passed to the upload when the buffer is
+ * full, on {@link #flush()} and on {@link #commit()}.</p>
  */
 public class ObjectOutputStream extends OutputStream {
 
+    /**
+     * Initial size of the native write buffer.
+     */
+    static final int MIN_WRITE_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * Upper bound for the native write buffer. Writes are coalesced in the buffer until it
+     * is full, and larger writes are passed to uplink in chunks of this size.
+     */
+    static final int MAX_WRITE_BUFFER_SIZE = 256 * 1024;
+
     private JNAUplink.Upload.ByReference cUpload;
+    private final Releaser releaser;
+    private final NativeCleaner.Cleanable cleanable;
 
     /**
-     * Used for efficiency by `write(int b)`
+     * Run after the commit, to invalidate cached metadata of the object. May be null.
      */
-    private byte[] buf = new byte[1];
+    private final Runnable onCommit;
+
+    /**
+     * Native buffer reused across writes, grown on demand up to {@link #MAX_WRITE_BUFFER_SIZE}.
+     */
+    private Memory writeBuffer;
+    private int count;
     private boolean committed = false;
     private boolean aborted = false;
 
-    ObjectOutputStream(JNAUplink.Upload.ByReference cUpload) {
+    ObjectOutputStream(Project project, JNAUplink.Upload.ByReference cUpload, Runnable onCommit) {
         this.cUpload = cUpload;
+        this.onCommit = onCommit;
+        this.releaser = new Releaser(project, cUpload);
+        this.cleanable = NativeCleaner.register(this, NativeResources.UPLOAD, this.releaser);
     }
 
     /**
@@ -47,18 +72,13 @@ public class ObjectOutputStream extends OutputStream {
      */
     @Override
     public void write(int b) throws IOException {
+        ensureWritable();
         try {
-            buf[0] = (byte) b;
-
-            Pointer byteArray = new Memory(1);
-            byteArray.write(0, buf, 0, buf.length);
-            JNAUplink.WriteResult.ByValue writeResult = JNAUplink.INSTANCE.uplink_upload_write(this.cUpload, byteArray, new NativeLong(1));
-            try {
-                ExceptionUtil.handleError(writeResult.error);
-            } catch (StorjException e) {
-                throw new IOException(e);
+            ensureCapacity(this.count + 1);
+            this.writeBuffer.setByte(this.count++, (byte) b);
+            if (this.count == this.writeBuffer.size()) {
+                flushBuffer();
             }
-            JNAUplink.INSTANCE.uplink_free_write_result(writeResult);
         } catch (IOException e) {
             this.abort();
             throw e;
@@ -97,6 +117,7 @@ public class ObjectOutputStream extends OutputStream {
      */
     @Override
     public void write(byte[] b, int off, int len) throws IOException {
+        ensureWritable();
         try {
             if (b == null) {
                 throw new NullPointerException();
@@ -107,21 +128,120 @@ public class ObjectOutputStream extends OutputStream {
                 return;
             }
 
-            Pointer byteArray = new Memory(len);
-            byteArray.write(0, b, off, len);
-            JNAUplink.WriteResult.ByValue writeResult = JNAUplink.INSTANCE.uplink_upload_write(this.cUpload, byteArray, new NativeLong(len));
-            try {
-                ExceptionUtil.handleError(writeResult.error);
-            } catch (StorjException e) {
-                throw new IOException(e);
+            while (len > 0) {
+                ensureCapacity(this.count + len);
+                int n = Math.min(len, (int) this.writeBuffer.size() - this.count);
+                this.writeBuffer.write(this.count, b, off, n);
+                this.count += n;
+                off += n;
+                len -= n;
+                if (this.count == this.writeBuffer.size()) {
+                    flushBuffer();
+                }
             }
-            JNAUplink.INSTANCE.uplink_free_write_result(writeResult);
         } catch (IOException e) {
             this.abort();
             throw e;
         }
     }
 
+    /**
+     * Flushes this output stream by passing all buffered bytes to the upload.
+     * <p>
+     * If error occur upload is automatically aborted.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public void flush() throws IOException {
+        try {
+            flushBuffer();
+        } catch (IOException e) {
+            this.abort();
+            throw e;
+        }
+    }
+
+    /**
+     * Fails writes which would otherwise be buffered and silently dropped, as the upload can no
+     * longer take them.
+     */
+    private void ensureWritable() throws IOException {
+        if (this.releaser.isClosed()) {
+            throw new IOException("stream closed");
+        } else if (this.committed) {
+            throw new IOException("upload already committed");
+        } else if (this.aborted) {
+            throw new IOException("upload aborted");
+        }
+    }
+
+    /**
+     * Makes sure the write buffer can hold <code>required</code> bytes, or is as large as
+     * allowed. Buffered bytes are flushed before the buffer is replaced with a bigger one.
+     */
+    private void ensureCapacity(int required) throws IOException {
+        if (this.writeBuffer != null
+                && (this.writeBuffer.size() >= required || this.writeBuffer.size() == MAX_WRITE_BUFFER_SIZE)) {
+            return;
+        }
+
+        long size = MIN_WRITE_BUFFER_SIZE;
+        if (this.writeBuffer != null) {
+            flushBuffer();
+            size = this.writeBuffer.size() * 2;
+            this.writeBuffer.close();
+        }
+        this.writeBuffer = new Memory(Math.min(Math.max(size, required), MAX_WRITE_BUFFER_SIZE));
+    }
+
+    /**
+     * Writes <code>len</code> bytes directly from native memory, after any buffered bytes.
+     * <p>
+     * If error occur upload is automatically aborted.
+     *
+     * @param bytes the native memory to write from
+     * @param len   the number of bytes to write
+     * @throws IOException if an I/O error occurs
+     */
+    void write(Pointer bytes, int len) throws IOException {
+        ensureWritable();
+        try {
+            flushBuffer();
+            writeNative(bytes, len);
+        } catch (IOException e) {
+            this.abort();
+            throw e;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (this.count > 0) {
+            writeNative(this.writeBuffer, this.count);
+            this.count = 0;
+        }
+    }
+
+    private void writeNative(Pointer bytes, int len) throws IOException {
+        int written = 0;
+        while (written < len) {
+            Pointer chunk = written == 0 ? bytes : bytes.share(written);
+            JNAUplink.WriteResult.ByValue writeResult = JNAUplink.INSTANCE.uplink_upload_write(this.cUpload, chunk, new NativeLong(len - written));
+            try {
+                ExceptionUtil.handleError(writeResult.error);
+                int n = writeResult.bytes_written.intValue();
+                if (n <= 0) {
+                    // retrying would never end
+                    throw new IOException("upload write made no progress");
+                }
+                written += n;
+            } catch (StorjException e) {
+                throw new IOException(e);
+            } finally {
+                JNAUplink.INSTANCE.uplink_free_write_result(writeResult);
+            }
+        }
+    }
 
     /**
      * Commits data to the store.
@@ -129,9 +249,20 @@ public class ObjectOutputStream extends OutputStream {
      * @throws StorjException if an error occurs during committing object
      */
     public void commit() throws StorjException {
+        try {
+            this.flush();
+        } catch (IOException e) {
+            throw new StorjException(e);
+        }
         this.committed = true;
         JNAUplink.Error.ByReference error = JNAUplink.INSTANCE.uplink_upload_commit(this.cUpload);
-        ExceptionUtil.handleError(error);
+        try {
+            ExceptionUtil.handleError(error);
+        } finally {
+            if (this.onCommit != null) {
+                this.onCommit.run();
+            }
+        }
     }
 
     /**
@@ -159,6 +290,18 @@ public class ObjectOutputStream extends OutputStream {
             return;
         }
 
+        JNAUplink.CustomMetadata.ByValue customMetadata = internalMetadata(metadata);
+        JNAUplink.Error.ByReference error = JNAUplink.INSTANCE.uplink_upload_set_custom_metadata(this.cUpload, customMetadata);
+        ExceptionUtil.handleError(error);
+    }
+
+    static JNAUplink.CustomMetadata.ByValue internalMetadata(Map<String, String> metadata) {
+        if (metadata.isEmpty()) {
+            JNAUplink.CustomMetadata.ByValue customMetadata = new JNAUplink.CustomMetadata.ByValue();
+            customMetadata.count = new NativeLong(0);
+            return customMetadata;
+        }
+
         JNAUplink.CustomMetadataEntry.ByReference singleEntry = new JNAUplink.CustomMetadataEntry.ByReference();
         Structure[] entries = singleEntry.toArray(metadata.size());
         int i = 0;
@@ -184,8 +327,7 @@ public class ObjectOutputStream extends OutputStream {
         customMetadata.entries = ((JNAUplink.CustomMetadataEntry.ByReference) entries[0]);
         customMetadata.count = new NativeLong(entries.length);
 
-        JNAUplink.Error.ByReference error = JNAUplink.INSTANCE.uplink_upload_set_custom_metadata(this.cUpload, customMetadata);
-        ExceptionUtil.handleError(error);
+        return customMetadata;
     }
 
     private void abort() throws IOException {
@@ -193,6 +335,8 @@ public class ObjectOutputStream extends OutputStream {
             return;
         }
 
+        this.aborted = true;
+        this.count = 0;
         JNAUplink.Error.ByReference error = JNAUplink.INSTANCE.uplink_upload_abort(this.cUpload);
         try {
             ExceptionUtil.handleError(error);
@@ -214,11 +358,47 @@ public class ObjectOutputStream extends OutputStream {
      */
     @Override
     public void close() throws IOException {
+        if (!this.releaser.markClosed()) {
+            return;
+        }
         try {
             if (!this.committed) {
                 this.abort();
             }
         } finally {
+            this.cleanable.clean();
+            if (this.writeBuffer != null) {
+                this.writeBuffer.close();
+                this.writeBuffer = null;
+            }
+        }
+    }
+
+    /**
+     * Aborts and frees the native upload, also for a stream which was not closed. Aborting a
+     * committed upload fails and is ignored.
+     */
+    private static class Releaser extends NativeCleaner.Releaser {
+
+        /**
+         * Keeps the native project open until the upload is freed, also when the {@link Project}
+         * itself is no longer referenced.
+         */
+        private final Project project;
+        private final JNAUplink.Upload.ByReference cUpload;
+
+        Releaser(Project project, JNAUplink.Upload.ByReference cUpload) {
+            this.project = project;
+            this.cUpload = cUpload;
+        }
+
+        @Override
+        void close() {
+            JNAUplink.INSTANCE.uplink_upload_abort(this.cUpload);
+        }
+
+        @Override
+        void free() {
             JNAUplink.UploadResult.ByValue result = new JNAUplink.UploadResult.ByValue();
             result.upload = this.cUpload;
             JNAUplink.INSTANCE.uplink_free_upload_result(result);
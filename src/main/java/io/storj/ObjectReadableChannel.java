@@ -0,0 +1,96 @@
+package io.storj;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A {@link ReadableByteChannel} for reading data from an object stored on the Storj network.
+ *
+ * <p>Direct {@link ByteBuffer}s are filled by uplink in place, without copying the data through
+ * the Java heap. Heap buffers are supported as well and behave like reading from an
+ * {@link ObjectInputStream}.</p>
+ *
+ * @see Project#downloadObjectChannel(String, String, ObjectDownloadOption...)
+ */
+public class ObjectReadableChannel implements ReadableByteChannel {
+
+    private final ObjectInputStream stream;
+    private boolean open = true;
+
+    ObjectReadableChannel(Project project, JNAUplink.Download.ByReference cDownload) {
+        this(new ObjectInputStream(project, cDownload));
+    }
+
+    ObjectReadableChannel(ObjectInputStream stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * Reads a sequence of bytes from this channel into the given buffer.
+     *
+     * @param dst the buffer into which bytes are to be transferred
+     * @return the number of bytes read, possibly zero, or <code>-1</code> if the channel has
+     * reached end-of-stream
+     * @throws ClosedChannelException  if this channel is closed
+     * @throws ReadOnlyBufferException if the buffer is read-only
+     * @throws IOException             if some other I/O error occurs
+     */
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (!this.open) {
+            throw new ClosedChannelException();
+        }
+        if (dst.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+
+        int position = dst.position();
+        int read;
+        if (dst.isDirect()) {
+            Pointer address = Native.getDirectBufferPointer(dst).share(position);
+            read = this.stream.read(address, dst.remaining());
+        } else {
+            read = this.stream.read(dst.array(), dst.arrayOffset() + position, dst.remaining());
+        }
+
+        if (read > 0) {
+            dst.position(position + read);
+        }
+        return read;
+    }
+
+    /**
+     * Returns the last information about the object.
+     *
+     * @return the object info
+     * @throws StorjException if an error occurs during retrieving info
+     */
+    public ObjectInfo info() throws StorjException {
+        return this.stream.info();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return this.open;
+    }
+
+    /**
+     * Closes this channel and releases the download.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!this.open) {
+            return;
+        }
+        this.open = false;
+        this.stream.close();
+    }
+}
@@ -0,0 +1,268 @@
+package io.storj;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.storj.ObjectDownloadOption.offset;
+
+/**
+ * A read-only {@link SeekableByteChannel} for random access to an object stored on the Storj
+ * network.
+ *
+ * <p>The object is read in blocks of {@link SeekableChannelOption#blockSize(int)} bytes. A
+ * download is kept open between reads and reused as long as reads move forward within
+ * {@link SeekableChannelOption#maxSkip(long)} bytes; other seeks start a new ranged download.
+ * Recently read blocks are kept in a small LRU cache, so repeated reads of the same range, like
+ * a file footer, are served from memory.</p>
+ *
+ * @see Project#downloadObjectSeekable(String, String, SeekableChannelOption...)
+ */
+public class ObjectSeekableChannel implements SeekableByteChannel {
+
+    private final Project project;
+    private final String bucket;
+    private final String key;
+    private final SeekableChannelOption.Settings settings;
+    private final long size;
+    private final BlockCache cache;
+
+    private boolean open = true;
+    private long position;
+
+    /**
+     * The current download and the object offset it will read next, always at a block start.
+     */
+    private ObjectInputStream download;
+    private long downloadPosition;
+
+    private long currentIndex = -1;
+    private byte[] currentBlock;
+
+    ObjectSeekableChannel(Project project, String bucket, String key, SeekableChannelOption... options) throws StorjException {
+        this.project = project;
+        this.bucket = bucket;
+        this.key = key;
+        this.settings = SeekableChannelOption.internal(options);
+        this.size = project.statObject(bucket, key).getSystemMetadata().getContentLength();
+        this.cache = new BlockCache(this.settings.cachedBlocks);
+    }
+
+    /**
+     * The LRU cache of recently read blocks, by block index.
+     */
+    private static class BlockCache extends LinkedHashMap<Long, byte[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxBlocks;
+
+        /**
+         * Block array evicted from the cache, reused for the next block of the same size unless
+         * it is still the current block.
+         */
+        byte[] spare;
+
+        BlockCache(int maxBlocks) {
+            super(16, 0.75f, true);
+            this.maxBlocks = maxBlocks;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+            if (size() > this.maxBlocks) {
+                this.spare = eldest.getValue();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Reads a sequence of bytes from this channel into the given buffer, starting at the current
+     * position.
+     *
+     * @param dst the buffer into which bytes are to be transferred
+     * @return the number of bytes read, or <code>-1</code> if the position is at or beyond the
+     * end of the object
+     * @throws ClosedChannelException if this channel is closed
+     * @throws IOException            if some other I/O error occurs
+     */
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (this.position >= this.size) {
+            return -1;
+        }
+
+        int total = 0;
+        while (dst.hasRemaining() && this.position < this.size) {
+            long index = this.position / settings.blockSize;
+            byte[] block = block(index);
+            int blockOffset = (int) (this.position - index * settings.blockSize);
+            int blockLength = (int) Math.min(settings.blockSize, this.size - index * settings.blockSize);
+            int n = Math.min(dst.remaining(), blockLength - blockOffset);
+            dst.put(block, blockOffset, n);
+            this.position += n;
+            total += n;
+        }
+        return total;
+    }
+
+    private byte[] block(long index) throws IOException {
+        if (index == this.currentIndex) {
+            return this.currentBlock;
+        }
+
+        byte[] block = this.cache.get(index);
+        if (block == null) {
+            long start = index * settings.blockSize;
+            if (this.download == null || start < this.downloadPosition
+                    || start - this.downloadPosition > settings.maxSkip) {
+                openDownload(start);
+            }
+            // read the skipped blocks through the cache to reach the requested one
+            do {
+                block = readBlock();
+            } while (this.downloadPosition <= start);
+        }
+
+        this.currentIndex = index;
+        this.currentBlock = block;
+        return block;
+    }
+
+    private void openDownload(long start) throws IOException {
+        closeDownload();
+        this.download = this.project.downloadObject(this.bucket, this.key, offset(start));
+        this.downloadPosition = start;
+    }
+
+    private byte[] readBlock() throws IOException {
+        long index = this.downloadPosition / settings.blockSize;
+        int length = (int) Math.min(settings.blockSize, this.size - this.downloadPosition);
+
+        byte[] block = this.cache.spare;
+        this.cache.spare = null;
+        if (block == null || block == this.currentBlock || block.length != length) {
+            block = new byte[length];
+        }
+        int read = 0;
+        try {
+            while (read < length) {
+                int n = this.download.read(block, read, length - read);
+                if (n == -1) {
+                    throw new IOException("unexpected end of object at offset " + (this.downloadPosition + read));
+                }
+                read += n;
+            }
+        } catch (IOException e) {
+            // the download stopped within the block, so the next read starts a new one
+            closeDownload();
+            throw e;
+        }
+
+        this.downloadPosition += length;
+        if (settings.cachedBlocks > 0) {
+            this.cache.put(index, block);
+        }
+        return block;
+    }
+
+    private void closeDownload() throws IOException {
+        if (this.download != null) {
+            ObjectInputStream download = this.download;
+            this.download = null;
+            download.close();
+        }
+    }
+
+    /**
+     * Writing is not supported.
+     *
+     * @throws NonWritableChannelException always
+     */
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return this.position;
+    }
+
+    /**
+     * Sets the position for the next read. Setting the position beyond the end of the object is
+     * allowed, in which case reads return <code>-1</code>.
+     *
+     * @param newPosition the new position
+     * @return this channel
+     * @throws ClosedChannelException   if this channel is closed
+     * @throws IllegalArgumentException if the new position is negative
+     */
+    @Override
+    public ObjectSeekableChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("negative position: " + newPosition);
+        }
+        this.position = newPosition;
+        return this;
+    }
+
+    /**
+     * Returns the content length of the object.
+     *
+     * @return the object size in bytes
+     * @throws ClosedChannelException if this channel is closed
+     */
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return this.size;
+    }
+
+    /**
+     * Truncating is not supported.
+     *
+     * @throws NonWritableChannelException always
+     */
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return this.open;
+    }
+
+    /**
+     * Closes this channel, the current download and drops the cached blocks.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!this.open) {
+            return;
+        }
+        this.open = false;
+        this.cache.clear();
+        this.cache.spare = null;
+        this.currentBlock = null;
+        closeDownload();
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!this.open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
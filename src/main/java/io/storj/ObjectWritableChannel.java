@@ -0,0 +1,120 @@
+package io.storj;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.Map;
+
+/**
+ * A {@link WritableByteChannel} for writing data to an object stored on the Storj network.
+ *
+ * <p>The content of direct {@link ByteBuffer}s is passed to uplink in place, without copying the
+ * data through the Java heap. Heap buffers are supported as well and behave like writing to an
+ * {@link ObjectOutputStream}.</p>
+ *
+ * <p>As with {@link ObjectOutputStream}, the upload must be committed with {@link #commit()},
+ * otherwise it is aborted on {@link #close()}.</p>
+ *
+ * @see Project#uploadObjectChannel(String, String, ObjectUploadOption...)
+ */
+public class ObjectWritableChannel implements WritableByteChannel {
+
+    private final ObjectOutputStream stream;
+    private boolean open = true;
+
+    ObjectWritableChannel(Project project, JNAUplink.Upload.ByReference cUpload, Runnable onCommit) {
+        this.stream = new ObjectOutputStream(project, cUpload, onCommit);
+    }
+
+    /**
+     * Writes all remaining bytes of the given buffer to this channel.
+     * <p>
+     * If error occur upload is automatically aborted.
+     *
+     * @param src the buffer from which bytes are to be retrieved
+     * @return the number of bytes written
+     * @throws ClosedChannelException if this channel is closed
+     * @throws IOException            if some other I/O error occurs
+     */
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (!this.open) {
+            throw new ClosedChannelException();
+        }
+
+        int position = src.position();
+        int len = src.remaining();
+        if (src.isDirect()) {
+            Pointer address = Native.getDirectBufferPointer(src).share(position);
+            this.stream.write(address, len);
+        } else if (src.hasArray()) {
+            this.stream.write(src.array(), src.arrayOffset() + position, len);
+        } else {
+            // read-only heap buffer, its backing array is not accessible
+            byte[] chunk = new byte[Math.min(len, ObjectOutputStream.MAX_WRITE_BUFFER_SIZE)];
+            ByteBuffer source = src.duplicate();
+            while (source.hasRemaining()) {
+                int n = Math.min(source.remaining(), chunk.length);
+                source.get(chunk, 0, n);
+                this.stream.write(chunk, 0, n);
+            }
+        }
+
+        src.position(position + len);
+        return len;
+    }
+
+    /**
+     * Commits data to the store.
+     *
+     * @throws StorjException if an error occurs during committing object
+     */
+    public void commit() throws StorjException {
+        this.stream.commit();
+    }
+
+    /**
+     * Returns the last information about the uploaded object.
+     *
+     * @return the object info
+     * @throws StorjException if an error occurs during retrieving info
+     */
+    public ObjectInfo info() throws StorjException {
+        return this.stream.info();
+    }
+
+    /**
+     * Method updates custom metadata to be included with the object.
+     *
+     * @param metadata the metadata map, if it is null, it won't be modified.
+     * @throws StorjException if an error occurs during setting custom metadata
+     */
+    public void setCustomMetadata(Map<String, String> metadata) throws StorjException {
+        this.stream.setCustomMetadata(metadata);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return this.open;
+    }
+
+    /**
+     * Closes this channel and releases the upload.
+     * <p>
+     * If channel was not committed then upload is automatically aborted on close.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!this.open) {
+            return;
+        }
+        this.open = false;
+        this.stream.close();
+    }
+}
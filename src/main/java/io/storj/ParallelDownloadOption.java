@@ -0,0 +1,94 @@
+package io.storj;
+
+/**
+ * Options for downloading an object with several parallel ranged downloads.
+ *
+ * @see Project#downloadObjectParallel(String, String, ParallelDownloadOption...)
+ * @see Project#downloadObjectParallel(String, String, java.nio.channels.FileChannel, ParallelDownloadOption...)
+ */
+public class ParallelDownloadOption {
+
+    static final int DEFAULT_CONCURRENCY = 4;
+    static final long DEFAULT_PART_SIZE = 8 * 1024 * 1024;
+
+    private enum Key {
+        CONCURRENCY,
+        PART_SIZE,
+        BUFFERED_PARTS,
+    }
+
+    private Key key;
+
+    private Object value;
+
+    ParallelDownloadOption(Key key, Object value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * Option for the number of ranged downloads running at the same time. Defaults to 4.
+     *
+     * @param concurrency the number of parallel downloads
+     * @return a {@link ParallelDownloadOption}
+     */
+    public static ParallelDownloadOption concurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+        }
+        return new ParallelDownloadOption(Key.CONCURRENCY, concurrency);
+    }
+
+    /**
+     * Option for the size of a single ranged download in bytes. Defaults to 8 MiB.
+     *
+     * @param partSize the part size
+     * @return a {@link ParallelDownloadOption}
+     */
+    public static ParallelDownloadOption partSize(long partSize) {
+        if (partSize < 1 || partSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid part size: " + partSize);
+        }
+        return new ParallelDownloadOption(Key.PART_SIZE, partSize);
+    }
+
+    /**
+     * Option for the number of downloaded parts held in memory while waiting to be read in order
+     * from the returned {@link java.io.InputStream}. Together with the part size it bounds the
+     * memory used by the download. Defaults to twice the concurrency.
+     *
+     * @param bufferedParts the maximum number of parts held in memory
+     * @return a {@link ParallelDownloadOption}
+     */
+    public static ParallelDownloadOption bufferedParts(int bufferedParts) {
+        if (bufferedParts < 1) {
+            throw new IllegalArgumentException("buffered parts must be positive: " + bufferedParts);
+        }
+        return new ParallelDownloadOption(Key.BUFFERED_PARTS, bufferedParts);
+    }
+
+    static Settings internal(ParallelDownloadOption... options) {
+        Settings settings = new Settings();
+        settings.concurrency = DEFAULT_CONCURRENCY;
+        settings.partSize = DEFAULT_PART_SIZE;
+        for (ParallelDownloadOption option : options) {
+            if (option.key == Key.CONCURRENCY) {
+                settings.concurrency = (int) option.value;
+            } else if (option.key == Key.PART_SIZE) {
+                settings.partSize = (long) option.value;
+            } else if (option.key == Key.BUFFERED_PARTS) {
+                settings.bufferedParts = (int) option.value;
+            }
+        }
+        if (settings.bufferedParts == 0) {
+            settings.bufferedParts = 2 * settings.concurrency;
+        }
+        return settings;
+    }
+
+    static class Settings {
+        int concurrency;
+        long partSize;
+        int bufferedParts;
+    }
+}
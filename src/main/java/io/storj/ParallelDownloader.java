@@ -0,0 +1,431 @@
+package io.storj;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.storj.ObjectDownloadOption.length;
+import static io.storj.ObjectDownloadOption.offset;
+
+/**
+ * Downloads an object as a sequence of byte ranges, each with its own
+ * <code>uplink_download_object</code> call, running several of them at the same time.
+ */
+class ParallelDownloader {
+
+    /**
+     * Size of the direct buffer each worker uses when writing to a {@link FileChannel}.
+     */
+    private static final int TRANSFER_BUFFER_SIZE = 256 * 1024;
+
+    private final Project project;
+    private final String bucket;
+    private final String key;
+    private final ParallelDownloadOption.Settings settings;
+    private final long size;
+    private final long created;
+    private final long partCount;
+
+    /**
+     * The download of the first part, opened up front to learn the size of the object. Taken by
+     * the worker downloading the first part.
+     */
+    private final AtomicReference<ObjectInputStream> firstPart;
+
+    ParallelDownloader(Project project, String bucket, String key, ParallelDownloadOption... options) throws StorjException {
+        this.project = project;
+        this.bucket = bucket;
+        this.key = key;
+        this.settings = ParallelDownloadOption.internal(options);
+
+        // the download reports the current version of the object, unlike a possibly cached stat
+        ObjectInputStream first = project.downloadObject(bucket, key, length(settings.partSize));
+        try {
+            SystemMetadata system = first.info().getSystemMetadata();
+            this.size = system.getContentLength();
+            this.created = system.getCreated().getTime();
+        } catch (StorjException e) {
+            closeQuietly(first);
+            throw e;
+        }
+        this.partCount = (size + settings.partSize - 1) / settings.partSize;
+        this.firstPart = new AtomicReference<>(first);
+        if (partCount == 0) {
+            closeFirstPart();
+        }
+    }
+
+    private ObjectInputStream openPart(long part, long partOffset, long partLength) throws IOException {
+        if (part == 0) {
+            ObjectInputStream first = firstPart.getAndSet(null);
+            if (first != null) {
+                return first;
+            }
+        }
+        ObjectInputStream stream = project.downloadObject(bucket, key, offset(partOffset), length(partLength));
+        boolean checked = false;
+        try {
+            // an object overwritten during the download must not mix two versions
+            SystemMetadata system = stream.info().getSystemMetadata();
+            if (system.getCreated().getTime() != this.created || system.getContentLength() != this.size) {
+                throw new IOException("object changed during download: " + key);
+            }
+            checked = true;
+            return stream;
+        } catch (StorjException e) {
+            throw new IOException(e);
+        } finally {
+            if (!checked) {
+                closeQuietly(stream);
+            }
+        }
+    }
+
+    /**
+     * Closes the download of the first part if no worker took it.
+     */
+    private void closeFirstPart() {
+        ObjectInputStream first = firstPart.getAndSet(null);
+        if (first != null) {
+            closeQuietly(first);
+        }
+    }
+
+    private static void closeQuietly(ObjectInputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            // the download is abandoned anyway
+        }
+    }
+
+    /**
+     * Downloads the whole object into the channel, writing each part at its positional offset.
+     *
+     * @param target   the channel to write to
+     * @param position the channel position of the first byte of the object
+     * @return the number of bytes written
+     * @throws IOException if any part fails to download or write
+     */
+    long transferTo(final FileChannel target, final long position) throws IOException {
+        final AtomicLong nextPart = new AtomicLong();
+        // workers are stopped through this flag, an interrupt would close the target channel
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        int workers = workers();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, new NamedThreadFactory("parallel-download"));
+        try {
+            CompletionService<Void> results = new ExecutorCompletionService<>(executor);
+            for (int i = 0; i < workers; i++) {
+                results.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        ByteBuffer buffer = ByteBuffer.allocateDirect(TRANSFER_BUFFER_SIZE);
+                        long part;
+                        while (!cancelled.get() && (part = nextPart.getAndIncrement()) < partCount) {
+                            long partOffset = part * settings.partSize;
+                            long partLength = Math.min(settings.partSize, size - partOffset);
+                            try (ObjectReadableChannel channel = new ObjectReadableChannel(
+                                    openPart(part, partOffset, partLength))) {
+                                long written = 0;
+                                while (written < partLength && !cancelled.get()) {
+                                    buffer.clear();
+                                    if (channel.read(buffer) == -1) {
+                                        throw new IOException("unexpected end of part " + part);
+                                    }
+                                    buffer.flip();
+                                    while (buffer.hasRemaining()) {
+                                        written += target.write(buffer, position + partOffset + written);
+                                    }
+                                }
+                            }
+                        }
+                        return null;
+                    }
+                });
+            }
+            // in order of completion, so the first failure stops the other workers right away
+            for (int i = 0; i < workers; i++) {
+                await(results);
+            }
+        } finally {
+            cancelled.set(true);
+            executor.shutdown();
+            // no worker may write to the channel after this method returned
+            awaitTermination(executor);
+            closeFirstPart();
+        }
+        return size;
+    }
+
+    /**
+     * Waits for the workers, which finish their current read and write after being cancelled.
+     */
+    private static void awaitTermination(ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Starts downloading the parts in the background and returns a stream reading them in order.
+     *
+     * @return the stream with the object content
+     */
+    InputStream stream() {
+        PartInputStream stream = new PartInputStream();
+        stream.start();
+        return stream;
+    }
+
+    private int workers() {
+        return (int) Math.min(settings.concurrency, Math.max(partCount, 1));
+    }
+
+    private static void await(CompletionService<Void> results) throws IOException {
+        try {
+            results.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static class Part {
+        final byte[] data;
+        final int length;
+
+        Part(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Reassembles the downloaded parts in order. Workers take a buffer from a fixed pool before
+     * claiming the next part, so at most {@link ParallelDownloadOption.Settings#bufferedParts}
+     * parts are held in memory at any time, including those still being downloaded.
+     */
+    private class PartInputStream extends InputStream {
+
+        private final ExecutorService executor;
+        private final BlockingQueue<byte[]> freeBuffers;
+        private final AtomicInteger allocatedBuffers = new AtomicInteger();
+        private final AtomicLong nextPart = new AtomicLong();
+        private final Map<Long, Part> completed = new HashMap<>();
+
+        private Throwable failure;
+        private boolean closed;
+
+        private Part current;
+        private long currentIndex = -1;
+        private int position;
+
+        PartInputStream() {
+            this.executor = Executors.newFixedThreadPool(workers(), new NamedThreadFactory("parallel-download"));
+            this.freeBuffers = new ArrayBlockingQueue<>(settings.bufferedParts);
+        }
+
+        void start() {
+            for (int i = 0; i < workers(); i++) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            downloadParts();
+                        } catch (Throwable e) {
+                            fail(e);
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+        }
+
+        private void downloadParts() throws IOException, InterruptedException {
+            while (true) {
+                byte[] buffer = takeBuffer();
+                if (isStopped()) {
+                    return;
+                }
+                long part = nextPart.getAndIncrement();
+                if (part >= partCount) {
+                    freeBuffers.offer(buffer);
+                    return;
+                }
+
+                long partOffset = part * settings.partSize;
+                int partLength = (int) Math.min(settings.partSize, size - partOffset);
+                try (ObjectInputStream is = openPart(part, partOffset, partLength)) {
+                    int read = 0;
+                    while (read < partLength) {
+                        if (isStopped()) {
+                            return;
+                        }
+                        int n = is.read(buffer, read, partLength - read);
+                        if (n == -1) {
+                            throw new IOException("unexpected end of part " + part);
+                        }
+                        read += n;
+                    }
+                }
+
+                synchronized (this) {
+                    if (closed) {
+                        return;
+                    }
+                    completed.put(part, new Part(buffer, partLength));
+                    notifyAll();
+                }
+            }
+        }
+
+        private byte[] takeBuffer() throws InterruptedException {
+            byte[] buffer = freeBuffers.poll();
+            if (buffer != null) {
+                return buffer;
+            }
+            if (allocatedBuffers.incrementAndGet() <= settings.bufferedParts) {
+                return new byte[(int) Math.min(settings.partSize, Math.max(size, 1))];
+            }
+            return freeBuffers.take();
+        }
+
+        private synchronized boolean isStopped() {
+            return closed || failure != null;
+        }
+
+        private void fail(Throwable e) {
+            synchronized (this) {
+                if (failure == null) {
+                    failure = e;
+                }
+                notifyAll();
+            }
+            // the stream cannot continue, so stop the other workers early
+            wakeWorkers();
+        }
+
+        /**
+         * Wakes the workers waiting for a buffer, so they notice that they were stopped. Workers
+         * are not interrupted, they finish their current read and close their download.
+         */
+        private void wakeWorkers() {
+            for (int i = 0; i < workers(); i++) {
+                freeBuffers.offer(new byte[0]);
+            }
+        }
+
+        private boolean nextPart() throws IOException {
+            if (current != null) {
+                freeBuffers.offer(current.data);
+                current = null;
+            }
+            if (currentIndex + 1 >= partCount) {
+                return false;
+            }
+
+            currentIndex++;
+            synchronized (this) {
+                while (!completed.containsKey(currentIndex)) {
+                    if (closed) {
+                        throw new IOException("stream closed");
+                    }
+                    if (failure != null) {
+                        throw new IOException(failure);
+                    }
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException(e);
+                    }
+                }
+                current = completed.remove(currentIndex);
+            }
+            position = 0;
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (current == null || position == current.length) {
+                if (!nextPart()) {
+                    return -1;
+                }
+            }
+            return current.data[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (b == null) {
+                throw new NullPointerException();
+            } else if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            } else if (len == 0) {
+                return 0;
+            }
+
+            if (current == null || position == current.length) {
+                if (!nextPart()) {
+                    return -1;
+                }
+            }
+            int n = Math.min(len, current.length - position);
+            System.arraycopy(current.data, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return current == null ? 0 : current.length - position;
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                completed.clear();
+                notifyAll();
+            }
+            current = null;
+            wakeWorkers();
+            closeFirstPart();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package io.storj;
+
+/**
+ * Options for listing the objects of a bucket with several parallel listings.
+ *
+ * @see Project#listObjectsParallel(String, ParallelListOption...)
+ */
+public class ParallelListOption {
+
+    static final int DEFAULT_CONCURRENCY = 4;
+    static final int DEFAULT_BUFFERED_OBJECTS = 1000;
+
+    private enum Key {
+        PREFIX,
+        CONCURRENCY,
+        BUFFERED_OBJECTS,
+        ORDERED,
+        SYSTEM,
+        CUSTOM,
+    }
+
+    private Key key;
+
+    private Object value;
+
+    ParallelListOption(Key key, Object value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * Option for the path prefix to list. The prefix must end with <code>/</code>. If not set,
+     * the whole bucket is listed.
+     *
+     * @param prefix a {@link String} with path prefix
+     * @return a {@link ParallelListOption}
+     */
+    public static ParallelListOption prefix(String prefix) {
+        return new ParallelListOption(Key.PREFIX, prefix);
+    }
+
+    /**
+     * Option for the number of prefixes listed at the same time. Defaults to 4.
+     *
+     * @param concurrency the number of parallel listings
+     * @return a {@link ParallelListOption}
+     */
+    public static ParallelListOption concurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+        }
+        return new ParallelListOption(Key.CONCURRENCY, concurrency);
+    }
+
+    /**
+     * Option for the number of listed objects held in memory ahead of the stream in unordered
+     * listings. Defaults to 1000.
+     *
+     * @param bufferedObjects the maximum number of objects fetched ahead of the stream
+     * @return a {@link ParallelListOption}
+     */
+    public static ParallelListOption bufferedObjects(int bufferedObjects) {
+        if (bufferedObjects < 1) {
+            throw new IllegalArgumentException("buffered objects must be positive: " + bufferedObjects);
+        }
+        return new ParallelListOption(Key.BUFFERED_OBJECTS, bufferedObjects);
+    }
+
+    /**
+     * Option for returning the objects in lexicographic key order. Without it, objects are
+     * returned as soon as any of the parallel listings returns them.
+     *
+     * <p>Keys are ordered by their UTF-8 bytes, which differs from {@link String#compareTo}
+     * for characters outside the Basic Multilingual Plane.</p>
+     *
+     * <p>Ordered listings do not stream: every top-level prefix is listed completely and sorted
+     * in memory before its first object is returned, and up to {@link #concurrency(int)}
+     * prefixes are held at a time. {@link #bufferedObjects(int)} does not apply, so memory use
+     * grows with the number of objects under the largest prefixes. For a bucket dominated by
+     * a single prefix, start the listing below it with {@link #prefix(String)} or list it
+     * unordered.</p>
+     *
+     * @return a {@link ParallelListOption}
+     */
+    public static ParallelListOption ordered() {
+        return new ParallelListOption(Key.ORDERED, true);
+    }
+
+    /**
+     * Option for returning system metadata with object while listing.
+     *
+     * @return a {@link ParallelListOption}
+     */
+    public static ParallelListOption system() {
+        return new ParallelListOption(Key.SYSTEM, true);
+    }
+
+    /**
+     * Option for returning custom metadata with object while listing.
+     *
+     * @return a {@link ParallelListOption}
+     */
+    public static ParallelListOption custom() {
+        return new ParallelListOption(Key.CUSTOM, true);
+    }
+
+    static Settings internal(ParallelListOption... options) {
+        Settings settings = new Settings();
+        settings.prefix = "";
+        settings.concurrency = DEFAULT_CONCURRENCY;
+        settings.bufferedObjects = DEFAULT_BUFFERED_OBJECTS;
+        for (ParallelListOption option : options) {
+            if (option.key == Key.PREFIX) {
+                settings.prefix = option.value.toString();
+            } else if (option.key == Key.CONCURRENCY) {
+                settings.concurrency = (int) option.value;
+            } else if (option.key == Key.BUFFERED_OBJECTS) {
+                settings.bufferedObjects = (int) option.value;
+            } else if (option.key == Key.ORDERED) {
+                settings.ordered = (boolean) option.value;
+            } else if (option.key == Key.SYSTEM) {
+                settings.system = (boolean) option.value;
+            } else if (option.key == Key.CUSTOM) {
+                settings.custom = (boolean) option.value;
+            }
+        }
+        return settings;
+    }
+
+    static class Settings {
+        String prefix;
+        int concurrency;
+        int bufferedObjects;
+        boolean ordered;
+        boolean system;
+        boolean custom;
+    }
+}
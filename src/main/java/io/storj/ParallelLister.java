@@ -0,0 +1,345 @@
+package io.storj;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lists a bucket by listing its top level non-recursively and then listing each top-level
+ * prefix recursively on a pool of workers.
+ *
+ * <p>The top-level entries, objects and prefixes, partition the key space into disjoint ranges:
+ * all keys under one prefix sort before or after all keys under another. An ordered listing
+ * therefore sorts the top-level entries and concatenates the sorted content of each prefix,
+ * without merging the per-prefix listings. The content of a prefix has to be sorted, because
+ * the satellite returns keys in the order of their encrypted form.</p>
+ *
+ * <p>The workers never reference the iterator behind the stream, so a stream which is neither
+ * consumed nor closed becomes unreachable, and the cleaner stops its workers, which may be
+ * blocked on the full queue of an unordered listing.</p>
+ */
+class ParallelLister {
+
+    /**
+     * Orders keys by their UTF-8 bytes, which is the order of their code points. String order
+     * differs for characters outside the BMP, whose UTF-16 surrogates sort before U+E000-U+FFFF.
+     */
+    private static final Comparator<ObjectInfo> KEY_ORDER = new Comparator<ObjectInfo>() {
+        @Override
+        public int compare(ObjectInfo o1, ObjectInfo o2) {
+            return compareKeys(o1.getKey(), o2.getKey());
+        }
+    };
+
+    private final Project project;
+    private final String bucket;
+    private final ParallelListOption.Settings settings;
+    private final ExecutorService executor;
+
+    ParallelLister(Project project, String bucket, ParallelListOption... options) {
+        this.project = project;
+        this.bucket = bucket;
+        this.settings = ParallelListOption.internal(options);
+        this.executor = Executors.newFixedThreadPool(settings.concurrency, new NamedThreadFactory("parallel-list"));
+    }
+
+    /**
+     * Starts the listing and returns its objects as a sequential stream. Closing the stream
+     * stops the remaining listings.
+     */
+    Stream<ObjectInfo> stream() {
+        ListingIterator iterator = settings.ordered ? new OrderedIterator() : new UnorderedIterator();
+        final NativeCleaner.Cleanable cleanable = NativeCleaner.register(iterator,
+                NativeResources.PARALLEL_LISTING, new Stopper(this.executor));
+        iterator.cleanable = cleanable;
+        Spliterator<ObjectInfo> spliterator = Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.NONNULL | (settings.ordered ? Spliterator.ORDERED : 0));
+        return StreamSupport.stream(spliterator, false).onClose(new Runnable() {
+            @Override
+            public void run() {
+                cleanable.clean();
+            }
+        });
+    }
+
+    /**
+     * Stops the workers, also of a stream which was dropped without being closed.
+     */
+    private static class Stopper implements Runnable {
+
+        private final ExecutorService executor;
+
+        Stopper(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void run() {
+            // interrupts workers blocked on the queue
+            this.executor.shutdownNow();
+        }
+    }
+
+    private ObjectIterator list(String prefix, boolean recursive) {
+        List<ObjectListOption> options = new ArrayList<>();
+        if (!prefix.isEmpty()) {
+            options.add(ObjectListOption.prefix(prefix));
+        }
+        if (recursive) {
+            options.add(ObjectListOption.recursive());
+        }
+        if (settings.system) {
+            options.add(ObjectListOption.system());
+        }
+        if (settings.custom) {
+            options.add(ObjectListOption.custom());
+        }
+        return project.listObjects(bucket, options.toArray(new ObjectListOption[0]));
+    }
+
+    /**
+     * Returns a task listing a prefix recursively and sorting its objects. Created here rather
+     * than in the iterator, so that the task does not reference it.
+     */
+    private Callable<List<ObjectInfo>> listSorted(final String prefix) {
+        return new Callable<List<ObjectInfo>>() {
+            @Override
+            public List<ObjectInfo> call() {
+                List<ObjectInfo> group = new ArrayList<>();
+                try (ObjectIterator objects = list(prefix, true)) {
+                    for (ObjectInfo info : objects) {
+                        group.add(info);
+                    }
+                }
+                Collections.sort(group, KEY_ORDER);
+                return group;
+            }
+        };
+    }
+
+    private static StorjException unwrap(Throwable e) {
+        if (e instanceof StorjException) {
+            return (StorjException) e;
+        }
+        if (e.getCause() instanceof StorjException) {
+            return (StorjException) e.getCause();
+        }
+        return new StorjException(e);
+    }
+
+    private static int compareKeys(String k1, String k2) {
+        int length = Math.min(k1.length(), k2.length());
+        for (int i = 0; i < length; i++) {
+            char c1 = k1.charAt(i);
+            char c2 = k2.charAt(i);
+            if (c1 != c2) {
+                boolean surrogate1 = Character.isSurrogate(c1);
+                if (surrogate1 != Character.isSurrogate(c2)) {
+                    return surrogate1 ? 1 : -1;
+                }
+                return c1 - c2;
+            }
+        }
+        return k1.length() - k2.length();
+    }
+
+    /**
+     * An element of the unordered queue: a listed object, or the end of one listing with its
+     * error, if any.
+     */
+    private static class Item {
+        final ObjectInfo info;
+        final Throwable error;
+
+        Item(ObjectInfo info, Throwable error) {
+            this.info = info;
+            this.error = error;
+        }
+    }
+
+    /**
+     * An iterator over the listing, which stops the workers through its {@link Stopper} once
+     * it is done.
+     */
+    private abstract static class ListingIterator implements Iterator<ObjectInfo> {
+        NativeCleaner.Cleanable cleanable;
+    }
+
+    /**
+     * The queue filled by the workers of an unordered listing. The top-level listing runs as the
+     * first task and submits a task per prefix it finds; every task ends with an end marker in
+     * the queue.
+     */
+    private class UnorderedListing {
+
+        final BlockingQueue<Item> queue = new ArrayBlockingQueue<>(settings.bufferedObjects);
+        final AtomicInteger pendingTasks = new AtomicInteger();
+
+        void submit(final String prefix, final boolean recursive) {
+            pendingTasks.incrementAndGet();
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Throwable error = null;
+                    try (ObjectIterator objects = list(prefix, recursive)) {
+                        for (ObjectInfo info : objects) {
+                            if (info.isPrefix()) {
+                                submit(info.getKey(), true);
+                            } else {
+                                queue.put(new Item(info, null));
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        // stopped by closing the stream
+                        return;
+                    } catch (Throwable e) {
+                        error = e;
+                    }
+                    try {
+                        queue.put(new Item(null, error));
+                    } catch (InterruptedException e) {
+                        // stopped by closing the stream
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns objects as the workers of an {@link UnorderedListing} list them.
+     */
+    private class UnorderedIterator extends ListingIterator {
+
+        private final UnorderedListing listing = new UnorderedListing();
+
+        private Item head;
+        private boolean done;
+
+        UnorderedIterator() {
+            listing.submit(settings.prefix, false);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (head == null && !done) {
+                Item item;
+                try {
+                    item = listing.queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new StorjException(e);
+                }
+                if (item.error != null) {
+                    done = true;
+                    cleanable.clean();
+                    throw unwrap(item.error);
+                }
+                if (item.info != null) {
+                    head = item;
+                } else if (listing.pendingTasks.decrementAndGet() == 0) {
+                    done = true;
+                    cleanable.clean();
+                }
+            }
+            return head != null;
+        }
+
+        @Override
+        public ObjectInfo next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ObjectInfo result = head.info;
+            head = null;
+            return result;
+        }
+    }
+
+    /**
+     * Returns objects in key order. Prefixes are listed and sorted by the workers, at most
+     * concurrency prefixes ahead of the one being returned.
+     */
+    private class OrderedIterator extends ListingIterator {
+
+        private final Deque<Future<List<ObjectInfo>>> pending = new ArrayDeque<>();
+
+        private Iterator<ObjectInfo> entries;
+        private Iterator<ObjectInfo> current = Collections.<ObjectInfo>emptyList().iterator();
+
+        private void listTopLevel() {
+            List<ObjectInfo> topLevel = new ArrayList<>();
+            try (ObjectIterator objects = list(settings.prefix, false)) {
+                for (ObjectInfo info : objects) {
+                    topLevel.add(info);
+                }
+            } catch (RuntimeException e) {
+                cleanable.clean();
+                throw unwrap(e);
+            }
+            Collections.sort(topLevel, KEY_ORDER);
+            entries = topLevel.iterator();
+        }
+
+        private void fill() {
+            while (pending.size() < settings.concurrency && entries.hasNext()) {
+                final ObjectInfo entry = entries.next();
+                if (!entry.isPrefix()) {
+                    pending.add(CompletableFuture.completedFuture(Collections.singletonList(entry)));
+                    continue;
+                }
+                pending.add(executor.submit(listSorted(entry.getKey())));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (entries == null) {
+                listTopLevel();
+            }
+            while (!current.hasNext()) {
+                fill();
+                Future<List<ObjectInfo>> group = pending.poll();
+                if (group == null) {
+                    cleanable.clean();
+                    return false;
+                }
+                try {
+                    current = group.get().iterator();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new StorjException(e);
+                } catch (ExecutionException e) {
+                    cleanable.clean();
+                    throw unwrap(e.getCause());
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public ObjectInfo next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+}
@@ -1,32 +1,74 @@
 package io.storj;
 
 import java.util.Date;
+import java.util.Objects;
 
 /**
  * Represents a set of permission to apply to {@link Access}.
  */
 public class Permission {
 
+    private final boolean allowDownload;
+    private final boolean allowUpload;
+    private final boolean allowList;
+    private final boolean allowDelete;
+    // in seconds since the epoch, 0 if not set
+    private final long notAfter;
+    private final long notBefore;
+
     private JNAUplink.Permission.ByValue cPermission;
 
     Permission(Builder builder) {
-        this.cPermission = new JNAUplink.Permission.ByValue();
-        this.cPermission.allow_upload = (byte) (builder.allowUpload ? 1 : 0);
-        this.cPermission.allow_download = (byte) (builder.allowDownload ? 1 : 0);
-        this.cPermission.allow_list = (byte) (builder.allowList ? 1 : 0);
-        this.cPermission.allow_delete = (byte) (builder.allowDelete ? 1 : 0);
-        if (builder.notAfter != null) {
-            this.cPermission.not_after = builder.notAfter.getTime() / 1000;
-        }
-        if (builder.notBefore != null) {
-            this.cPermission.not_before = builder.notBefore.getTime() / 1000;
-        }
+        this.allowDownload = builder.allowDownload;
+        this.allowUpload = builder.allowUpload;
+        this.allowList = builder.allowList;
+        this.allowDelete = builder.allowDelete;
+        this.notAfter = builder.notAfter != null ? builder.notAfter.getTime() / 1000 : 0;
+        this.notBefore = builder.notBefore != null ? builder.notBefore.getTime() / 1000 : 0;
     }
 
-    JNAUplink.Permission.ByValue internal() {
+    /**
+     * Returns the native permission, created on first use and reused by later shares.
+     */
+    synchronized JNAUplink.Permission.ByValue internal() {
+        if (this.cPermission == null) {
+            JNAUplink.Permission.ByValue cPermission = new JNAUplink.Permission.ByValue();
+            cPermission.allow_upload = (byte) (allowUpload ? 1 : 0);
+            cPermission.allow_download = (byte) (allowDownload ? 1 : 0);
+            cPermission.allow_list = (byte) (allowList ? 1 : 0);
+            cPermission.allow_delete = (byte) (allowDelete ? 1 : 0);
+            cPermission.not_after = notAfter;
+            cPermission.not_before = notBefore;
+            this.cPermission = cPermission;
+        }
         return this.cPermission;
     }
 
+    /**
+     * Returns if the permission has expired, so grants with it no longer work.
+     */
+    boolean isExpired(long nowMillis) {
+        return notAfter != 0 && notAfter * 1000 <= nowMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Permission that = (Permission) o;
+        return allowDownload == that.allowDownload
+                && allowUpload == that.allowUpload
+                && allowList == that.allowList
+                && allowDelete == that.allowDelete
+                && notAfter == that.notAfter
+                && notBefore == that.notBefore;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(allowDownload, allowUpload, allowList, allowDelete, notAfter, notBefore);
+    }
+
     /**
      * Builder for {@link Permission} objects.
      */
@@ -0,0 +1,67 @@
+package io.storj;
+
+/**
+ * A {@link Project} checked out from a {@link ProjectPool}. Closing it returns the underlying
+ * project to the pool instead of closing it.
+ *
+ * <p>Do not use a PooledProject after closing it, as the underlying project may already be
+ * checked out by another thread.</p>
+ */
+public class PooledProject extends Project {
+
+    private final Returner returner;
+    private final NativeCleaner.Cleanable cleanable;
+    private boolean returned;
+    private boolean broken;
+
+    PooledProject(ProjectPool.Partition partition, ProjectPool.Entry entry) {
+        // the pool owns the native project, a collected checkout must not free it
+        super(entry.project.internal(), false);
+        this.returner = new Returner(partition, entry);
+        this.cleanable = NativeCleaner.register(this, NativeResources.POOLED_PROJECT, this.returner);
+    }
+
+    /**
+     * Marks the underlying project as broken, so it is closed instead of being reused when this
+     * PooledProject is closed.
+     */
+    public void invalidate() {
+        this.broken = true;
+    }
+
+    /**
+     * Returns the underlying project to the pool.
+     *
+     * @throws StorjException if closing a broken project fails
+     */
+    @Override
+    public void close() throws StorjException {
+        if (this.returned) {
+            return;
+        }
+        this.returned = true;
+        this.returner.broken = this.broken;
+        this.cleanable.clean();
+    }
+
+    /**
+     * Returns the project to the pool, also for a checkout which was not closed. The project of
+     * a leaked checkout is closed, as it may have been left in any state.
+     */
+    private static class Returner implements Runnable {
+
+        private final ProjectPool.Partition partition;
+        private final ProjectPool.Entry entry;
+        private volatile boolean broken = true;
+
+        Returner(ProjectPool.Partition partition, ProjectPool.Entry entry) {
+            this.partition = partition;
+            this.entry = entry;
+        }
+
+        @Override
+        public void run() {
+            this.partition.release(this.entry, this.broken);
+        }
+    }
+}
@@ -1,5 +1,15 @@
 package io.storj;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * Represents a stateful resource to a project. It allows executing operations
  * like creating, listing, deleting buckets or uploading, downloading, listing, deleting objects.
@@ -20,9 +30,28 @@ package io.storj;
 public class Project implements AutoCloseable {
 
     private JNAUplink.Project.ByReference project;
+    private final Releaser releaser;
+    private final NativeCleaner.Cleanable cleanable;
+    private volatile StatCache statCache;
 
     Project(JNAUplink.Project.ByReference project) {
         this.project = project;
+        this.releaser = new Releaser(project);
+        this.cleanable = NativeCleaner.register(this, NativeResources.PROJECT, this.releaser);
+    }
+
+    /**
+     * Creates a view of a native project owned by another Project, like a {@link PooledProject}.
+     * The view neither closes nor frees the handle, also not when it is garbage collected.
+     */
+    Project(JNAUplink.Project.ByReference project, boolean owned) {
+        this.project = project;
+        this.releaser = new Releaser(project);
+        this.cleanable = owned ? NativeCleaner.register(this, NativeResources.PROJECT, this.releaser) : null;
+    }
+
+    JNAUplink.Project.ByReference internal() {
+        return this.project;
     }
 
     /**
@@ -32,8 +61,24 @@ public class Project implements AutoCloseable {
      * @return the bucket info
      * @throws StorjException if an error occurs during the deletion
      */
-    public BucketInfo statBucket(String bucket) throws StorjException {
+    public BucketInfo statBucket(final String bucket) throws StorjException {
+        StatCache cache = this.statCache;
+        if (cache != null) {
+            return cache.statBucket(bucket, new StatCache.Loader<BucketInfo>() {
+                @Override
+                public BucketInfo load() throws StorjException {
+                    return statBucketNative(bucket);
+                }
+            });
+        }
+        return statBucketNative(bucket);
+    }
+
+    private BucketInfo statBucketNative(String bucket) throws StorjException {
         JNAUplink.BucketResult.ByValue result = JNAUplink.INSTANCE.uplink_stat_bucket(this.project, bucket);
+        // keeps an unreferenced project, as in openProject(access).statBucket(bucket), open during
+        // the call; the other operations use the project after their native call anyway
+        NativeCleaner.keepAlive(this);
         ExceptionUtil.handleError(result.error);
 
         BucketInfo bucketInfo = new BucketInfo(result.bucket);
@@ -57,6 +102,7 @@ public class Project implements AutoCloseable {
             bucketInfo = new BucketInfo(result.bucket);
         } finally {
             JNAUplink.INSTANCE.uplink_free_bucket_result(result);
+            invalidateBucket(bucket);
         }
         return bucketInfo;
     }
@@ -77,12 +123,13 @@ public class Project implements AutoCloseable {
             bucketInfo = new BucketInfo(result.bucket);
         } finally {
             JNAUplink.INSTANCE.uplink_free_bucket_result(result);
+            invalidateBucket(bucket);
         }
         return bucketInfo;
     }
 
     public BucketIterator listBuckets(BucketListOption... options) {
-        return new BucketIterator(this.project, options);
+        return new BucketIterator(this, options);
     }
 
     /**
@@ -101,6 +148,7 @@ public class Project implements AutoCloseable {
             bucketInfo = new BucketInfo(deleteBucket.bucket);
         } finally {
             JNAUplink.INSTANCE.uplink_free_bucket_result(deleteBucket);
+            invalidateBucket(bucket);
         }
         return bucketInfo;
     }
@@ -113,11 +161,25 @@ public class Project implements AutoCloseable {
      * @return the object info
      * @throws StorjException if an error occurs during the deletion
      */
-    public ObjectInfo statObject(String bucket, String key) throws StorjException {
+    public ObjectInfo statObject(final String bucket, final String key) throws StorjException {
+        StatCache cache = this.statCache;
+        if (cache != null) {
+            return cache.statObject(bucket, key, new StatCache.Loader<ObjectInfo>() {
+                @Override
+                public ObjectInfo load() throws StorjException {
+                    return statObjectNative(bucket, key);
+                }
+            });
+        }
+        return statObjectNative(bucket, key);
+    }
+
+    private ObjectInfo statObjectNative(String bucket, String key) throws StorjException {
         JNAUplink.ObjectResult.ByValue statObject = null;
         ObjectInfo objectInfo = null;
         try {
             statObject = JNAUplink.INSTANCE.uplink_stat_object(this.project, bucket, key);
+            NativeCleaner.keepAlive(this);
             ExceptionUtil.handleError(statObject.error);
             objectInfo = new ObjectInfo(statObject.object);
         } finally {
@@ -131,6 +193,8 @@ public class Project implements AutoCloseable {
         try {
             ExceptionUtil.handleError(error);
         } finally {
+            invalidate(oldBucket, oldKey);
+            invalidate(newBucket, newKey);
             if (error != null) {
                 // autoread is required here to avoid re-reading the fields which are already free-d by the uplink-c.
                 error.setAutoRead(false);
@@ -160,12 +224,58 @@ public class Project implements AutoCloseable {
             objectInfo = new ObjectInfo(statObject.object);
         } finally {
             JNAUplink.INSTANCE.uplink_free_object_result(statObject);
-
+            invalidate(bucket, key);
         }
 
         return objectInfo;
     }
 
+    /**
+     * Deletes several objects from a bucket, running a bounded number of deletions at the same
+     * time.
+     *
+     * <p>Deletions start as the returned iterator is consumed. The results come back in the
+     * order of the keys, one per key, and report whether the object was deleted, did not exist,
+     * or could not be deleted. Failures never interrupt the batch.</p>
+     *
+     * @param bucket  the bucket name
+     * @param keys    the keys of the objects to delete
+     * @param options options to apply on the batch
+     * @return an iterator over the per-key results, which must be closed
+     */
+    public DeleteResultIterator deleteObjects(String bucket, Iterable<String> keys, DeleteObjectsOption... options) {
+        return new DeleteResultIterator(this, bucket, keys.iterator(), null, null, options);
+    }
+
+    /**
+     * Deletes all objects with the given key prefix from a bucket. The keys are taken from a
+     * recursive listing of the prefix while deleting.
+     *
+     * <p>If the listing itself fails, the iterator ends with a result whose key is the prefix
+     * and whose error is the listing error.</p>
+     *
+     * @param bucket  the bucket name
+     * @param prefix  the key prefix of the objects to delete
+     * @param options options to apply on the batch
+     * @return an iterator over the per-key results, which must be closed
+     * @see #deleteObjects(String, Iterable, DeleteObjectsOption...)
+     */
+    public DeleteResultIterator deleteObjectsWithPrefix(String bucket, String prefix, DeleteObjectsOption... options) {
+        final ObjectIterator objects = listObjects(bucket, ObjectListOption.prefix(prefix), ObjectListOption.recursive());
+        Iterator<String> keys = new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                return objects.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return objects.next().getKey();
+            }
+        };
+        return new DeleteResultIterator(this, bucket, keys, objects, prefix, options);
+    }
+
     /**
      * Uploads the content to a new object in this bucket.
      *
@@ -180,7 +290,7 @@ public class Project implements AutoCloseable {
                 ObjectUploadOption.internal(options));
         ExceptionUtil.handleError(uploadResult.error);
 
-        return new ObjectOutputStream(uploadResult.upload);
+        return new ObjectOutputStream(this, uploadResult.upload, invalidator(bucket, key));
     }
 
     /**
@@ -197,7 +307,236 @@ public class Project implements AutoCloseable {
                 ObjectDownloadOption.internal(options));
         ExceptionUtil.handleError(downloadResult.error);
 
-        return new ObjectInputStream(downloadResult.download);
+        return new ObjectInputStream(this, downloadResult.download, ObjectDownloadOption.readAheadSettings(options));
+    }
+
+    /**
+     * Uploads the content to a new object in this bucket through a {@link java.nio.channels.WritableByteChannel}.
+     *
+     * @param bucket  the bucket name
+     * @param key     an object key
+     * @param options options to apply on the new object
+     * @return channel which can be used for upload
+     * @throws StorjException if an error occurs during the upload
+     */
+    public ObjectWritableChannel uploadObjectChannel(String bucket, String key, ObjectUploadOption... options) throws StorjException {
+        JNAUplink.UploadResult.ByValue uploadResult = JNAUplink.INSTANCE.uplink_upload_object(this.project, bucket, key,
+                ObjectUploadOption.internal(options));
+        ExceptionUtil.handleError(uploadResult.error);
+
+        return new ObjectWritableChannel(this, uploadResult.upload, invalidator(bucket, key));
+    }
+
+    /**
+     * Starts a download from the specific key through a {@link java.nio.channels.ReadableByteChannel}.
+     *
+     * @param bucket  the bucket name
+     * @param key     an object key
+     * @param options options to apply while downloading
+     * @return channel which can be used to download object
+     * @throws StorjException if an error occurs during the download
+     */
+    public ObjectReadableChannel downloadObjectChannel(String bucket, String key, ObjectDownloadOption... options) throws StorjException {
+        JNAUplink.DownloadResult.ByValue downloadResult = JNAUplink.INSTANCE.uplink_download_object(this.project, bucket, key,
+                ObjectDownloadOption.internal(options));
+        ExceptionUtil.handleError(downloadResult.error);
+
+        return new ObjectReadableChannel(this, downloadResult.download);
+    }
+
+    /**
+     * Opens an object for random access through a {@link java.nio.channels.SeekableByteChannel}.
+     *
+     * @param bucket  the bucket name
+     * @param key     an object key
+     * @param options options to apply while reading
+     * @return channel which can be used to read the object at any position
+     * @throws StorjException if an error occurs while retrieving the object info
+     */
+    public ObjectSeekableChannel downloadObjectSeekable(String bucket, String key, SeekableChannelOption... options) throws StorjException {
+        return new ObjectSeekableChannel(this, bucket, key, options);
+    }
+
+    /**
+     * Downloads an object with several parallel ranged downloads and returns its content as a
+     * single stream, reassembled in order.
+     *
+     * <p>The object is split into parts of {@link ParallelDownloadOption#partSize(long)} bytes,
+     * which are downloaded in the background. At most
+     * {@link ParallelDownloadOption#bufferedParts(int)} parts are held in memory, so a slow reader
+     * pauses the download instead of buffering the whole object. Closing the stream cancels the
+     * remaining parts.</p>
+     *
+     * @param bucket  the bucket name
+     * @param key     an object key
+     * @param options options to apply while downloading
+     * @return input stream which can be used to download object
+     * @throws StorjException if an error occurs while retrieving the object info
+     */
+    public InputStream downloadObjectParallel(String bucket, String key, ParallelDownloadOption... options) throws StorjException {
+        return new ParallelDownloader(this, bucket, key, options).stream();
+    }
+
+    /**
+     * Downloads an object with several parallel ranged downloads directly into a file. Each part
+     * is written at its own position, so no reordering in memory is needed.
+     *
+     * @param bucket  the bucket name
+     * @param key     an object key
+     * @param target  the file channel to write the object content to, starting at position 0
+     * @param options options to apply while downloading
+     * @return the number of bytes written
+     * @throws StorjException if an error occurs while retrieving the object info
+     * @throws IOException    if an error occurs while downloading or writing any part
+     */
+    public long downloadObjectParallel(String bucket, String key, FileChannel target, ParallelDownloadOption... options) throws StorjException, IOException {
+        return new ParallelDownloader(this, bucket, key, options).transferTo(target, 0);
+    }
+
+    /**
+     * Uploads the content of a stream to a new object as a multipart upload, sending several
+     * parts at the same time.
+     *
+     * <p>The stream is read sequentially into part buffers of
+     * {@link MultipartUploadOption#partSize(long)} bytes. At most
+     * {@link MultipartUploadOption#bufferedParts(int)} parts are held in memory, so reading pauses
+     * while all buffers are being uploaded. A failed part is retried up to
+     * {@link MultipartUploadOption#retries(int)} times; if it still fails, the whole upload is
+     * aborted.</p>
+     *
+     * @param bucket  the bucket name
+     * @param key     an object key
+     * @param source  the content of the new object
+     * @param options options to apply on the upload
+     * @return the info of the committed object
+     * @throws StorjException if an error occurs while starting the upload
+     * @throws IOException    if an error occurs while reading the source or uploading any part
+     */
+    public ObjectInfo uploadObjectMultipart(String bucket, String key, InputStream source, MultipartUploadOption... options) throws StorjException, IOException {
+        try {
+            return new MultipartUploader(this, bucket, key, options).upload(source);
+        } finally {
+            invalidate(bucket, key);
+        }
+    }
+
+    /**
+     * Uploads the content of a channel to a new object as a multipart upload. Parts are read
+     * directly into native memory, without copying through the Java heap.
+     *
+     * @param bucket  the bucket name
+     * @param key     an object key
+     * @param source  the content of the new object
+     * @param options options to apply on the upload
+     * @return the info of the committed object
+     * @throws StorjException if an error occurs while starting the upload
+     * @throws IOException    if an error occurs while reading the source or uploading any part
+     * @see #uploadObjectMultipart(String, String, InputStream, MultipartUploadOption...)
+     */
+    public ObjectInfo uploadObjectMultipart(String bucket, String key, ReadableByteChannel source, MultipartUploadOption... options) throws StorjException, IOException {
+        try {
+            return new MultipartUploader(this, bucket, key, options).upload(source);
+        } finally {
+            invalidate(bucket, key);
+        }
+    }
+
+    /**
+     * Uploads a file to a new object as a multipart upload.
+     *
+     * @param bucket  the bucket name
+     * @param key     an object key
+     * @param source  the file to upload
+     * @param options options to apply on the upload
+     * @return the info of the committed object
+     * @throws StorjException if an error occurs while starting the upload
+     * @throws IOException    if an error occurs while reading the file or uploading any part
+     * @see #uploadObjectMultipart(String, String, InputStream, MultipartUploadOption...)
+     */
+    public ObjectInfo uploadObjectMultipart(String bucket, String key, Path source, MultipartUploadOption... options) throws StorjException, IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            return uploadObjectMultipart(bucket, key, channel, options);
+        }
+    }
+
+    /**
+     * Enables caching of {@link #statObject(String, String)} and {@link #statBucket(String)}
+     * results, replacing the cache enabled before, if any.
+     *
+     * @param options options for the size and expiration of the cache
+     * @return the {@link StatCache}, for its metrics and explicit invalidation
+     */
+    public StatCache enableStatCache(StatCacheOption... options) {
+        StatCache cache = new StatCache(options);
+        this.statCache = cache;
+        return cache;
+    }
+
+    /**
+     * Disables caching of {@link #statObject(String, String)} and {@link #statBucket(String)}
+     * results.
+     */
+    public void disableStatCache() {
+        this.statCache = null;
+    }
+
+    /**
+     * Returns the stat cache enabled with {@link #enableStatCache(StatCacheOption...)}.
+     *
+     * @return the cache, or <code>null</code> if disabled
+     */
+    public StatCache getStatCache() {
+        return this.statCache;
+    }
+
+    private void invalidate(String bucket, String key) {
+        StatCache cache = this.statCache;
+        if (cache != null) {
+            cache.invalidate(bucket, key);
+        }
+    }
+
+    private void invalidateBucket(String bucket) {
+        StatCache cache = this.statCache;
+        if (cache != null) {
+            cache.invalidateBucket(bucket);
+        }
+    }
+
+    /**
+     * Returns the action run by uploads on commit, or <code>null</code> without a stat cache.
+     */
+    private Runnable invalidator(final String bucket, final String key) {
+        if (this.statCache == null) {
+            return null;
+        }
+        return new Runnable() {
+            @Override
+            public void run() {
+                invalidate(bucket, key);
+            }
+        };
+    }
+
+    /**
+     * Returns a view of this project which serves downloads from a local on-disk cache.
+     *
+     * @param options options for the cache directory, size and eviction
+     * @return a {@link CachingProject} backed by this project
+     */
+    public CachingProject caching(CachingProjectOption... options) {
+        return new CachingProject(this, options);
+    }
+
+    /**
+     * Returns a view of this project whose metadata operations run asynchronously and return
+     * {@link java.util.concurrent.CompletableFuture}s.
+     *
+     * @param options options for the executor and concurrency of the asynchronous operations
+     * @return an {@link AsyncProject} backed by this project
+     */
+    public AsyncProject async(AsyncProjectOption... options) {
+        return new AsyncProject(this, options);
     }
 
     /**
@@ -208,12 +547,130 @@ public class Project implements AutoCloseable {
      * @return an {@link Iterable}&lt;{@link ObjectInfo}&gt;
      */
     public ObjectIterator listObjects(String bucket, ObjectListOption... options) {
-        return new ObjectIterator(this.project, bucket, options);
+        return new ObjectIterator(this, bucket, options);
+    }
+
+    /**
+     * Lists the objects in a bucket into columnar storage, keeping only the key, content length,
+     * creation and expiration time of each object. The whole listing is read before this method
+     * returns, without creating an {@link ObjectInfo} per object.
+     *
+     * @param bucket  the bucket name
+     * @param options an optional list of {@link ObjectListOption}; system metadata is always
+     *                included
+     * @return the listed objects in columnar form
+     * @throws StorjException if the listing fails
+     */
+    public ObjectColumns listObjectColumns(String bucket, ObjectListOption... options) throws StorjException {
+        try {
+            return ObjectColumns.list(this.project, bucket, options);
+        } finally {
+            NativeCleaner.keepAlive(this);
+        }
+    }
+
+    /**
+     * Lists the objects in a bucket as a {@link Stream}.
+     *
+     * <p>The stream splits the listing into array-backed batches, so parallel streams process
+     * the listed objects on several cores while the listing itself is read sequentially. Close
+     * the stream to free the underlying native iterator:</p>
+     *
+     * <pre>
+     * {@code try (Stream<ObjectInfo> objects = project.objects("my-bucket", ObjectListOption.system())) {
+     *     long size = objects.parallel().mapToLong(o -> o.getSystemMetadata().getContentLength()).sum();
+     * }
+     * }
+     * </pre>
+     *
+     * @param bucket  the bucket name
+     * @param options an optional list of {@link ObjectListOption}
+     * @return a stream of the listed objects
+     */
+    public Stream<ObjectInfo> objects(String bucket, ObjectListOption... options) {
+        final ObjectIterator iterator = listObjects(bucket, options);
+        return StreamSupport.stream(new BatchSpliterator<>(iterator), false).onClose(new Runnable() {
+            @Override
+            public void run() {
+                iterator.close();
+            }
+        });
+    }
+
+    /**
+     * Lists the buckets in this project as a {@link Stream}. Close the stream to free the
+     * underlying native iterator.
+     *
+     * @param options an optional list of {@link BucketListOption}
+     * @return a stream of the listed buckets
+     * @see #objects(String, ObjectListOption...)
+     */
+    public Stream<BucketInfo> buckets(BucketListOption... options) {
+        final BucketIterator iterator = listBuckets(options);
+        return StreamSupport.stream(new BatchSpliterator<>(iterator), false).onClose(new Runnable() {
+            @Override
+            public void run() {
+                iterator.close();
+            }
+        });
+    }
+
+    /**
+     * Lists all objects in a bucket with several parallel listings.
+     *
+     * <p>The top level of the bucket, or of {@link ParallelListOption#prefix(String)}, is listed
+     * first. Each prefix found there is then listed recursively on a pool of
+     * {@link ParallelListOption#concurrency(int)} workers. With {@link ParallelListOption#ordered()}
+     * the objects are returned in lexicographic key order, otherwise in the order they arrive.</p>
+     *
+     * <p>The stream is sequential and should be closed with try-with-resources to stop the
+     * remaining listings if it is not fully consumed. A stream which is dropped without being
+     * closed stops its listings only once it is garbage collected, and is counted as a leak by
+     * {@link NativeResources}. Listing errors are thrown as {@link StorjException} from the
+     * terminal operation.</p>
+     *
+     * @param bucket  the bucket name
+     * @param options options to apply on the listing
+     * @return a stream of all objects under the listed prefix
+     */
+    public Stream<ObjectInfo> listObjectsParallel(String bucket, ParallelListOption... options) {
+        return new ParallelLister(this, bucket, options).stream();
     }
 
     @Override
     public void close() throws StorjException {
+        if (this.cleanable == null || !this.releaser.markClosed()) {
+            return;
+        }
         JNAUplink.Error.ByReference result = JNAUplink.INSTANCE.uplink_close_project(this.project);
-        ExceptionUtil.handleError(result);
+        try {
+            ExceptionUtil.handleError(result);
+        } finally {
+            this.cleanable.clean();
+        }
+    }
+
+    /**
+     * Closes and frees the native project, also for a project which was not closed.
+     */
+    private static class Releaser extends NativeCleaner.Releaser {
+
+        private final JNAUplink.Project.ByReference project;
+
+        Releaser(JNAUplink.Project.ByReference project) {
+            this.project = project;
+        }
+
+        @Override
+        void close() {
+            JNAUplink.INSTANCE.uplink_close_project(this.project);
+        }
+
+        @Override
+        void free() {
+            JNAUplink.ProjectResult.ByValue result = new JNAUplink.ProjectResult.ByValue();
+            result.project = this.project;
+            JNAUplink.INSTANCE.uplink_free_project_result(result);
+        }
     }
 }
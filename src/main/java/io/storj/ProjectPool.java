@@ -0,0 +1,366 @@
+package io.storj;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe pool of open {@link Project}s, so that requests do not pay for parsing the
+ * access grant and dialing the satellite on every {@link Uplink#openProject(Access)}.
+ *
+ * <p>Projects are pooled separately per access grant and {@link UplinkOption} configuration.
+ * Checked out projects are returned to the pool by closing them:</p>
+ *
+ * <pre>
+ * {@code ProjectPool pool = new ProjectPool(ProjectPoolOption.maxSize(16));
+ * try (PooledProject project = pool.checkout(uplink, access)) {
+ *     project.statObject("my-bucket", "my-key");
+ * }
+ * }
+ * </pre>
+ *
+ * <p>Idle projects beyond {@link ProjectPoolOption#minSize(int)} are closed by a background
+ * thread after {@link ProjectPoolOption#maxIdleTime(long)}, and access grants without projects
+ * are forgotten. Closing the pool closes all idle projects immediately and all checked out
+ * projects when they are returned. A checkout which is garbage collected without being closed
+ * frees its slot, closing its project.</p>
+ */
+public class ProjectPool implements AutoCloseable {
+
+    private final ProjectPoolOption.Settings settings;
+    private final Map<PartitionKey, Partition> partitions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    private final AtomicLong checkouts = new AtomicLong();
+    private final AtomicLong checkoutTimeouts = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong closedProjects = new AtomicLong();
+    private final AtomicLong failedHealthChecks = new AtomicLong();
+
+    /**
+     * Creates a new pool.
+     *
+     * @param options options for the pool size, eviction and health checks
+     */
+    public ProjectPool(ProjectPoolOption... options) {
+        this.settings = ProjectPoolOption.internal(options);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("project-pool"));
+        long interval = Math.max(settings.maxIdleTime / 2, 1);
+        this.evictor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                Iterator<Partition> iterator = partitions.values().iterator();
+                while (iterator.hasNext()) {
+                    Partition partition = iterator.next();
+                    partition.maintain();
+                    if (partition.retireIfUnused()) {
+                        // so the pool does not grow with every access grant ever used
+                        iterator.remove();
+                    }
+                }
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Checks out a project for the given access, opened with the configuration of the given
+     * {@link Uplink}. An idle project is reused if there is one, otherwise a new one is opened
+     * unless the pool is at its maximum size, in which case the call waits for a project to be
+     * returned.
+     *
+     * @param uplink the uplink whose options configure the project
+     * @param access the access grant
+     * @return a project which must be closed to return it to the pool
+     * @throws StorjException if the pool is closed, opening a project fails, or no project
+     *                        became available within the checkout timeout
+     */
+    public PooledProject checkout(Uplink uplink, Access access) throws StorjException {
+        if (this.closed) {
+            throw new StorjException("project pool is closed");
+        }
+        PartitionKey key = new PartitionKey(access.serializedAccess, uplink.options());
+        long start = System.nanoTime();
+        PooledProject project;
+        do {
+            Partition partition = this.partitions.get(key);
+            if (partition == null) {
+                Partition created = new Partition(uplink, access);
+                partition = this.partitions.putIfAbsent(key, created);
+                if (partition == null) {
+                    partition = created;
+                }
+            }
+            // null if the partition was retired meanwhile, a new one is created then
+            project = partition.checkout(start);
+        } while (project == null);
+        long waited = System.nanoTime() - start;
+        this.checkouts.incrementAndGet();
+        this.totalWaitNanos.addAndGet(waited);
+        long max;
+        while (waited > (max = this.maxWaitNanos.get()) && !this.maxWaitNanos.compareAndSet(max, waited)) {
+            // retry until the maximum is updated or a larger wait was recorded
+        }
+        return project;
+    }
+
+    /**
+     * Returns a snapshot of the pool metrics.
+     *
+     * @return the current {@link ProjectPoolStats}
+     */
+    public ProjectPoolStats getStats() {
+        int active = 0;
+        int idle = 0;
+        for (Partition partition : this.partitions.values()) {
+            synchronized (partition) {
+                active += partition.active;
+                idle += partition.idle.size();
+            }
+        }
+        return new ProjectPoolStats(active, idle, this.checkouts.get(), this.checkoutTimeouts.get(),
+                this.totalWaitNanos.get(), this.maxWaitNanos.get(), this.opened.get(), this.closedProjects.get(),
+                this.failedHealthChecks.get());
+    }
+
+    /**
+     * Closes the pool. Idle projects are closed immediately, checked out projects when they are
+     * returned. Waiting checkouts fail.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        this.evictor.shutdownNow();
+        for (Partition partition : this.partitions.values()) {
+            partition.close();
+        }
+    }
+
+    private void closeQuietly(Entry entry) {
+        this.closedProjects.incrementAndGet();
+        try {
+            entry.project.close();
+        } catch (StorjException e) {
+            // the project is discarded either way
+        }
+    }
+
+    private static class PartitionKey {
+        private final String access;
+        private final List<UplinkOption> options;
+
+        PartitionKey(String access, UplinkOption[] options) {
+            this.access = access;
+            this.options = Arrays.asList(options);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            PartitionKey that = (PartitionKey) o;
+            return Objects.equals(access, that.access) && Objects.equals(options, that.options);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(access, options);
+        }
+    }
+
+    static class Entry {
+        final Project project;
+        long lastUsed;
+
+        Entry(Project project) {
+            this.project = project;
+            this.lastUsed = System.nanoTime();
+        }
+    }
+
+    /**
+     * The projects of one access grant and configuration. The idle projects form a stack, so the
+     * most recently used project is reused first and the others can age out.
+     */
+    class Partition {
+
+        private final Uplink uplink;
+        private final Access access;
+        private final Deque<Entry> idle = new ArrayDeque<>();
+        private int active;
+        private boolean retired;
+
+        Partition(Uplink uplink, Access access) {
+            this.uplink = uplink;
+            this.access = access;
+        }
+
+        PooledProject checkout(long start) throws StorjException {
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(settings.checkoutTimeout);
+            while (true) {
+                Entry entry;
+                synchronized (this) {
+                    while (true) {
+                        if (closed) {
+                            throw new StorjException("project pool is closed");
+                        }
+                        if (this.retired) {
+                            return null;
+                        }
+                        entry = this.idle.pollFirst();
+                        if (entry != null || total() < settings.maxSize) {
+                            break;
+                        }
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            checkoutTimeouts.incrementAndGet();
+                            throw new StorjException("timed out after " + settings.checkoutTimeout
+                                    + " ms waiting for a pooled project");
+                        }
+                        try {
+                            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new StorjException(e);
+                        }
+                    }
+                    this.active++;
+                }
+
+                if (entry == null) {
+                    return new PooledProject(this, open());
+                }
+                if (isHealthy(entry)) {
+                    return new PooledProject(this, entry);
+                }
+                failedHealthChecks.incrementAndGet();
+                closeQuietly(entry);
+                synchronized (this) {
+                    this.active--;
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Opens a project for a slot already counted as active.
+         */
+        private Entry open() throws StorjException {
+            try {
+                Entry entry = new Entry(this.uplink.openProject(this.access));
+                opened.incrementAndGet();
+                return entry;
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    this.active--;
+                    notifyAll();
+                }
+                throw e;
+            }
+        }
+
+        private boolean isHealthy(Entry entry) {
+            if (settings.healthCheck == null
+                    || System.nanoTime() - entry.lastUsed < TimeUnit.MILLISECONDS.toNanos(settings.healthCheckInterval)) {
+                return true;
+            }
+            try {
+                return settings.healthCheck.test(entry.project);
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+
+        private int total() {
+            return this.idle.size() + this.active;
+        }
+
+        /**
+         * Retires the partition if it has no projects, so it can be removed from the pool.
+         */
+        synchronized boolean retireIfUnused() {
+            if (total() > 0) {
+                return false;
+            }
+            this.retired = true;
+            return true;
+        }
+
+        void release(Entry entry, boolean broken) {
+            synchronized (this) {
+                this.active--;
+                notifyAll();
+                if (!broken && !closed) {
+                    entry.lastUsed = System.nanoTime();
+                    this.idle.addFirst(entry);
+                    return;
+                }
+            }
+            closeQuietly(entry);
+        }
+
+        /**
+         * Closes projects idle for longer than the maximum idle time, keeping the minimum size,
+         * and opens projects up to the minimum size.
+         */
+        void maintain() {
+            List<Entry> expired = new ArrayList<>();
+            synchronized (this) {
+                long now = System.nanoTime();
+                long maxIdle = TimeUnit.MILLISECONDS.toNanos(settings.maxIdleTime);
+                // the oldest projects are at the end of the stack
+                Iterator<Entry> oldest = this.idle.descendingIterator();
+                while (oldest.hasNext() && total() > settings.minSize) {
+                    Entry entry = oldest.next();
+                    if (now - entry.lastUsed < maxIdle) {
+                        break;
+                    }
+                    oldest.remove();
+                    expired.add(entry);
+                }
+            }
+            for (Entry entry : expired) {
+                closeQuietly(entry);
+            }
+
+            while (true) {
+                synchronized (this) {
+                    if (closed || total() >= settings.minSize) {
+                        return;
+                    }
+                    this.active++;
+                }
+                try {
+                    release(open(), false);
+                } catch (StorjException e) {
+                    // retried on the next run
+                    return;
+                }
+            }
+        }
+
+        void close() {
+            List<Entry> entries;
+            synchronized (this) {
+                entries = new ArrayList<>(this.idle);
+                this.idle.clear();
+                notifyAll();
+            }
+            for (Entry entry : entries) {
+                closeQuietly(entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package io.storj;
+
+import java.util.function.Predicate;
+
+/**
+ * Options for configuring a {@link ProjectPool}.
+ */
+public class ProjectPoolOption {
+
+    static final int DEFAULT_MAX_SIZE = 8;
+    static final long DEFAULT_MAX_IDLE_TIME = 5 * 60 * 1000;
+    static final long DEFAULT_CHECKOUT_TIMEOUT = 30 * 1000;
+    static final long DEFAULT_HEALTH_CHECK_INTERVAL = 30 * 1000;
+
+    private enum Key {
+        MIN_SIZE,
+        MAX_SIZE,
+        MAX_IDLE_TIME,
+        CHECKOUT_TIMEOUT,
+        HEALTH_CHECK,
+        HEALTH_CHECK_INTERVAL,
+    }
+
+    private Key key;
+
+    private Object value;
+
+    ProjectPoolOption(Key key, Object value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * Option for the number of projects kept open per access and configuration, even when idle.
+     * Defaults to 0.
+     *
+     * @param minSize the minimum number of open projects
+     * @return a {@link ProjectPoolOption}
+     */
+    public static ProjectPoolOption minSize(int minSize) {
+        if (minSize < 0) {
+            throw new IllegalArgumentException("min size must not be negative: " + minSize);
+        }
+        return new ProjectPoolOption(Key.MIN_SIZE, minSize);
+    }
+
+    /**
+     * Option for the maximum number of open projects per access and configuration. Checkouts
+     * beyond it wait for a project to be returned. Defaults to 8.
+     *
+     * @param maxSize the maximum number of open projects
+     * @return a {@link ProjectPoolOption}
+     */
+    public static ProjectPoolOption maxSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("max size must be positive: " + maxSize);
+        }
+        return new ProjectPoolOption(Key.MAX_SIZE, maxSize);
+    }
+
+    /**
+     * Option for how long a project may stay idle before it is closed, unless it is needed to
+     * keep the minimum size. Defaults to 5 minutes.
+     *
+     * @param maxIdleTime the maximum idle time in milliseconds
+     * @return a {@link ProjectPoolOption}
+     */
+    public static ProjectPoolOption maxIdleTime(long maxIdleTime) {
+        if (maxIdleTime < 1) {
+            throw new IllegalArgumentException("max idle time must be positive: " + maxIdleTime);
+        }
+        return new ProjectPoolOption(Key.MAX_IDLE_TIME, maxIdleTime);
+    }
+
+    /**
+     * Option for how long a checkout waits for a project when the pool is at its maximum size.
+     * Defaults to 30 seconds.
+     *
+     * @param checkoutTimeout the checkout timeout in milliseconds
+     * @return a {@link ProjectPoolOption}
+     */
+    public static ProjectPoolOption checkoutTimeout(long checkoutTimeout) {
+        if (checkoutTimeout < 0) {
+            throw new IllegalArgumentException("checkout timeout must not be negative: " + checkoutTimeout);
+        }
+        return new ProjectPoolOption(Key.CHECKOUT_TIMEOUT, checkoutTimeout);
+    }
+
+    /**
+     * Option for a check run on an idle project before it is checked out. A project for which
+     * the check returns <code>false</code> or throws is closed and replaced. If not set, projects
+     * are not checked.
+     *
+     * @param healthCheck the check, for example listing a known bucket
+     * @return a {@link ProjectPoolOption}
+     */
+    public static ProjectPoolOption healthCheck(Predicate<Project> healthCheck) {
+        return new ProjectPoolOption(Key.HEALTH_CHECK, healthCheck);
+    }
+
+    /**
+     * Option for how long a project may be idle before it is checked again on checkout.
+     * Defaults to 30 seconds.
+     *
+     * @param healthCheckInterval the idle time in milliseconds after which projects are checked
+     * @return a {@link ProjectPoolOption}
+     */
+    public static ProjectPoolOption healthCheckInterval(long healthCheckInterval) {
+        if (healthCheckInterval < 0) {
+            throw new IllegalArgumentException("health check interval must not be negative: " + healthCheckInterval);
+        }
+        return new ProjectPoolOption(Key.HEALTH_CHECK_INTERVAL, healthCheckInterval);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Settings internal(ProjectPoolOption... options) {
+        Settings settings = new Settings();
+        settings.maxSize = DEFAULT_MAX_SIZE;
+        settings.maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+        settings.checkoutTimeout = DEFAULT_CHECKOUT_TIMEOUT;
+        settings.healthCheckInterval = DEFAULT_HEALTH_CHECK_INTERVAL;
+        for (ProjectPoolOption option : options) {
+            if (option.key == Key.MIN_SIZE) {
+                settings.minSize = (int) option.value;
+            } else if (option.key == Key.MAX_SIZE) {
+                settings.maxSize = (int) option.value;
+            } else if (option.key == Key.MAX_IDLE_TIME) {
+                settings.maxIdleTime = (long) option.value;
+            } else if (option.key == Key.CHECKOUT_TIMEOUT) {
+                settings.checkoutTimeout = (long) option.value;
+            } else if (option.key == Key.HEALTH_CHECK) {
+                settings.healthCheck = (Predicate<Project>) option.value;
+            } else if (option.key == Key.HEALTH_CHECK_INTERVAL) {
+                settings.healthCheckInterval = (long) option.value;
+            }
+        }
+        if (settings.minSize > settings.maxSize) {
+            throw new IllegalArgumentException("min size " + settings.minSize + " exceeds max size " + settings.maxSize);
+        }
+        return settings;
+    }
+
+    static class Settings {
+        int minSize;
+        int maxSize;
+        long maxIdleTime;
+        long checkoutTimeout;
+        Predicate<Project> healthCheck;
+        long healthCheckInterval;
+    }
+}
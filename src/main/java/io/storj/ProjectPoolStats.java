@@ -0,0 +1,138 @@
+package io.storj;
+
+/**
+ * A snapshot of the metrics of a {@link ProjectPool}.
+ *
+ * @see ProjectPool#getStats()
+ */
+public class ProjectPoolStats {
+
+    private final int active;
+    private final int idle;
+    private final long checkouts;
+    private final long checkoutTimeouts;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long opened;
+    private final long closed;
+    private final long failedHealthChecks;
+
+    ProjectPoolStats(int active, int idle, long checkouts, long checkoutTimeouts, long totalWaitNanos,
+                     long maxWaitNanos, long opened, long closed, long failedHealthChecks) {
+        this.active = active;
+        this.idle = idle;
+        this.checkouts = checkouts;
+        this.checkoutTimeouts = checkoutTimeouts;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.opened = opened;
+        this.closed = closed;
+        this.failedHealthChecks = failedHealthChecks;
+    }
+
+    /**
+     * Returns the number of projects currently checked out or being opened.
+     *
+     * @return the number of active projects
+     */
+    public int getActive() {
+        return active;
+    }
+
+    /**
+     * Returns the number of open projects waiting in the pool.
+     *
+     * @return the number of idle projects
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * Returns the share of open projects which are checked out.
+     *
+     * @return the utilization between 0 and 1
+     */
+    public double getUtilization() {
+        int total = active + idle;
+        return total == 0 ? 0 : (double) active / total;
+    }
+
+    /**
+     * Returns the number of successful checkouts.
+     *
+     * @return the number of checkouts
+     */
+    public long getCheckouts() {
+        return checkouts;
+    }
+
+    /**
+     * Returns the number of checkouts which failed waiting for a project.
+     *
+     * @return the number of checkout timeouts
+     */
+    public long getCheckoutTimeouts() {
+        return checkoutTimeouts;
+    }
+
+    /**
+     * Returns the average time a successful checkout took, including opening new projects.
+     *
+     * @return the average wait time in nanoseconds
+     */
+    public long getAverageWaitNanos() {
+        return checkouts == 0 ? 0 : totalWaitNanos / checkouts;
+    }
+
+    /**
+     * Returns the longest time a successful checkout took.
+     *
+     * @return the maximum wait time in nanoseconds
+     */
+    public long getMaxWaitNanos() {
+        return maxWaitNanos;
+    }
+
+    /**
+     * Returns the number of projects opened by the pool.
+     *
+     * @return the number of opened projects
+     */
+    public long getOpened() {
+        return opened;
+    }
+
+    /**
+     * Returns the number of projects closed by the pool.
+     *
+     * @return the number of closed projects
+     */
+    public long getClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns the number of idle projects discarded by a failed health check.
+     *
+     * @return the number of failed health checks
+     */
+    public long getFailedHealthChecks() {
+        return failedHealthChecks;
+    }
+
+    @Override
+    public String toString() {
+        return "ProjectPoolStats{" +
+                "active=" + active +
+                ", idle=" + idle +
+                ", checkouts=" + checkouts +
+                ", checkoutTimeouts=" + checkoutTimeouts +
+                ", averageWaitNanos=" + getAverageWaitNanos() +
+                ", maxWaitNanos=" + maxWaitNanos +
+                ", opened=" + opened +
+                ", closed=" + closed +
+                ", failedHealthChecks=" + failedHealthChecks +
+                '}';
+    }
+}
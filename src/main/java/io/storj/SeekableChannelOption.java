@@ -0,0 +1,92 @@
+package io.storj;
+
+/**
+ * Options for random access to an object through an {@link ObjectSeekableChannel}.
+ *
+ * @see Project#downloadObjectSeekable(String, String, SeekableChannelOption...)
+ */
+public class SeekableChannelOption {
+
+    static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+    static final int DEFAULT_CACHED_BLOCKS = 16;
+    static final long DEFAULT_MAX_SKIP = 1024 * 1024;
+
+    private enum Key {
+        BLOCK_SIZE,
+        CACHED_BLOCKS,
+        MAX_SKIP,
+    }
+
+    private Key key;
+
+    private Object value;
+
+    SeekableChannelOption(Key key, Object value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * Option for the size of the blocks the object is read and cached in. Defaults to 128 KiB.
+     *
+     * @param blockSize the block size in bytes
+     * @return a {@link SeekableChannelOption}
+     */
+    public static SeekableChannelOption blockSize(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("block size must be positive: " + blockSize);
+        }
+        return new SeekableChannelOption(Key.BLOCK_SIZE, blockSize);
+    }
+
+    /**
+     * Option for the number of recently read blocks kept in memory. Reads served from these
+     * blocks do not touch the network. Defaults to 16.
+     *
+     * @param cachedBlocks the number of cached blocks, <code>0</code> disables caching
+     * @return a {@link SeekableChannelOption}
+     */
+    public static SeekableChannelOption cachedBlocks(int cachedBlocks) {
+        if (cachedBlocks < 0) {
+            throw new IllegalArgumentException("cached blocks must not be negative: " + cachedBlocks);
+        }
+        return new SeekableChannelOption(Key.CACHED_BLOCKS, cachedBlocks);
+    }
+
+    /**
+     * Option for the longest forward seek in bytes that keeps reading from the current download
+     * instead of starting a new ranged download. The skipped blocks are cached. Defaults to 1 MiB.
+     *
+     * @param maxSkip the maximum forward skip in bytes
+     * @return a {@link SeekableChannelOption}
+     */
+    public static SeekableChannelOption maxSkip(long maxSkip) {
+        if (maxSkip < 0) {
+            throw new IllegalArgumentException("max skip must not be negative: " + maxSkip);
+        }
+        return new SeekableChannelOption(Key.MAX_SKIP, maxSkip);
+    }
+
+    static Settings internal(SeekableChannelOption... options) {
+        Settings settings = new Settings();
+        settings.blockSize = DEFAULT_BLOCK_SIZE;
+        settings.cachedBlocks = DEFAULT_CACHED_BLOCKS;
+        settings.maxSkip = DEFAULT_MAX_SKIP;
+        for (SeekableChannelOption option : options) {
+            if (option.key == Key.BLOCK_SIZE) {
+                settings.blockSize = (int) option.value;
+            } else if (option.key == Key.CACHED_BLOCKS) {
+                settings.cachedBlocks = (int) option.value;
+            } else if (option.key == Key.MAX_SKIP) {
+                settings.maxSkip = (long) option.value;
+            }
+        }
+        return settings;
+    }
+
+    static class Settings {
+        int blockSize;
+        int cachedBlocks;
+        long maxSkip;
+    }
+}
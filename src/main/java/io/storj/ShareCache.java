@@ -0,0 +1,118 @@
+package io.storj;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A bounded cache of serialized access grants created by
+ * {@link Access#shareAll(java.util.List, ShareCache)}, so that sharing the same
+ * {@link ShareRequest} from the same access grant again does not call into the native library.
+ *
+ * <p>Grants are cached per parent access grant and request, and the least recently used grant is
+ * evicted first. Grants whose permission has passed its <code>notAfter</code> time are not
+ * returned from the cache. A cache can be shared by multiple threads and access grants.</p>
+ */
+public class ShareCache {
+
+    private final int maxSize;
+    private final GrantMap grants;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxSize the maximum number of cached grants
+     */
+    public ShareCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("max size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.grants = new GrantMap(maxSize);
+    }
+
+    /**
+     * Returns the cached grant, or <code>null</code> if there is none.
+     */
+    synchronized String get(String parent, ShareRequest request) {
+        Key key = new Key(parent, request);
+        String grant = this.grants.get(key);
+        if (grant != null && request.getPermission().isExpired(System.currentTimeMillis())) {
+            this.grants.remove(key);
+            return null;
+        }
+        return grant;
+    }
+
+    synchronized void put(String parent, ShareRequest request, String grant) {
+        this.grants.put(new Key(parent, request), grant);
+    }
+
+    /**
+     * Returns the number of cached grants.
+     *
+     * @return the number of cached grants
+     */
+    public synchronized int size() {
+        return this.grants.size();
+    }
+
+    /**
+     * Returns the maximum number of cached grants.
+     *
+     * @return the maximum number of cached grants
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Removes all cached grants.
+     */
+    public synchronized void clear() {
+        this.grants.clear();
+    }
+
+    /**
+     * The LRU map of cached grants, evicting the eldest grant beyond the maximum size.
+     */
+    private static class GrantMap extends LinkedHashMap<Key, String> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        GrantMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+            return size() > this.maxSize;
+        }
+    }
+
+    private static class Key {
+        private final String parent;
+        private final ShareRequest request;
+
+        Key(String parent, ShareRequest request) {
+            this.parent = parent;
+            this.request = request;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key that = (Key) o;
+            return Objects.equals(parent, that.parent) && Objects.equals(request, that.request);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(parent, request);
+        }
+    }
+}
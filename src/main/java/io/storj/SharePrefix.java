@@ -1,5 +1,7 @@
 package io.storj;
 
+import java.util.Objects;
+
 /**
  * Represents a share based on a bucket and a prefix.
  *
@@ -26,4 +28,17 @@ public class SharePrefix {
     String getPrefix() {
         return prefix;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SharePrefix that = (SharePrefix) o;
+        return Objects.equals(bucket, that.bucket) && Objects.equals(prefix, that.prefix);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(bucket, prefix);
+    }
 }
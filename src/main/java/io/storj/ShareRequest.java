@@ -0,0 +1,52 @@
+package io.storj;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Represents one restricted access grant to create with {@link Access#shareAll(java.util.List)}:
+ * a {@link Permission} and the {@link SharePrefix}es it is limited to.
+ *
+ * <p>Two requests are equal if their permissions, including the time bounds, and their prefixes
+ * in order are equal.</p>
+ */
+public class ShareRequest {
+
+    private final Permission permission;
+    private final SharePrefix[] prefixes;
+
+    /**
+     * Creates a new request.
+     *
+     * @param permission the permission
+     * @param prefixes   list of prefixes to restrict access
+     */
+    public ShareRequest(Permission permission, SharePrefix... prefixes) {
+        if (permission == null) {
+            throw new IllegalArgumentException("permission must not be null");
+        }
+        this.permission = permission;
+        this.prefixes = prefixes.clone();
+    }
+
+    Permission getPermission() {
+        return permission;
+    }
+
+    SharePrefix[] getPrefixes() {
+        return prefixes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ShareRequest that = (ShareRequest) o;
+        return Objects.equals(permission, that.permission) && Arrays.equals(prefixes, that.prefixes);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * permission.hashCode() + Arrays.hashCode(prefixes);
+    }
+}
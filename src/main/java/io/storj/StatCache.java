@@ -0,0 +1,246 @@
+package io.storj;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A bounded cache of the results of {@link Project#statObject(String, String)} and
+ * {@link Project#statBucket(String)}, enabled with
+ * {@link Project#enableStatCache(StatCacheOption...)}.
+ *
+ * <p>Results expire after {@link StatCacheOption#ttl(long)}, not found results after
+ * {@link StatCacheOption#negativeTtl(long)}. Concurrent lookups of a key which is not cached
+ * share one native call. Other errors are not cached. Deletions, moves and committed uploads made
+ * through the same {@link Project} remove the affected results, changes made by other clients
+ * are seen when the results expire.</p>
+ *
+ * <p>Cached {@link ObjectInfo} and {@link BucketInfo} instances are shared by all callers, so
+ * their custom metadata maps must not be modified.</p>
+ */
+public class StatCache {
+
+    private final StatCacheOption.Settings settings;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long hits;
+    private long negativeHits;
+    private long misses;
+    private long coalesced;
+    private long evictions;
+    private long invalidations;
+
+    StatCache(StatCacheOption... options) {
+        this.settings = StatCacheOption.internal(options);
+    }
+
+    /**
+     * Loads a result with a native call on a miss.
+     */
+    interface Loader<T> {
+        T load() throws StorjException;
+    }
+
+    ObjectInfo statObject(String bucket, String key, Loader<ObjectInfo> loader) throws StorjException {
+        return get(new Key(bucket, key), loader);
+    }
+
+    BucketInfo statBucket(String bucket, Loader<BucketInfo> loader) throws StorjException {
+        return get(new Key(bucket, null), loader);
+    }
+
+    private <T> T get(Key key, Loader<T> loader) throws StorjException {
+        Entry entry;
+        synchronized (this) {
+            entry = this.entries.get(key);
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                this.entries.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry();
+                this.entries.put(key, entry);
+                this.misses++;
+                evict();
+            } else {
+                if (!entry.future.isDone()) {
+                    this.coalesced++;
+                } else if (entry.future.getNow(null) instanceof NotFound) {
+                    this.negativeHits++;
+                } else {
+                    this.hits++;
+                }
+                loader = null;
+            }
+        }
+        // waits outside of the lock for a lookup in flight
+        return loader == null ? entry.<T>value() : load(key, entry, loader);
+    }
+
+    private void evict() {
+        Iterator<Entry> eldest = this.entries.values().iterator();
+        while (this.entries.size() > this.settings.maxSize) {
+            eldest.next();
+            eldest.remove();
+            this.evictions++;
+        }
+    }
+
+    private <T> T load(Key key, Entry entry, Loader<T> loader) throws StorjException {
+        T value;
+        try {
+            value = loader.load();
+        } catch (StorjException e) {
+            if (this.settings.negativeTtl > 0 && isNotFound(e)) {
+                complete(entry, new NotFound(e), this.settings.negativeTtl);
+            } else {
+                remove(key, entry);
+                entry.future.completeExceptionally(e);
+            }
+            throw e;
+        } catch (RuntimeException | java.lang.Error e) {
+            remove(key, entry);
+            entry.future.completeExceptionally(e);
+            throw e;
+        }
+        complete(entry, value, this.settings.ttl);
+        return value;
+    }
+
+    private static boolean isNotFound(StorjException e) {
+        return e.getCode() == JNAUplink.ERROR_OBJECT_NOT_FOUND || e.getCode() == JNAUplink.ERROR_BUCKET_NOT_FOUND;
+    }
+
+    /**
+     * Starts the time to live of a loaded result. If the entry was invalidated meanwhile, it is
+     * no longer in the map and the result only reaches the waiting lookups.
+     */
+    private synchronized void complete(Entry entry, Object value, long ttl) {
+        entry.expires = System.nanoTime() + ttl * 1000000;
+        entry.future.complete(value);
+    }
+
+    private synchronized void remove(Key key, Entry entry) {
+        if (this.entries.get(key) == entry) {
+            this.entries.remove(key);
+        }
+    }
+
+    /**
+     * Removes the cached result for an object.
+     *
+     * @param bucket the bucket name
+     * @param key    the object key
+     */
+    public synchronized void invalidate(String bucket, String key) {
+        if (this.entries.remove(new Key(bucket, key)) != null) {
+            this.invalidations++;
+        }
+    }
+
+    /**
+     * Removes the cached results for a bucket and all its objects.
+     *
+     * @param bucket the bucket name
+     */
+    public synchronized void invalidateBucket(String bucket) {
+        Iterator<Key> keys = this.entries.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().bucket.equals(bucket)) {
+                keys.remove();
+                this.invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public synchronized void clear() {
+        this.invalidations += this.entries.size();
+        this.entries.clear();
+    }
+
+    /**
+     * Returns the current metrics of this cache.
+     *
+     * @return the current {@link StatCacheStats}
+     */
+    public synchronized StatCacheStats getStats() {
+        return new StatCacheStats(this.entries.size(), this.hits, this.negativeHits, this.misses, this.coalesced,
+                this.evictions, this.invalidations);
+    }
+
+    private static class Key {
+        final String bucket;
+        // null for the bucket itself
+        final String key;
+
+        Key(String bucket, String key) {
+            this.bucket = bucket;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return this.bucket.equals(that.bucket) && (this.key == null ? that.key == null : this.key.equals(that.key));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.bucket.hashCode() + (this.key == null ? 0 : this.key.hashCode());
+        }
+    }
+
+    private static class Entry {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        // a lookup in flight does not expire
+        volatile long expires = Long.MAX_VALUE;
+
+        boolean isExpired(long now) {
+            return this.future.isDone() && now - this.expires >= 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T value() throws StorjException {
+            Object value;
+            try {
+                value = this.future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new StorjException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof StorjException) {
+                    throw (StorjException) e.getCause();
+                }
+                throw new StorjException(e.getCause());
+            }
+            if (value instanceof NotFound) {
+                throw ((NotFound) value).exception();
+            }
+            return (T) value;
+        }
+    }
+
+    /**
+     * A cached not found error, thrown anew on every hit.
+     */
+    private static class NotFound {
+        final String message;
+        final int code;
+
+        NotFound(StorjException e) {
+            this.message = e.getMessage();
+            this.code = e.getCode();
+        }
+
+        StorjException exception() {
+            return new StorjException(this.message, this.code);
+        }
+    }
+}
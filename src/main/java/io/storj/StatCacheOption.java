@@ -0,0 +1,93 @@
+package io.storj;
+
+/**
+ * Options for configuring a {@link StatCache}.
+ *
+ * @see Project#enableStatCache(StatCacheOption...)
+ */
+public class StatCacheOption {
+
+    static final int DEFAULT_MAX_SIZE = 10000;
+    static final long DEFAULT_TTL = 60 * 1000;
+    static final long DEFAULT_NEGATIVE_TTL = 5 * 1000;
+
+    private enum Key {
+        MAX_SIZE,
+        TTL,
+        NEGATIVE_TTL,
+    }
+
+    private Key key;
+
+    private Object value;
+
+    StatCacheOption(Key key, Object value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * Option for the maximum number of cached results. The least recently used result is evicted
+     * beyond it. Defaults to 10000.
+     *
+     * @param maxSize the maximum number of entries
+     * @return a {@link StatCacheOption}
+     */
+    public static StatCacheOption maxSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("max size must be positive: " + maxSize);
+        }
+        return new StatCacheOption(Key.MAX_SIZE, maxSize);
+    }
+
+    /**
+     * Option for how long object and bucket metadata is served from the cache. Changes made by
+     * other clients become visible after this time at the latest. Defaults to 1 minute.
+     *
+     * @param ttl the time to live in milliseconds
+     * @return a {@link StatCacheOption}
+     */
+    public static StatCacheOption ttl(long ttl) {
+        if (ttl < 0) {
+            throw new IllegalArgumentException("ttl must not be negative: " + ttl);
+        }
+        return new StatCacheOption(Key.TTL, ttl);
+    }
+
+    /**
+     * Option for how long a not found result is served from the cache. 0 disables caching of
+     * not found results. Defaults to 5 seconds.
+     *
+     * @param negativeTtl the time to live of not found results in milliseconds
+     * @return a {@link StatCacheOption}
+     */
+    public static StatCacheOption negativeTtl(long negativeTtl) {
+        if (negativeTtl < 0) {
+            throw new IllegalArgumentException("negative ttl must not be negative: " + negativeTtl);
+        }
+        return new StatCacheOption(Key.NEGATIVE_TTL, negativeTtl);
+    }
+
+    static Settings internal(StatCacheOption... options) {
+        Settings settings = new Settings();
+        settings.maxSize = DEFAULT_MAX_SIZE;
+        settings.ttl = DEFAULT_TTL;
+        settings.negativeTtl = DEFAULT_NEGATIVE_TTL;
+        for (StatCacheOption option : options) {
+            if (option.key == Key.MAX_SIZE) {
+                settings.maxSize = (int) option.value;
+            } else if (option.key == Key.TTL) {
+                settings.ttl = (long) option.value;
+            } else if (option.key == Key.NEGATIVE_TTL) {
+                settings.negativeTtl = (long) option.value;
+            }
+        }
+        return settings;
+    }
+
+    static class Settings {
+        int maxSize;
+        long ttl;
+        long negativeTtl;
+    }
+}
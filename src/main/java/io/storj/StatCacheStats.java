@@ -0,0 +1,114 @@
+package io.storj;
+
+/**
+ * A snapshot of the metrics of a {@link StatCache}.
+ *
+ * @see StatCache#getStats()
+ */
+public class StatCacheStats {
+
+    private final int size;
+    private final long hits;
+    private final long negativeHits;
+    private final long misses;
+    private final long coalesced;
+    private final long evictions;
+    private final long invalidations;
+
+    StatCacheStats(int size, long hits, long negativeHits, long misses, long coalesced, long evictions,
+                   long invalidations) {
+        this.size = size;
+        this.hits = hits;
+        this.negativeHits = negativeHits;
+        this.misses = misses;
+        this.coalesced = coalesced;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+    }
+
+    /**
+     * Returns the number of cached results, including lookups in flight.
+     *
+     * @return the number of entries
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of lookups served with cached metadata.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups served with a cached not found result.
+     *
+     * @return the number of negative hits
+     */
+    public long getNegativeHits() {
+        return negativeHits;
+    }
+
+    /**
+     * Returns the number of lookups which made a native call.
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of lookups which waited for the native call of a concurrent miss.
+     *
+     * @return the number of coalesced lookups
+     */
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    /**
+     * Returns the share of lookups which did not make a native call.
+     *
+     * @return the hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        long total = hits + negativeHits + misses + coalesced;
+        return total == 0 ? 0 : (double) (total - misses) / total;
+    }
+
+    /**
+     * Returns the number of results evicted because the cache was full.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of results removed because this client changed the object or bucket.
+     *
+     * @return the number of invalidations
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    @Override
+    public String toString() {
+        return "StatCacheStats{" +
+                "size=" + size +
+                ", hits=" + hits +
+                ", negativeHits=" + negativeHits +
+                ", misses=" + misses +
+                ", coalesced=" + coalesced +
+                ", evictions=" + evictions +
+                ", invalidations=" + invalidations +
+                '}';
+    }
+}
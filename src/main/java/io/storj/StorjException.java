@@ -7,6 +7,11 @@ public class StorjException extends RuntimeException {
 
     private static final long serialVersionUID = 5024346477061996880L;
 
+    /**
+     * The uplink-c error code, or 0 if the exception does not come from an uplink-c error.
+     */
+    private final int code;
+
     /**
      * Constructs a {@link StorjException} with the specified cause and a detail message of
      * <code>(cause==null ? null : cause.toString())</code> (which typically contains the class and
@@ -18,10 +23,21 @@ public class StorjException extends RuntimeException {
      */
     public StorjException(Throwable cause) {
         super(cause);
+        this.code = 0;
     }
 
     public StorjException(String message) {
         super(message);
+        this.code = 0;
+    }
+
+    StorjException(String message, int code) {
+        super(message);
+        this.code = code;
+    }
+
+    int getCode() {
+        return this.code;
     }
 
 }
@@ -1,5 +1,7 @@
 package io.storj;
 
+import java.io.IOException;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.Date;
 
@@ -8,13 +10,26 @@ import java.util.Date;
  */
 public class SystemMetadata implements Serializable, Comparable<SystemMetadata> {
 
-    private Date created;
-    private Date expires;
+    // computed from the class before the dates became lazy, to keep the serialized form
+    private static final long serialVersionUID = 1924017696241350753L;
+
+    // the serialized form still holds the decoded dates
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("created", Date.class),
+            new ObjectStreamField("expires", Date.class),
+            new ObjectStreamField("contentLength", long.class),
+    };
+
+    private long createdMillis;
+    private long expiresMillis;
     private long contentLength;
 
+    private transient volatile Date created;
+    private transient volatile Date expires;
+
     SystemMetadata(JNAUplink.SystemMetadata systemMetadata) {
-        this.created = new Date(systemMetadata.created * 1000);
-        this.expires = new Date(systemMetadata.expires * 1000);
+        this.createdMillis = systemMetadata.created * 1000;
+        this.expiresMillis = systemMetadata.expires * 1000;
         this.contentLength = systemMetadata.content_length;
     }
 
@@ -24,6 +39,11 @@ public class SystemMetadata implements Serializable, Comparable<SystemMetadata>
      * @return the creation date
      */
     public Date getCreated() {
+        Date created = this.created;
+        if (created == null) {
+            created = new Date(createdMillis);
+            this.created = created;
+        }
         return created;
     }
 
@@ -33,6 +53,11 @@ public class SystemMetadata implements Serializable, Comparable<SystemMetadata>
      * @return the expiration date
      */
     public Date getExpires() {
+        Date expires = this.expires;
+        if (expires == null) {
+            expires = new Date(expiresMillis);
+            this.expires = expires;
+        }
         return expires;
     }
 
@@ -59,7 +84,7 @@ public class SystemMetadata implements Serializable, Comparable<SystemMetadata>
         SystemMetadata that = (SystemMetadata) o;
         // TODO add created when info() after commit will work ok
         return contentLength == that.contentLength
-                && java.util.Objects.equals(expires, that.expires);
+                && java.util.Objects.equals(getExpires(), that.getExpires());
 //                java.util.Objects.equals(created, that.created)
     }
 
@@ -82,11 +107,28 @@ public class SystemMetadata implements Serializable, Comparable<SystemMetadata>
         return 0;
     }
 
+    private void writeObject(java.io.ObjectOutputStream out) throws IOException {
+        java.io.ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("created", getCreated());
+        fields.put("expires", getExpires());
+        fields.put("contentLength", contentLength);
+        out.writeFields();
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
+        java.io.ObjectInputStream.GetField fields = in.readFields();
+        this.created = (Date) fields.get("created", null);
+        this.expires = (Date) fields.get("expires", null);
+        this.createdMillis = this.created != null ? this.created.getTime() : 0;
+        this.expiresMillis = this.expires != null ? this.expires.getTime() : 0;
+        this.contentLength = fields.get("contentLength", 0L);
+    }
+
     @Override
     public String toString() {
         return "SystemMetadata{" +
-                "created=" + created +
-                ", expires=" + expires +
+                "created=" + getCreated() +
+                ", expires=" + getExpires() +
                 ", contentLength=" + contentLength +
                 '}';
     }
@@ -11,6 +11,10 @@ public class Uplink {
         this.options = options;
     }
 
+    UplinkOption[] options() {
+        return options;
+    }
+
     /**
      * Returns a {@link Project} handle for the given {@link Access}.
      *
@@ -19,26 +23,23 @@ public class Uplink {
      * @throws StorjException in case of error
      */
     public Project openProject(Access access) throws StorjException {
-        String serializedAccess = "";
-        if (access != null) {
-            serializedAccess = access.serializedAccess;
+        if (access == null) {
+            // an empty grant fails to parse with the usual error
+            access = new Access("");
         }
 
         JNAUplink.ProjectResult.ByValue result = null;
-        JNAUplink.AccessResult.ByValue internalAccess = null;
+        Access.NativeAccess internalAccess = access.acquire();
         try {
-            internalAccess = JNAUplink.INSTANCE.uplink_parse_access(serializedAccess);
-            ExceptionUtil.handleError(internalAccess.error);
-
             if (options.length == 0) {
-                result = JNAUplink.INSTANCE.uplink_open_project(internalAccess.access);
+                result = JNAUplink.INSTANCE.uplink_open_project(internalAccess.handle());
             } else {
                 JNAUplink.Config.ByValue config = UplinkOption.internal(options);
-                result = JNAUplink.INSTANCE.uplink_config_open_project(config, internalAccess.access);
+                result = JNAUplink.INSTANCE.uplink_config_open_project(config, internalAccess.handle());
             }
             ExceptionUtil.handleError(result.error);
         } finally {
-            JNAUplink.INSTANCE.uplink_free_access_result(internalAccess);
+            internalAccess.release();
         }
         return new Project(result.project);
     }
@@ -73,9 +74,13 @@ public class Uplink {
         try {
             ExceptionUtil.handleError(stringResult.error);
 
-            return new Access(stringResult.string);
+            Access access = new Access(stringResult.string, result);
+            result = null;
+            return access;
         } finally {
-            JNAUplink.INSTANCE.uplink_free_access_result(result);
+            if (result != null) {
+                JNAUplink.INSTANCE.uplink_free_access_result(result);
+            }
             JNAUplink.INSTANCE.uplink_free_string_result(stringResult);
         }
     }
@@ -0,0 +1,107 @@
+package io.storj;
+
+import com.sun.jna.Native;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Selects the implementation behind {@link JNAUplink#INSTANCE}.
+ *
+ * <p>The backend is chosen once per JVM with the <code>storj.uplink.backend</code> system
+ * property:</p>
+ * <ul>
+ *     <li><code>native</code> (default before JDK 22) binds the uplink-c library with JNA, using
+ *     direct mapping for the calls made per buffer or per listed item</li>
+ *     <li><code>panama</code> (default on JDK 22 and newer) binds the hot download and listing
+ *     calls of uplink-c with the Foreign Function &amp; Memory API and everything else with JNA.
+ *     It needs the multi-release jar; otherwise <code>native</code> is used. Set the property to
+ *     <code>native</code> to opt out on JDK 22</li>
+ *     <li><code>memory</code> uses {@link MemoryUplink}, an in-process fake holding buckets and
+ *     objects in memory, for running tests and benchmarks without a Storj network</li>
+ * </ul>
+ */
+final class UplinkBackend {
+
+    static final String BACKEND_PROPERTY = "storj.uplink.backend";
+
+    static final String NATIVE = "native";
+    static final String MEMORY = "memory";
+    static final String PANAMA = "panama";
+
+    /**
+     * Set to <code>false</code> to call all uplink-c functions through the interface mapping.
+     */
+    static final String DIRECT_PROPERTY = "storj.uplink.jna.direct";
+
+    private UplinkBackend() {
+    }
+
+    static JNAUplink load() {
+        String backend = name();
+        if (MEMORY.equals(backend)) {
+            return new MemoryUplink();
+        } else if (NATIVE.equals(backend)) {
+            return loadNative();
+        } else if (PANAMA.equals(backend)) {
+            return loadPanama(loadNative());
+        }
+        throw new IllegalStateException("unknown " + BACKEND_PROPERTY + ": " + backend);
+    }
+
+    /**
+     * Returns the JNA binding, with the hot calls directly mapped on 64-bit platforms.
+     */
+    private static JNAUplink loadNative() {
+        JNAUplink jna = Native.load("uplink", JNAUplink.class);
+        if (Native.SIZE_T_SIZE != 8 || !Boolean.parseBoolean(System.getProperty(DIRECT_PROPERTY, "true"))) {
+            return jna;
+        }
+        return new DirectUplink(jna);
+    }
+
+    /**
+     * Returns the Panama binding, which only exists in the Java 22 part of the multi-release jar,
+     * or the given JNA binding when it is not available on this JVM.
+     */
+    private static JNAUplink loadPanama(JNAUplink jna) {
+        try {
+            Class<?> type = Class.forName("io.storj.PanamaUplink");
+            Constructor<?> constructor = type.getDeclaredConstructor(JNAUplink.class);
+            return (JNAUplink) constructor.newInstance(jna);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return jna;
+        }
+    }
+
+    static String name() {
+        return System.getProperty(BACKEND_PROPERTY, defaultName(javaVersion()));
+    }
+
+    /**
+     * Returns the backend used when the property is not set, on the given Java feature version.
+     */
+    static String defaultName(int javaVersion) {
+        return javaVersion >= 22 ? PANAMA : NATIVE;
+    }
+
+    /**
+     * Returns the feature version of the running JVM, like <code>Runtime.version().feature()</code>
+     * which is not available on Java 8.
+     */
+    static int javaVersion() {
+        String version = System.getProperty("java.specification.version");
+        // "1.8" up to Java 8, "9", "22" and so on afterwards
+        if (version.startsWith("1.")) {
+            version = version.substring(2);
+        }
+        try {
+            return Integer.parseInt(version);
+        } catch (NumberFormatException e) {
+            return 8;
+        }
+    }
+
+    static boolean isMemory() {
+        return MEMORY.equals(name());
+    }
+}
@@ -1,5 +1,7 @@
 package io.storj;
 
+import java.util.Objects;
+
 /**
  * Options for configuring {@link JNAUplink}.
  */
@@ -52,6 +54,25 @@ public class UplinkOption {
         return new UplinkOption(Key.DIAL_TIMEOUT, dialTimeout);
     }
 
+    /**
+     * Two {@link UplinkOption} objects are equal if they set the same option to the same value.
+     *
+     * @return <code>true</code> if this option is the same as the specified option;
+     * <code>false</code> otherwise.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        UplinkOption that = (UplinkOption) o;
+        return key == that.key && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, value);
+    }
+
     static JNAUplink.Config.ByValue internal(UplinkOption... options) {
         JNAUplink.Config.ByValue config = new JNAUplink.Config.ByValue();
 
@@ -0,0 +1,153 @@
+package io.storj;
+
+import com.sun.jna.NativeLibrary;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SegmentAllocator;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Binds the per-byte and per-item calls of uplink-c with the Foreign Function &amp; Memory API
+ * of JDK 22, and forwards all other calls to the JNA binding.
+ *
+ * <p>The downcall handles skip the reflective JNA proxy, argument boxing and
+ * <code>NativeLong</code> conversion. Handles and buffers are still JNA structures and pointers,
+ * so the results are turned back into the JNA result structures which the callers free as
+ * before. This class is compiled into <code>META-INF/versions/22</code> of the multi-release jar
+ * and selected by {@link UplinkBackend}.</p>
+ */
+final class PanamaUplink extends DelegatingUplink {
+
+    private static final Linker LINKER = Linker.nativeLinker();
+
+    // struct { size_t bytes_read; UplinkError *error; }
+    private static final StructLayout READ_RESULT = MemoryLayout.structLayout(
+            ValueLayout.JAVA_LONG.withName("bytes_read"),
+            ValueLayout.ADDRESS.withName("error"));
+
+    // struct { UplinkObject *object; UplinkError *error; }
+    private static final StructLayout OBJECT_RESULT = MemoryLayout.structLayout(
+            ValueLayout.ADDRESS.withName("object"),
+            ValueLayout.ADDRESS.withName("error"));
+
+    /**
+     * Space for the returned structs, which are copied out right after each call.
+     */
+    private static final ThreadLocal<SegmentAllocator> RESULTS = new ThreadLocal<SegmentAllocator>() {
+        @Override
+        protected SegmentAllocator initialValue() {
+            return SegmentAllocator.prefixAllocator(Arena.ofAuto().allocate(
+                    Math.max(READ_RESULT.byteSize(), OBJECT_RESULT.byteSize())));
+        }
+    };
+
+    private final MethodHandle downloadRead;
+    private final MethodHandle statObject;
+    private final MethodHandle objectIteratorNext;
+    private final MethodHandle objectIteratorItem;
+
+    PanamaUplink(JNAUplink delegate) {
+        super(delegate);
+        // resolves the symbols in the library JNA has already loaded
+        NativeLibrary library = NativeLibrary.getInstance("uplink");
+        this.downloadRead = downcall(library, "uplink_download_read", FunctionDescriptor.of(READ_RESULT,
+                ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG));
+        this.statObject = downcall(library, "uplink_stat_object", FunctionDescriptor.of(OBJECT_RESULT,
+                ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS));
+        this.objectIteratorNext = downcall(library, "uplink_object_iterator_next", FunctionDescriptor.of(
+                ValueLayout.JAVA_BOOLEAN, ValueLayout.ADDRESS));
+        this.objectIteratorItem = downcall(library, "uplink_object_iterator_item", FunctionDescriptor.of(
+                ValueLayout.ADDRESS, ValueLayout.ADDRESS));
+    }
+
+    private static MethodHandle downcall(NativeLibrary library, String name, FunctionDescriptor descriptor) {
+        long address = Pointer.nativeValue(library.getFunction(name));
+        return LINKER.downcallHandle(MemorySegment.ofAddress(address), descriptor);
+    }
+
+    @Override
+    public ReadResult.ByValue uplink_download_read(Download.ByReference download, Pointer bytes, NativeLong size) {
+        MemorySegment result;
+        try {
+            result = (MemorySegment) this.downloadRead.invokeExact(RESULTS.get(),
+                    address(download.getPointer()), address(bytes), size.longValue());
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+        ReadResult.ByValue readResult = new ReadResult.ByValue();
+        readResult.bytes_read = new NativeLong(result.get(ValueLayout.JAVA_LONG, 0));
+        readResult.error = structure(Error.ByReference.class, result.get(ValueLayout.ADDRESS, 8));
+        return readResult;
+    }
+
+    @Override
+    public ObjectResult.ByValue uplink_stat_object(Project.ByReference project, String bucket, String key) {
+        MemorySegment result;
+        try (Arena arena = Arena.ofConfined()) {
+            result = (MemorySegment) this.statObject.invokeExact(RESULTS.get(),
+                    address(project.getPointer()), arena.allocateFrom(bucket), arena.allocateFrom(key));
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+        ObjectResult.ByValue objectResult = new ObjectResult.ByValue();
+        objectResult.object = structure(Object.ByReference.class, result.get(ValueLayout.ADDRESS, 0));
+        objectResult.error = structure(Error.ByReference.class, result.get(ValueLayout.ADDRESS, 8));
+        return objectResult;
+    }
+
+    @Override
+    public boolean uplink_object_iterator_next(ObjectIterator.ByReference iterator) {
+        try {
+            return (boolean) this.objectIteratorNext.invokeExact(address(iterator.getPointer()));
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    @Override
+    public Object.ByReference uplink_object_iterator_item(ObjectIterator.ByReference iterator) {
+        MemorySegment item;
+        try {
+            item = (MemorySegment) this.objectIteratorItem.invokeExact(address(iterator.getPointer()));
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+        return structure(Object.ByReference.class, item);
+    }
+
+    private static MemorySegment address(Pointer pointer) {
+        return pointer == null ? MemorySegment.NULL : MemorySegment.ofAddress(Pointer.nativeValue(pointer));
+    }
+
+    /**
+     * Reads a structure returned by pointer, the way JNA does for <code>ByReference</code> return
+     * types.
+     */
+    private static <T extends Structure> T structure(Class<T> type, MemorySegment address) {
+        if (address.address() == 0) {
+            return null;
+        }
+        T structure = Structure.newInstance(type, new Pointer(address.address()));
+        structure.read();
+        return structure;
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof java.lang.Error) {
+            throw (java.lang.Error) e;
+        }
+        return new IllegalStateException(e);
+    }
+}
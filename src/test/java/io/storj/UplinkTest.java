@@ -7,13 +7,25 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 import static io.storj.ObjectDownloadOption.length;
 import static io.storj.ObjectDownloadOption.offset;
@@ -41,6 +53,9 @@ public class UplinkTest {
         if (accessGrant == null || accessGrant.length() == 0) {
             accessGrant = System.getenv("UPLINK_ACCESS");
         }
+        if ((accessGrant == null || accessGrant.length() == 0) && UplinkBackend.isMemory()) {
+            accessGrant = MemoryUplink.access("uplink-test");
+        }
         return accessGrant;
     }
 
@@ -137,6 +152,13 @@ public class UplinkTest {
                 os.setCustomMetadata(metadata);
                 os.write(expectedData);
                 os.commit();
+
+                // writes after the commit are not buffered and dropped
+                try {
+                    os.write(1);
+                    fail("Exception not thrown");
+                } catch (IOException e) {
+                }
             }
 
             ObjectInfo objectInfo = project.statObject(createBucketInfo.getName(), key);
@@ -157,8 +179,16 @@ public class UplinkTest {
             }
             Assert.assertArrayEquals(Arrays.copyOfRange(expectedData, 200, 500), data);
 
-            try (ObjectOutputStream os = project.uploadObject(createBucketInfo.getName(), "test-file-2")) {
-                os.write(expectedData);
+            ObjectOutputStream aborted = project.uploadObject(createBucketInfo.getName(), "test-file-2");
+            try {
+                aborted.write(expectedData);
+            } finally {
+                aborted.close();
+            }
+            try {
+                aborted.write(expectedData, 0, 10);
+                fail("Exception not thrown");
+            } catch (IOException e) {
             }
 
             try {
@@ -174,6 +204,1037 @@ public class UplinkTest {
         }
     }
 
+    @Test
+    public void testObjectChannels() throws Exception {
+        Uplink uplink = new Uplink(uplinkOptions);
+        try (Project project = uplink.openProject(access)) {
+            BucketInfo createBucketInfo = project.ensureBucket("test-object-channels");
+
+            byte[] expectedData = new byte[2 * 1024 * 1024];
+            Random random = new Random();
+            random.nextBytes(expectedData);
+
+            try (ObjectWritableChannel channel = project.uploadObjectChannel(createBucketInfo.getName(), "test-file")) {
+                ByteBuffer direct = ByteBuffer.allocateDirect(expectedData.length / 2);
+                direct.put(expectedData, 0, direct.capacity()).flip();
+                channel.write(direct);
+                Assert.assertFalse(direct.hasRemaining());
+                channel.write(ByteBuffer.wrap(expectedData, direct.capacity(), expectedData.length - direct.capacity()));
+                channel.commit();
+            }
+
+            ByteBuffer data = ByteBuffer.allocateDirect(expectedData.length);
+            try (ObjectReadableChannel channel = project.downloadObjectChannel(createBucketInfo.getName(), "test-file")) {
+                while (channel.read(data) != -1) {
+                    if (!data.hasRemaining()) {
+                        Assert.assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+                        break;
+                    }
+                }
+            }
+            data.flip();
+            Assert.assertEquals(ByteBuffer.wrap(expectedData), data);
+
+            ByteBuffer range = ByteBuffer.allocate(300);
+            try (ObjectReadableChannel channel = project.downloadObjectChannel(createBucketInfo.getName(), "test-file",
+                    offset(200), length(300))) {
+                while (range.hasRemaining() && channel.read(range) != -1) {
+                }
+            }
+            Assert.assertArrayEquals(Arrays.copyOfRange(expectedData, 200, 500), range.array());
+
+            project.deleteObject(createBucketInfo.getName(), "test-file");
+            project.deleteBucket(createBucketInfo.getName());
+        }
+    }
+
+    @Test
+    public void testReadAhead() throws Exception {
+        Uplink uplink = new Uplink(uplinkOptions);
+        try (Project project = uplink.openProject(access)) {
+            BucketInfo createBucketInfo = project.ensureBucket("test-read-ahead");
+
+            byte[] expectedData = new byte[2 * 1024 * 1024];
+            Random random = new Random();
+            random.nextBytes(expectedData);
+
+            try (ObjectOutputStream os = project.uploadObject(createBucketInfo.getName(), "test-file")) {
+                os.write(expectedData);
+                os.commit();
+            }
+
+            try (ObjectInputStream is = project.downloadObject(createBucketInfo.getName(), "test-file",
+                    ObjectDownloadOption.readAhead(4, 64 * 1024))) {
+                for (int i = 0; i < 1000; i++) {
+                    Assert.assertEquals(expectedData[i] & 0xff, is.read());
+                }
+                byte[] rest = ByteStreams.toByteArray(is);
+                Assert.assertArrayEquals(Arrays.copyOfRange(expectedData, 1000, expectedData.length), rest);
+                Assert.assertEquals(-1, is.read());
+            }
+
+            try (ObjectInputStream is = project.downloadObject(createBucketInfo.getName(), "test-file",
+                    offset(1024 * 1024), ObjectDownloadOption.readAhead(2, 4096))) {
+                Assert.assertArrayEquals(Arrays.copyOfRange(expectedData, 1024 * 1024, expectedData.length),
+                        ByteStreams.toByteArray(is));
+            }
+
+            // closing before the end stops the background reader, later reads fail
+            ObjectInputStream closed = project.downloadObject(createBucketInfo.getName(), "test-file",
+                    ObjectDownloadOption.readAhead(2, 4096));
+            try {
+                Assert.assertEquals(expectedData[0] & 0xff, closed.read());
+            } finally {
+                closed.close();
+            }
+            try {
+                closed.read(new byte[10000]);
+                fail("Exception not thrown");
+            } catch (IOException e) {
+            }
+
+            // an abandoned stream is cleaned although its background reader is still waiting
+            long leaked = leakCount(NativeResources.DOWNLOAD);
+            ObjectInputStream abandoned = project.downloadObject(createBucketInfo.getName(), "test-file",
+                    ObjectDownloadOption.readAhead(2, 4096));
+            Assert.assertEquals(expectedData[0] & 0xff, abandoned.read());
+            WeakReference<ObjectInputStream> reference = new WeakReference<>(abandoned);
+            abandoned = null;
+            awaitCollected(reference);
+            Assert.assertTrue(leakCount(NativeResources.DOWNLOAD) > leaked);
+
+            project.deleteObject(createBucketInfo.getName(), "test-file");
+            project.deleteBucket(createBucketInfo.getName());
+        }
+    }
+
+    @Test
+    public void testSeekableChannel() throws Exception {
+        Uplink uplink = new Uplink(uplinkOptions);
+        try (Project project = uplink.openProject(access)) {
+            BucketInfo createBucketInfo = project.ensureBucket("test-seekable-channel");
+
+            byte[] expectedData = new byte[1024 * 1024 + 17];
+            Random random = new Random();
+            random.nextBytes(expectedData);
+
+            try (ObjectOutputStream os = project.uploadObject(createBucketInfo.getName(), "test-file")) {
+                os.write(expectedData);
+                os.commit();
+            }
+
+            try (ObjectSeekableChannel channel = project.downloadObjectSeekable(createBucketInfo.getName(), "test-file",
+                    SeekableChannelOption.blockSize(16 * 1024), SeekableChannelOption.cachedBlocks(4),
+                    SeekableChannelOption.maxSkip(64 * 1024))) {
+                Assert.assertEquals(expectedData.length, channel.size());
+
+                // footer, then the beginning, then a short and a long forward seek
+                long[] positions = {expectedData.length - 100, 0, 40 * 1024, 500 * 1024, expectedData.length - 100};
+                for (long position : positions) {
+                    ByteBuffer buffer = ByteBuffer.allocate(100);
+                    channel.position(position);
+                    while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                    }
+                    Assert.assertArrayEquals(Arrays.copyOfRange(expectedData, (int) position, (int) position + 100),
+                            buffer.array());
+                    Assert.assertEquals(position + 100, channel.position());
+                }
+
+                Assert.assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+                channel.position(expectedData.length + 10);
+                Assert.assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+            }
+
+            // a skip which fails on a shortened object keeps the current block intact
+            try (ObjectSeekableChannel channel = project.downloadObjectSeekable(createBucketInfo.getName(), "test-file",
+                    SeekableChannelOption.blockSize(16 * 1024), SeekableChannelOption.cachedBlocks(1),
+                    SeekableChannelOption.maxSkip(64 * 1024))) {
+                byte[] shortData = new byte[40 * 1024];
+                random.nextBytes(shortData);
+                try (ObjectOutputStream os = project.uploadObject(createBucketInfo.getName(), "test-file")) {
+                    os.write(shortData);
+                    os.commit();
+                }
+
+                ByteBuffer buffer = ByteBuffer.allocate(100);
+                channel.read(buffer);
+                try {
+                    channel.position(48 * 1024).read(ByteBuffer.allocate(100));
+                    fail("read beyond the shortened object should fail");
+                } catch (IOException e) {
+                    // expected
+                }
+                buffer.clear();
+                channel.position(0).read(buffer);
+                Assert.assertArrayEquals(Arrays.copyOf(shortData, 100), buffer.array());
+            }
+
+            project.deleteObject(createBucketInfo.getName(), "test-file");
+            project.deleteBucket(createBucketInfo.getName());
+        }
+    }
+
+    @Test
+    public void testParallelDownload() throws Exception {
+        Uplink uplink = new Uplink(uplinkOptions);
+        try (Project project = uplink.openProject(access)) {
+            BucketInfo createBucketInfo = project.ensureBucket("test-parallel-download");
+
+            byte[] expectedData = new byte[2 * 1024 * 1024 + 123];
+            Random random = new Random();
+            random.nextBytes(expectedData);
+
+            try (ObjectOutputStream os = project.uploadObject(createBucketInfo.getName(), "test-file")) {
+                os.write(expectedData);
+                os.commit();
+            }
+
+            try (InputStream is = project.downloadObjectParallel(createBucketInfo.getName(), "test-file",
+                    ParallelDownloadOption.concurrency(3), ParallelDownloadOption.partSize(256 * 1024),
+                    ParallelDownloadOption.bufferedParts(4))) {
+                Assert.assertArrayEquals(expectedData, ByteStreams.toByteArray(is));
+            }
+
+            Path file = Files.createTempFile("test-parallel-download", ".bin");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                long written = project.downloadObjectParallel(createBucketInfo.getName(), "test-file", channel,
+                        ParallelDownloadOption.concurrency(3), ParallelDownloadOption.partSize(256 * 1024));
+                Assert.assertEquals(expectedData.length, written);
+            }
+            Assert.assertArrayEquals(expectedData, Files.readAllBytes(file));
+            Files.delete(file);
+
+            // an object overwritten during the download fails it instead of mixing versions
+            try (InputStream is = project.downloadObjectParallel(createBucketInfo.getName(), "test-file",
+                    ParallelDownloadOption.concurrency(1), ParallelDownloadOption.partSize(256 * 1024),
+                    ParallelDownloadOption.bufferedParts(1))) {
+                // the only buffer holds the first part, so the second one is not opened yet
+                Assert.assertEquals(expectedData[0] & 0xff, is.read());
+                byte[] newData = new byte[expectedData.length + 1];
+                random.nextBytes(newData);
+                try (ObjectOutputStream os = project.uploadObject(createBucketInfo.getName(), "test-file")) {
+                    os.write(newData);
+                    os.commit();
+                }
+                try {
+                    ByteStreams.toByteArray(is);
+                    fail("Exception not thrown");
+                } catch (IOException e) {
+                }
+            }
+
+            project.deleteObject(createBucketInfo.getName(), "test-file");
+            project.deleteBucket(createBucketInfo.getName());
+        }
+    }
+
+    @Test
+    public void testMultipartUpload() throws Exception {
+        Uplink uplink = new Uplink(uplinkOptions);
+        try (Project project = uplink.openProject(access)) {
+            BucketInfo createBucketInfo = project.ensureBucket("test-multipart-upload");
+
+            // all parts except the last one must be at least 5 MiB
+            byte[] expectedData = new byte[11 * 1024 * 1024 + 123];
+            Random random = new Random();
+            random.nextBytes(expectedData);
+
+            Map<String, String> metadata = Collections.singletonMap("key", "value");
+            ObjectInfo info = project.uploadObjectMultipart(createBucketInfo.getName(), "test-file",
+                    new ByteArrayInputStream(expectedData), MultipartUploadOption.partSize(5 * 1024 * 1024),
+                    MultipartUploadOption.concurrency(2), MultipartUploadOption.customMetadata(metadata));
+            Assert.assertEquals("test-file", info.getKey());
+            Assert.assertEquals(metadata, info.getCustomMetadata());
+
+            try (ObjectInputStream is = project.downloadObject(createBucketInfo.getName(), "test-file")) {
+                Assert.assertArrayEquals(expectedData, ByteStreams.toByteArray(is));
+            }
+
+            Path file = Files.createTempFile("test-multipart-upload", ".bin");
+            Files.write(file, expectedData);
+            project.uploadObjectMultipart(createBucketInfo.getName(), "test-file-channel", file,
+                    MultipartUploadOption.partSize(5 * 1024 * 1024));
+            Files.delete(file);
+
+            try (ObjectInputStream is = project.downloadObject(createBucketInfo.getName(), "test-file-channel")) {
+                Assert.assertArrayEquals(expectedData, ByteStreams.toByteArray(is));
+            }
+
+            try {
+                MultipartUploadOption.partSize(1024 * 1024);
+                fail("part size below the service minimum should be rejected");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+
+            project.deleteObject(createBucketInfo.getName(), "test-file");
+            project.deleteObject(createBucketInfo.getName(), "test-file-channel");
+            project.deleteBucket(createBucketInfo.getName());
+        }
+    }
+
+    @Test
+    public void testBackendSelection() throws Exception {
+        assertEquals(UplinkBackend.NATIVE, UplinkBackend.defaultName(8));
+        assertEquals(UplinkBackend.NATIVE, UplinkBackend.defaultName(21));
+        assertEquals(UplinkBackend.PANAMA, UplinkBackend.defaultName(22));
+        if (UplinkBackend.javaVersion() >= 22) {
+            // compiled by the panama profile, which is active when building on JDK 22
+            Class.forName("io.storj.PanamaUplink");
+        }
+    }
+
+    @Test
+    public void testAsyncProject() throws Exception {
+        Uplink uplink = new Uplink(uplinkOptions);
+        try (Project project = uplink.openProject(access);
+             AsyncProject async = project.async(AsyncProjectOption.maxInFlight(4))) {
+            BucketInfo createBucketInfo = async.ensureBucket("test-async-project").get();
+
+            for (int i = 0; i < 10; i++) {
+                try (ObjectOutputStream os = project.uploadObject(createBucketInfo.getName(), "test-file" + i)) {
+                    os.write(new byte[]{(byte) i});
+                    os.commit();
+                }
+            }
+
+            List<CompletableFuture<ObjectInfo>> stats = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                stats.add(async.statObject(createBucketInfo.getName(), "test-file" + i));
+            }
+            for (int i = 0; i < 10; i++) {
+                Assert.assertEquals("test-file" + i, stats.get(i).get().getKey());
+            }
+
+            try {
+                async.statObject(createBucketInfo.getName(), "non-existing").get();
+                fail("expected failure");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof StorjException);
+            }
+
+            List<CompletableFuture<ObjectInfo>> deletes = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                deletes.add(async.deleteObject(createBucketInfo.getName(), "test-file" + i));
+            }
+            CompletableFuture.allOf(deletes.toArray(new CompletableFuture[0])).get();
+
+            async.deleteBucket(createBucketInfo.getName()).get();
+        }
+    }
+
+    @Test
+    public void testAsyncProjectQueuesBeyondMaxInFlight() throws Exception {
+        // runs nothing until the test does, to see what was handed over
+        final List<Runnable> handedOver = new ArrayList<>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                handedOver.add(command);
+            }
+        };
+        Uplink uplink = new Uplink(uplinkOptions);
+        try (Project project = uplink.openProject(access);
+             AsyncProject async = project.async(AsyncProjectOption.executor(executor),
+                     AsyncProjectOption.maxInFlight(2))) {
+            List<CompletableFuture<BucketInfo>> buckets = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                buckets.add(async.ensureBucket("test-async-queue"));
+            }
+            // only calls holding a slot are handed to the executor, the others wait in the queue
+            assertEquals(2, handedOver.size());
+
+            int run = 0;
+            while (!handedOver.isEmpty()) {
+                handedOver.remove(0).run();
+                run++;
+                Assert.assertTrue(handedOver.size() <= 2);
+            }
+            assertEquals(10, run);
+            for (CompletableFuture<BucketInfo> bucket : buckets) {
+                assertEquals("test-async-queue", bucket.getNow(null).getName());
+            }
+
+            async.close();
+            try {
+                async.statBucket("test-async-queue").get();
+                fail("Exception not thrown");
+            } catch (ExecutionException e) {
+            }
+            project.deleteBucket("test-async-queue");
+        }
+    }
+
+    @Test
+    public void testDeleteObjects() throws Exception {
+        Uplink uplink = new Uplink(uplinkOptions);
+        try (Project project = uplink.openProject(access)) {
+            BucketInfo createBucketInfo = project.ensureBucket("test-delete-objects");
+
+            List<String> keys = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                String key = (i % 2 == 0 ? "even/" : "odd/") + "test-file" + i;
+                try (ObjectOutputStream os = project.uploadObject(createBucketInfo.getName(), key)) {
+                    os.write(new byte[]{(byte) i});
+                    os.commit();
+                }
+                keys.add(key);
+            }
+
+            List<String> batch = new ArrayList<>();
+            for (String key : keys) {
+                if (key.startsWith("even/")) {
+                    batch.add(key);
+                }
+            }
+            batch.add("even/non-existing");
+
+            int i = 0;
+            try (DeleteResultIterator results = project.deleteObjects(createBucketInfo.getName(), batch,
+                    DeleteObjectsOption.concurrency(3))) {
+                for (DeleteResult result : results) {
+                    Assert.assertEquals(batch.get(i), result.getKey());
+                    Assert.assertNull(result.getError());
+                    Assert.assertEquals(i < 5, result.isDeleted());
+                    Assert.assertEquals(i == 5, result.isNotFound());
+                    i++;
+                }
+            }
+            Assert.assertEquals(batch.size(), i);
+
+            int deleted = 0;
+            try (DeleteResultIterator results = project.deleteObjectsWithPrefix(createBucketInfo.getName(), "odd/")) {
+                for (DeleteResult result : results) {
+                    Assert.assertTrue(result.getKey().startsWith("odd/"));
+                    Assert.assertTrue(result.isDeleted());
+                    deleted++;
+                }
+            }
+            Assert.assertEquals(5, deleted);
+
+            // an unexpected failure is reported for its key and the batch goes on
+            Project failing = new Project(project.internal(), false) {
+                @Override
+                public ObjectInfo deleteObject(String bucket, String key) throws StorjException {
+                    if (key.equals("fails")) {
+                        throw new IllegalStateException("unexpected");
+                    }
+                    return super.deleteObject(bucket, key);
+                }
+            };
+            i = 0;
+            try (DeleteResultIterator results = failing.deleteObjects(createBucketInfo.getName(),
+                    Arrays.asList("fails", "non-existing"))) {
+                for (DeleteResult result : results) {
+                    Assert.assertEquals(i == 0, result.getError() != null);
+                    Assert.assertEquals(i == 1, result.isNotFound());
+                    i++;
+                }
+            }
+            Assert.assertEquals(2, i);
+
+            try (ObjectIterator iterator = project.listObjects(createBucketInfo.getName(), ObjectListOption.recursive())) {
+                Assert.assertFalse(iterator.hasNext());
+            }
+
+            project.deleteBucket(createBucketInfo.getName());
+        }
+    }
+
+    @Test
+    public void testPrefetchListing() throws Exception {
+        Uplink uplink = new Uplink(uplinkOptions);
+        try (Project project = uplink.openProject(access)) {
+            BucketInfo createBucketInfo = project.ensureBucket("test-prefetch-listing");
+
+            Set<String> expectedKeys = new HashSet<>();
+            for (int i = 0; i < 10; i++) {
+                try (ObjectOutputStream os = project.uploadObject(createBucketInfo.getName(), "test-file" + i)) {
+                    os.write(new byte[]{(byte) i});
+                    os.commit();
+                }
+                expectedKeys.add("test-file" + i);
+            }
+
+            Set<String> keys = new HashSet<>();
+            try (ObjectIterator iterator = project.listObjects(createBucketInfo.getName(),
+                    ObjectListOption.prefetch(3), ObjectListOption.system())) {
+                for (ObjectInfo info : iterator) {
+                    Assert.assertEquals(1, info.getSystemMetadata().getContentLength());
+                    keys.add(info.getKey());
+                }
+                Assert.assertFalse(iterator.hasNext());
+            }
+            Assert.assertEquals(expectedKeys, keys);
+
+            // closing before the listing is drained stops the background thread
+            ObjectIterator closed = project.listObjects(createBucketInfo.getName(), ObjectListOption.prefetch(1));
+            try {
+                Assert.assertTrue(closed.hasNext());
+                closed.next();
+            } finally {
+                closed.close();
+            }
+            // ends instead of waiting for the stopped background thread
+            Assert.assertFalse(closed.hasNext());
+
+            // an abandoned iterator is cleaned although its background thread is still waiting
+            long leaked = leakCount(NativeResources.OBJECT_ITERATOR);
+            ObjectIterator abandoned = project.listObjects(createBucketInfo.getName(), ObjectListOption.prefetch(1));
+            Assert.assertTrue(abandoned.hasNext());
+            WeakReference<ObjectIterator> reference = new WeakReference<>(abandoned);
+            abandoned = null;
+            awaitCollected(reference);
+            Assert.assertTrue(leakCount(NativeResources.OBJECT_ITERATOR) > leaked);
+
+            for (String key : expectedKeys) {
+                project.deleteObject(createBucketInfo.getName(), key);
+            }
+            project.deleteBucket(createBucketInfo.getName());
+        }
+    }
+
+    @Test
+    public void testParallelListing() throws Exception {
+        Uplink uplink = new Uplink(uplinkOptions);
+        try (Project project = uplink.openProject(access)) {
+            BucketInfo createBucketInfo = project.ensureBucket("test-parallel-listing");
+
+            List<String> expectedKeys = new ArrayList<>();
+            for (String prefix : new String[]{"", "a/", "a/b/", "b/", "c-d/"}) {
+                for (int i = 0; i < 3; i++) {
+                    String key = prefix + "test-file" + i;
+                    try (ObjectOutputStream os = project.uploadObject(createBucketInfo.getName(), key)) {
+                        os.write(new byte[]{(byte) i});
+                        os.commit();
+                    }
+                    expectedKeys.add(key);
+                }
+            }
+            Collections.sort(expectedKeys);
+
+            // keys are ordered by their UTF-8 bytes, in which characters outside the BMP sort
+            // after all others, unlike their UTF-16 surrogates
+            int last = expectedKeys.indexOf("a/test-file2");
+            expectedKeys.add(last + 1, "a/\uFF61");
+            expectedKeys.add(last + 2, "a/\uD83D\uDE00");
+            for (String key : expectedKeys.subList(last + 1, last + 3)) {
+                try (ObjectOutputStream os = project.uploadObject(createBucketInfo.getName(), key)) {
+                    os.commit();
+                }
+            }
+
+            List<String> keys = new ArrayList<>();
+            try (Stream<ObjectInfo> objects = project.listObjectsParallel(createBucketInfo.getName(),
+                    ParallelListOption.concurrency(2), ParallelListOption.ordered())) {
+                for (Iterator<ObjectInfo> it = objects.iterator(); it.hasNext(); ) {
+                    keys.add(it.next().getKey());
+                }
+            }
+            Assert.assertEquals(expectedKeys, keys);
+
+            Set<String> unordered = new HashSet<>();
+            try (Stream<ObjectInfo> objects = project.listObjectsParallel(createBucketInfo.getName(),
+                    ParallelListOption.bufferedObjects(2))) {
+                for (Iterator<ObjectInfo> it = objects.iterator(); it.hasNext(); ) {
+                    unordered.add(it.next().getKey());
+                }
+            }
+            Assert.assertEquals(new HashSet<>(expectedKeys), unordered);
+
+            try (Stream<ObjectInfo> objects = project.listObjectsParallel(createBucketInfo.getName(),
+                    ParallelListOption.prefix("a/"), ParallelListOption.ordered())) {
+                Assert.assertEquals(8, objects.count());
+            }
+
+            // a dropped stream stops its workers, which are blocked on the full queue
+            long leaked = leakCount(NativeResources.PARALLEL_LISTING);
+            Stream<ObjectInfo> dropped = project.listObjectsParallel(createBucketInfo.getName(),
+                    ParallelListOption.bufferedObjects(1));
+            Iterator<ObjectInfo> it = dropped.iterator();
+            Assert.assertTrue(it.hasNext());
+            WeakReference<Stream<ObjectInfo>> reference = new WeakReference<>(dropped);
+            dropped = null;
+            it = null;
+            awaitCollected(reference);
+            for (int i = 0; i < 500 && (leakCount(NativeResources.PARALLEL_LISTING) == leaked
+                    || listingWorkers() > 0); i++) {
+                Thread.sleep(10);
+            }
+            Assert.assertTrue(leakCount(NativeResources.PARALLEL_LISTING) > leaked);
+            assertEquals(0, listingWorkers());
+
+            for (String key : expectedKeys) {
+                project.deleteObject(createBucketInfo.getName(), key);
+            }
+            project.deleteBucket(createBucketInfo.getName());
+        }
+    }
+
+    @Test
+    public void testListingStreams() throws Exception {
+        Uplink uplink = new Uplink(uplinkOptions);
+        try (Project project = uplink.openProject(access)) {
+            BucketInfo createBucketInfo = project.ensureBucket("test-listing-streams");
+
+            long expectedSize = 0;
+            for (int i = 0; i < 10; i++) {
+                try (ObjectOutputStream os = project.uploadObject(createBucketInfo.getName(), "test-file" + i)) {
+                    os.write(new byte[i + 1]);
+                    os.commit();
+                }
+                expectedSize += i + 1;
+            }
+
+            try (Stream<ObjectInfo> objects = project.objects(createBucketInfo.getName(), ObjectListOption.system())) {
+                long size = objects.parallel().mapToLong(info -> info.getSystemMetadata().getContentLength()).sum();
+                Assert.assertEquals(expectedSize, size);
+            }
+
+            try (Stream<BucketInfo> buckets = project.buckets()) {
+                Assert.assertTrue(buckets.anyMatch(bucket -> bucket.getName().equals(createBucketInfo.getName())));
+            }
+
+            for (int i = 0; i < 10; i++) {
+                project.deleteObject(createBucketInfo.getName(), "test-file" + i);
+            }
+            project.deleteBucket(createBucketInfo.getName());
+        }
+    }
+
+    @Test
+    public void testObjectInfoSerialization() throws Exception {
+        Uplink uplink = new Uplink(uplinkOptions);
+        try (Project project = uplink.openProject(access)) {
+            BucketInfo createBucketInfo = project.ensureBucket("test-object-info-serialization");
+
+            Map<String, String> metadata = new HashMap<>();
+            metadata.put("custom-meta-ążęć", "foo-学中文");
+            metadata.put("empty", "");
+            try (ObjectOutputStream os = project.uploadObject(createBucketInfo.getName(), "test-file")) {
+                os.setCustomMetadata(metadata);
+                os.write(new byte[]{1, 2, 3});
+                os.commit();
+            }
+
+            ObjectInfo info = project.statObject(createBucketInfo.getName(), "test-file");
+            Assert.assertEquals(info, project.statObject(createBucketInfo.getName(), "test-file"));
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(bytes)) {
+                out.writeObject(info);
+            }
+            try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                ObjectInfo deserialized = (ObjectInfo) in.readObject();
+                Assert.assertEquals(info, deserialized);
+                Assert.assertEquals(metadata, deserialized.getCustomMetadata());
+                Assert.assertEquals(info.getSystemMetadata().getCreated(), deserialized.getSystemMetadata().getCreated());
+            }
+            Assert.assertEquals(metadata, info.getCustomMetadata());
+
+            project.deleteObject(createBucketInfo.getName(), "test-file");
+            project.deleteBucket(createBucketInfo.getName());
+        }
+    }
+
+    @Test
+    public void testColumnarListing() throws Exception {
+        Uplink uplink = new Uplink(uplinkOptions);
+        try (Project project = uplink.openProject(access)) {
+            BucketInfo createBucketInfo = project.ensureBucket("test-columnar-listing");
+
+            Map<String, Long> expectedSizes = new HashMap<>();
+            for (int i = 0; i < 10; i++) {
+                String key = (i % 2 == 0 ? "even/" : "odd/") + "test-file" + i;
+                try (ObjectOutputStream os = project.uploadObject(createBucketInfo.getName(), key)) {
+                    os.write(new byte[i + 1]);
+                    os.commit();
+                }
+                expectedSizes.put(key, (long) i + 1);
+            }
+
+            ObjectColumns columns = project.listObjectColumns(createBucketInfo.getName(), ObjectListOption.recursive());
+            Assert.assertEquals(10, columns.size());
+
+            Map<String, Long> sizes = new HashMap<>();
+            ObjectColumns.Cursor cursor = columns.cursor();
+            while (cursor.next()) {
+                sizes.put(cursor.key(), cursor.contentLength());
+                Assert.assertTrue(cursor.created() > 0);
+            }
+            Assert.assertEquals(expectedSizes, sizes);
+
+            Assert.assertEquals(55, columns.totalSize());
+            Assert.assertEquals(1 + 3 + 5 + 7 + 9, columns.totalSize("even/"));
+            Map<String, Long> byPrefix = columns.totalSizeByPrefix();
+            Assert.assertEquals(Long.valueOf(25), byPrefix.get("even/"));
+            Assert.assertEquals(Long.valueOf(30), byPrefix.get("odd/"));
+
+            for (String key : expectedSizes.keySet()) {
+                project.deleteObject(createBucketInfo.getName(), key);
+            }
+            project.deleteBucket(createBucketInfo.getName());
+        }
+    }
+
+    @Test
+    public void testProjectPool() throws Exception {
+        Uplink uplink = new Uplink(uplinkOptions);
+        try (ProjectPool pool = new ProjectPool(ProjectPoolOption.maxSize(2), ProjectPoolOption.checkoutTimeout(100))) {
+            try (PooledProject project = pool.checkout(uplink, access)) {
+                project.ensureBucket("test-project-pool");
+            }
+            try (PooledProject project = pool.checkout(uplink, access)) {
+                project.statBucket("test-project-pool");
+            }
+            Assert.assertEquals(1, pool.getStats().getOpened());
+            Assert.assertEquals(1, pool.getStats().getIdle());
+
+            try (PooledProject first = pool.checkout(uplink, access);
+                 PooledProject second = pool.checkout(uplink, access)) {
+                Assert.assertEquals(1.0, pool.getStats().getUtilization(), 0);
+                try {
+                    pool.checkout(uplink, access);
+                    fail("expected checkout timeout");
+                } catch (StorjException e) {
+                    Assert.assertEquals(1, pool.getStats().getCheckoutTimeouts());
+                }
+                second.invalidate();
+            }
+            Assert.assertEquals(1, pool.getStats().getIdle());
+            Assert.assertEquals(1, pool.getStats().getClosed());
+
+            // a returned checkout which is garbage collected leaves the pooled project open
+            PooledProject returned = pool.checkout(uplink, access);
+            returned.close();
+            WeakReference<PooledProject> reference = new WeakReference<>(returned);
+            returned = null;
+            awaitCollected(reference);
+
+            try (PooledProject project = pool.checkout(uplink, access)) {
+                project.deleteBucket("test-project-pool");
+            }
+        }
+
+        // a checkout which is never closed frees its slot when garbage collected
+        try (ProjectPool pool = new ProjectPool(ProjectPoolOption.maxSize(1), ProjectPoolOption.checkoutTimeout(5000))) {
+            PooledProject leaked = pool.checkout(uplink, access);
+            WeakReference<PooledProject> reference = new WeakReference<>(leaked);
+            leaked = null;
+            awaitCollected(reference);
+
+            try (PooledProject project = pool.checkout(uplink, access)) {
+                project.listBuckets().close();
+            }
+            Assert.assertEquals(2, pool.getStats().getOpened());
+            Assert.assertEquals(0, pool.getStats().getCheckoutTimeouts());
+        }
+    }
+
+    /**
+     * Waits until the object is garbage collected and gives the cleaner time to process it.
+     */
+    private static void awaitCollected(WeakReference<?> reference) throws InterruptedException {
+        for (int i = 0; i < 500 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(null, reference.get());
+        Thread.sleep(100);
+    }
+
+    private static int listingWorkers() {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("storj-parallel-list-")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static long leakCount(String type) {
+        Long count = NativeResources.getLeakCounts().get(type);
+        return count == null ? 0 : count;
+    }
+
+    @Test
+    public void testAccessHandleReuse() throws Exception {
+        Uplink uplink = new Uplink(uplinkOptions);
+        Access access = Access.parse(this.access.serialize());
+        try (Project project = uplink.openProject(access)) {
+            project.ensureBucket("test-access-handle-reuse");
+        }
+
+        Access shared = access.share(new Permission.Builder().allowList().allowDownload().build());
+        try (Project project = uplink.openProject(shared)) {
+            project.statBucket("test-access-handle-reuse");
+        }
+        shared.close();
+
+        // a closed access parses the grant again when used
+        access.close();
+        try (Project project = uplink.openProject(access)) {
+            project.deleteBucket("test-access-handle-reuse");
+        }
+        access.close();
+    }
+
+    @Test
+    public void testEncryptionKeyCache() throws Exception {
+        EncryptionKey encryptionKey = new EncryptionKey("strong-pass", "salt".getBytes());
+        try (EncryptionKeyCache cache = new EncryptionKeyCache(EncryptionKeyCacheOption.maxSize(1))) {
+            cache.derive(encryptionKey).get();
+
+            Access first = Access.parse(this.access.serialize());
+            first.overrideEncryptionKey("bucket1", "my-prefix/", encryptionKey, cache);
+            Access second = Access.parse(this.access.serialize());
+            second.overrideEncryptionKey("bucket1", "my-prefix/", new EncryptionKey("strong-pass", "salt".getBytes()), cache);
+            assertEquals(first.serialize(), second.serialize());
+
+            // evicts the first key while it may still be in use
+            cache.derive(new EncryptionKey("other-pass", "salt".getBytes())).get();
+            second.overrideEncryptionKey("bucket1", "my-prefix/", encryptionKey, cache);
+            assertEquals(first.serialize(), second.serialize());
+        }
+    }
+
+    @Test
+    public void testShareAll() throws Exception {
+        Permission readOnly = new Permission.Builder().allowList().allowDownload().build();
+        Permission readWrite = new Permission.Builder().allowList().allowDownload().allowUpload().build();
+        List<ShareRequest> requests = Arrays.asList(
+                new ShareRequest(readOnly, new SharePrefix("bucket1")),
+                new ShareRequest(readWrite, new SharePrefix("bucket1"), new SharePrefix("bucket2", "my-prefix")),
+                new ShareRequest(new Permission.Builder().allowList().allowDownload().build(), new SharePrefix("bucket1")));
+
+        ShareCache cache = new ShareCache(10);
+        List<Access> shared = access.shareAll(requests, cache);
+        assertEquals(3, shared.size());
+        // equal requests are cached once
+        assertEquals(2, cache.size());
+        assertEquals(shared.get(0).serialize(), shared.get(2).serialize());
+
+        List<Access> cached = access.shareAll(requests, cache);
+        for (int i = 0; i < shared.size(); i++) {
+            assertEquals(shared.get(i).serialize(), cached.get(i).serialize());
+        }
+
+        Uplink uplink = new Uplink(uplinkOptions);
+        try (Project project = uplink.openProject(access)) {
+            project.ensureBucket("bucket1");
+        }
+        try (Project project = uplink.openProject(cached.get(1))) {
+            project.statBucket("bucket1");
+        }
+        try (Project project = uplink.openProject(access)) {
+            project.deleteBucket("bucket1");
+        }
+    }
+
+    @Test
+    public void testNativeResources() throws Exception {
+        NativeResources.setStackSampling(1);
+        try {
+            Uplink uplink = new Uplink(uplinkOptions);
+            try (Project project = uplink.openProject(access)) {
+                project.ensureBucket("test-native-resources");
+
+                ObjectIterator iterator = project.listObjects("test-native-resources");
+                assertEquals(1, allocatedHere(NativeResources.OBJECT_ITERATOR));
+
+                iterator.close();
+                // closing again must not free the handle twice
+                iterator.close();
+                assertEquals(0, allocatedHere(NativeResources.OBJECT_ITERATOR));
+
+                project.deleteBucket("test-native-resources");
+            }
+        } finally {
+            NativeResources.setStackSampling(0);
+        }
+    }
+
+    @Test
+    public void testProjectKeptOpenByChildren() throws Exception {
+        Uplink uplink = new Uplink(uplinkOptions);
+        try (Project project = uplink.openProject(access)) {
+            project.ensureBucket("test-project-children");
+        }
+
+        // an iterator keeps the project open, also when the project itself is not referenced
+        long leaked = leakCount(NativeResources.PROJECT);
+        Project project = uplink.openProject(access);
+        WeakReference<Project> reference = new WeakReference<>(project);
+        ObjectIterator iterator = project.listObjects("test-project-children");
+        project = null;
+        for (int i = 0; i < 20; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNotNull(reference.get());
+        Assert.assertFalse(iterator.hasNext());
+        iterator.close();
+
+        iterator = null;
+        awaitCollected(reference);
+        for (int i = 0; i < 500 && leakCount(NativeResources.PROJECT) == leaked; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(leakCount(NativeResources.PROJECT) > leaked);
+
+        try (Project cleanup = uplink.openProject(access)) {
+            cleanup.deleteBucket("test-project-children");
+        }
+    }
+
+    private static int allocatedHere(String type) {
+        int count = 0;
+        for (NativeResources.Resource resource : NativeResources.getLiveResources()) {
+            StackTraceElement[] stack = resource.getAllocationStack();
+            if (!resource.getType().equals(type) || stack == null) {
+                continue;
+            }
+            for (StackTraceElement element : stack) {
+                if (element.getMethodName().equals("testNativeResources")) {
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testCachingProject() throws Exception {
+        Path directory = Files.createTempDirectory("storj-cache");
+        byte[] expectedData = new byte[200 * 1024];
+        new Random().nextBytes(expectedData);
+
+        Uplink uplink = new Uplink(uplinkOptions);
+        try (Project project = uplink.openProject(access)) {
+            project.ensureBucket("test-caching");
+            try (ObjectOutputStream os = project.uploadObject("test-caching", "asset")) {
+                os.write(expectedData);
+                os.commit();
+            }
+
+            CachingProject cache = project.caching(CachingProjectOption.directory(directory),
+                    CachingProjectOption.chunkSize(64 * 1024));
+
+            // a range within the third chunk only caches that chunk
+            try (InputStream in = cache.downloadObject("test-caching", "asset", offset(140000), length(1000))) {
+                Assert.assertArrayEquals(Arrays.copyOfRange(expectedData, 140000, 141000), ByteStreams.toByteArray(in));
+            }
+            try (InputStream in = cache.downloadObject("test-caching", "asset")) {
+                Assert.assertArrayEquals(expectedData, ByteStreams.toByteArray(in));
+            }
+            try (InputStream in = cache.downloadObject("test-caching", "asset", offset(65000))) {
+                Assert.assertArrayEquals(Arrays.copyOfRange(expectedData, 65000, expectedData.length), ByteStreams.toByteArray(in));
+            }
+
+            // chunks marked in a data file replaced by another process are downloaded again
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.data")) {
+                for (Path file : files) {
+                    Files.write(file, new byte[0]);
+                }
+            }
+            try (InputStream in = cache.downloadObject("test-caching", "asset", offset(140000), length(1000))) {
+                Assert.assertArrayEquals(Arrays.copyOfRange(expectedData, 140000, 141000), ByteStreams.toByteArray(in));
+            }
+
+            // an overwritten object is a new entry, and the old one is evicted first
+            byte[] newData = Arrays.copyOf(expectedData, 100 * 1024);
+            try (ObjectOutputStream os = project.uploadObject("test-caching", "asset")) {
+                os.write(newData);
+                os.commit();
+            }
+            CachingProject small = project.caching(CachingProjectOption.directory(directory),
+                    CachingProjectOption.chunkSize(64 * 1024), CachingProjectOption.maxSize(150 * 1024));
+            try (InputStream in = small.downloadObject("test-caching", "asset")) {
+                Assert.assertArrayEquals(newData, ByteStreams.toByteArray(in));
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.data")) {
+                int entries = 0;
+                for (Path file : files) {
+                    entries++;
+                }
+                assertEquals(1, entries);
+            }
+
+            // partial last chunks count with their actual size, so both entries fit
+            try (ObjectOutputStream os = project.uploadObject("test-caching", "other")) {
+                os.write(new byte[1024]);
+                os.commit();
+            }
+            Path exact = Files.createTempDirectory("storj-cache");
+            CachingProject fitting = project.caching(CachingProjectOption.directory(exact),
+                    CachingProjectOption.chunkSize(64 * 1024), CachingProjectOption.maxSize(110 * 1024));
+            try (InputStream in = fitting.downloadObject("test-caching", "asset")) {
+                Assert.assertArrayEquals(newData, ByteStreams.toByteArray(in));
+            }
+            try (InputStream in = fitting.downloadObject("test-caching", "other")) {
+                Assert.assertArrayEquals(new byte[1024], ByteStreams.toByteArray(in));
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(exact, "*.data")) {
+                int entries = 0;
+                for (Path file : files) {
+                    entries++;
+                }
+                assertEquals(2, entries);
+            }
+
+            project.deleteObject("test-caching", "other");
+            project.deleteObject("test-caching", "asset");
+            project.deleteBucket("test-caching");
+        }
+    }
+
+    @Test
+    public void testStatCache() throws Exception {
+        Uplink uplink = new Uplink(uplinkOptions);
+        try (Project project = uplink.openProject(access)) {
+            project.ensureBucket("test-stat-cache");
+            StatCache cache = project.enableStatCache(StatCacheOption.ttl(60000));
+
+            try (ObjectOutputStream os = project.uploadObject("test-stat-cache", "object")) {
+                os.write(new byte[10]);
+                os.commit();
+            }
+            assertEquals(10, project.statObject("test-stat-cache", "object").getSystemMetadata().getContentLength());
+            assertEquals(10, project.statObject("test-stat-cache", "object").getSystemMetadata().getContentLength());
+            assertEquals(1, cache.getStats().getHits());
+
+            // not found results are cached too
+            for (int i = 0; i < 2; i++) {
+                try {
+                    project.statObject("test-stat-cache", "missing");
+                    fail("object should not exist");
+                } catch (StorjException e) {
+                    // expected
+                }
+            }
+            assertEquals(1, cache.getStats().getNegativeHits());
+
+            // an upload through the project replaces the cached result
+            try (ObjectOutputStream os = project.uploadObject("test-stat-cache", "object")) {
+                os.write(new byte[20]);
+                os.commit();
+            }
+            assertEquals(20, project.statObject("test-stat-cache", "object").getSystemMetadata().getContentLength());
+            assertEquals(1, cache.getStats().getInvalidations());
+
+            project.deleteObject("test-stat-cache", "object");
+            try {
+                project.statObject("test-stat-cache", "object");
+                fail("object should be deleted");
+            } catch (StorjException e) {
+                // expected
+            }
+            project.deleteBucket("test-stat-cache");
+        }
+    }
+
     @Test
     public void testObjectsListing() throws Exception {
         Uplink uplink = new Uplink(uplinkOptions);